@@ -2,9 +2,18 @@ package com.personalfin.server;
 
 import com.personalfin.server.auth.config.JwtProperties;
 import com.personalfin.server.budget.config.BudgetProperties;
+import com.personalfin.server.email.config.EmailOutboxProperties;
 import com.personalfin.server.expense.config.ExpenseAnalyticsProperties;
 import com.personalfin.server.expense.config.ExpenseCategorizerProperties;
+import com.personalfin.server.expense.config.ExpenseDuplicateProperties;
+import com.personalfin.server.expense.config.ExpenseImportProperties;
+import com.personalfin.server.receipt.config.ReceiptProperties;
 import com.personalfin.server.reminder.config.ReminderProperties;
+import com.personalfin.server.security.config.AuditLogProperties;
+import com.personalfin.server.security.config.LoginAttemptLogProperties;
+import com.personalfin.server.security.config.PasswordHashingProperties;
+import com.personalfin.server.security.config.SecurityLogRetentionProperties;
+import com.personalfin.server.sync.config.SyncProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -15,9 +24,18 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableConfigurationProperties({
         ExpenseCategorizerProperties.class,
         ExpenseAnalyticsProperties.class,
+        ExpenseImportProperties.class,
+        ExpenseDuplicateProperties.class,
         ReminderProperties.class,
         BudgetProperties.class,
         JwtProperties.class,
+        SyncProperties.class,
+        ReceiptProperties.class,
+        EmailOutboxProperties.class,
+        AuditLogProperties.class,
+        LoginAttemptLogProperties.class,
+        PasswordHashingProperties.class,
+        SecurityLogRetentionProperties.class,
         com.personalfin.server.config.RateLimitingConfig.class
 })
 public class PersonalFinanceServerApplication {
@@ -5,22 +5,18 @@ import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OtpCodeRepository extends JpaRepository<OtpCode, UUID> {
 
-    @Query("""
-            SELECT o FROM OtpCode o
-            WHERE o.email = :email
-              AND o.used = false
-              AND o.expiresAt >= :now
-            ORDER BY o.createdAt DESC
-            """)
-    Optional<OtpCode> findActiveByEmail(@Param("email") String email, @Param("now") OffsetDateTime now);
+    // Served by idx_otp_codes_active; newest code wins if several are still active
+    Optional<OtpCode> findFirstByEmailAndUsedFalseAndExpiresAtGreaterThanEqualOrderByCreatedAtDesc(
+            String email, OffsetDateTime now);
+
+    default Optional<OtpCode> findActiveByEmail(String email, OffsetDateTime now) {
+        return findFirstByEmailAndUsedFalseAndExpiresAtGreaterThanEqualOrderByCreatedAtDesc(email, now);
+    }
 
     Optional<OtpCode> findFirstByEmailOrderByCreatedAtDesc(String email);
 }
-
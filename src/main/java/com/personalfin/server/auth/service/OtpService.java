@@ -1,61 +1,142 @@
 package com.personalfin.server.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.personalfin.server.auth.dto.OtpResponse;
 import com.personalfin.server.auth.model.OtpCode;
 import com.personalfin.server.auth.repository.OtpCodeRepository;
 import com.personalfin.server.email.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Issues and verifies registration OTPs. The one-per-minute throttle is kept in
+ * memory; for the first minute after startup, when the map cannot know about
+ * codes issued before a restart, a miss falls back to the latest stored code.
+ * A request whose transaction rolls back gives its throttle slot back.
+ * Expired codes are purged in batches on a schedule.
+ *
+ * <p>The throttle is per instance. The stored-code check it replaced saw every
+ * instance's codes, but with N replicas behind a load balancer an email can now
+ * get up to N codes a minute, one from each. Codes are still one-time and
+ * expire after {@value #OTP_EXPIRY_MINUTES} minutes, and the {@code /api/auth/}
+ * rate limit, kept per client IP and shared across instances by the jdbc
+ * backend, still caps how fast any one client can ask for them.
+ */
 @Service
 public class OtpService {
 
+    private static final Logger log = LoggerFactory.getLogger(OtpService.class);
+
     private static final int OTP_LENGTH = 6;
+    private static final int OTP_BOUND = 1_000_000;
     private static final int OTP_EXPIRY_MINUTES = 10;
     private static final int MIN_SECONDS_BETWEEN_REQUESTS = 60;
 
+    private static final String PURGE_SQL = """
+            DELETE FROM otp_codes
+            WHERE id IN (SELECT id FROM otp_codes WHERE expires_at < ? LIMIT ?)
+            """;
+
     private final OtpCodeRepository otpCodeRepository;
     private final EmailService emailService;
-    private final Random random = new Random();
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int purgeBatchSize;
+    private final SecureRandom random = new SecureRandom();
+    private final Instant throttleWarmUntil;
+    private final Cache<String, Instant> recentRequests = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(MIN_SECONDS_BETWEEN_REQUESTS))
+            .maximumSize(100_000)
+            .build();
+
+    private final Counter issued;
+    private final Counter throttled;
+    private final Counter purged;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
 
     @Value("${spring.profiles.active:dev}")
     private String activeProfile;
 
-    public OtpService(OtpCodeRepository otpCodeRepository, EmailService emailService) {
+    public OtpService(
+            OtpCodeRepository otpCodeRepository,
+            EmailService emailService,
+            JdbcTemplate jdbcTemplate,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            @Value("${auth.otp.purge-batch-size:1000}") int purgeBatchSize) {
         this.otpCodeRepository = otpCodeRepository;
         this.emailService = emailService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.purgeBatchSize = purgeBatchSize;
+        this.throttleWarmUntil = clock.instant().plusSeconds(MIN_SECONDS_BETWEEN_REQUESTS);
+
+        this.issued = Counter.builder("auth.otp.issued")
+                .description("OTP codes issued")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("auth.otp.throttled")
+                .description("OTP requests rejected by the per-email throttle")
+                .register(meterRegistry);
+        this.purged = Counter.builder("auth.otp.purged")
+                .description("Expired OTP codes deleted")
+                .register(meterRegistry);
+        this.verifiedTimer = Timer.builder("auth.otp.verification")
+                .description("OTP verification latency")
+                .tag("outcome", "verified")
+                .register(meterRegistry);
+        this.rejectedTimer = Timer.builder("auth.otp.verification")
+                .description("OTP verification latency")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
     }
 
     @Transactional
     public OtpResponse generateOtp(String email) {
+        String normalizedEmail = email.toLowerCase(Locale.ROOT);
+
         // Throttle OTP requests per email
-        Optional<OtpCode> latest = otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc(email.toLowerCase());
-        if (latest.isPresent()) {
-            OffsetDateTime lastCreated = latest.get().getCreatedAt();
-            if (lastCreated.isAfter(OffsetDateTime.now().minusSeconds(MIN_SECONDS_BETWEEN_REQUESTS))) {
-                throw new IllegalArgumentException("Please wait before requesting another OTP");
-            }
+        if (isThrottled(normalizedEmail)) {
+            throttled.increment();
+            throw new IllegalArgumentException("Please wait before requesting another OTP");
         }
 
         String otp = generateNumericOtp();
-        String hash = hashOtp(email, otp);
+        String hash = hashOtp(normalizedEmail, otp);
 
         OtpCode otpCode = new OtpCode();
-        otpCode.setEmail(email.toLowerCase());
+        otpCode.setEmail(normalizedEmail);
         otpCode.setCodeHash(hash);
-        otpCode.setExpiresAt(OffsetDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
+        otpCode.setExpiresAt(OffsetDateTime.now(clock).plusMinutes(OTP_EXPIRY_MINUTES));
         otpCodeRepository.save(otpCode);
+        issued.increment();
 
         // Send OTP via email
-        emailService.sendOtpEmail(email.toLowerCase(), otp);
+        emailService.sendOtpEmail(normalizedEmail, otp, otpCode.getExpiresAt().toInstant());
 
         // In development mode, also return OTP in response for easier testing
         // In production, only return success message
@@ -72,31 +153,102 @@ public class OtpService {
 
     @Transactional
     public void verifyOtp(String email, String otp) {
-        if (otp == null || !otp.matches("\\d{" + OTP_LENGTH + "}")) {
+        long start = System.nanoTime();
+        boolean verified = false;
+        try {
+            verify(email.toLowerCase(Locale.ROOT), otp);
+            verified = true;
+        } finally {
+            (verified ? verifiedTimer : rejectedTimer).record(System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Deletes expired codes in batches so one run never holds a long lock. */
+    @Scheduled(fixedDelayString = "${auth.otp.purge-interval:PT15M}")
+    public void purgeExpiredCodes() {
+        Timestamp cutoff = Timestamp.from(clock.instant());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            purged.increment(total);
+            log.debug("Purged {} expired OTP codes", total);
+        }
+    }
+
+    private void verify(String email, String otp) {
+        if (!isNumericOtp(otp)) {
             throw new IllegalArgumentException("Invalid OTP format");
         }
 
-        OtpCode active = otpCodeRepository.findActiveByEmail(email.toLowerCase(), OffsetDateTime.now())
+        OtpCode active = otpCodeRepository.findActiveByEmail(email, OffsetDateTime.now(clock))
                 .orElseThrow(() -> new IllegalArgumentException("Invalid or expired OTP"));
 
         String hash = hashOtp(email, otp);
-        if (!hash.equals(active.getCodeHash())) {
+        if (!MessageDigest.isEqual(hash.getBytes(StandardCharsets.US_ASCII),
+                active.getCodeHash().getBytes(StandardCharsets.US_ASCII))) {
             throw new IllegalArgumentException("Invalid or expired OTP");
         }
 
         active.setUsed(true);
-        active.setUsedAt(OffsetDateTime.now());
+        active.setUsedAt(OffsetDateTime.now(clock));
         otpCodeRepository.save(active);
     }
 
+    // Claims the email's slot for the next minute; only the first caller gets through.
+    // The claim is released if the transaction issuing the code rolls back.
+    private boolean isThrottled(String email) {
+        Instant now = clock.instant();
+        if (recentRequests.asMap().putIfAbsent(email, now) != null) {
+            return true;
+        }
+        if (!now.isAfter(throttleWarmUntil)) {
+            Optional<OtpCode> latest = otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc(email);
+            if (latest.isPresent()
+                    && latest.get().getCreatedAt().toInstant().isAfter(now.minusSeconds(MIN_SECONDS_BETWEEN_REQUESTS))) {
+                // The stored code's minute governs; holding the slot would extend it to a minute from now
+                recentRequests.asMap().remove(email, now);
+                return true;
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        recentRequests.asMap().remove(email, now);
+                    }
+                }
+            });
+        }
+        return false;
+    }
+
+    private static boolean isNumericOtp(String otp) {
+        if (otp == null || otp.length() != OTP_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < OTP_LENGTH; i++) {
+            char c = otp.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private String generateNumericOtp() {
-        int bound = (int) Math.pow(10, OTP_LENGTH);
-        int code = random.nextInt(bound);
-        return String.format("%0" + OTP_LENGTH + "d", code);
+        int code = random.nextInt(OTP_BOUND);
+        String digits = Integer.toString(code);
+        return "0".repeat(OTP_LENGTH - digits.length()) + digits;
     }
 
     private String hashOtp(String email, String otp) {
-        String data = email.toLowerCase() + ":" + otp;
+        String data = email.toLowerCase(Locale.ROOT) + ":" + otp;
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
@@ -106,4 +258,3 @@ public class OtpService {
         }
     }
 }
-
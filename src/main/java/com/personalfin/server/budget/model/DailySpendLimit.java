@@ -15,6 +15,8 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.UUID;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
 @Table(name = "daily_spend_limits")
@@ -26,6 +28,7 @@ public class DailySpendLimit {
 
     @ManyToOne
     @JoinColumn(name = "budget_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Budget budget;
 
     @Column(nullable = false)
@@ -2,10 +2,12 @@ package com.personalfin.server.budget.repository;
 
 import com.personalfin.server.budget.model.DailySpendLimit;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -21,6 +23,10 @@ public interface DailySpendLimitRepository extends JpaRepository<DailySpendLimit
 
     @Query("SELECT dsl FROM DailySpendLimit dsl WHERE dsl.date = :date")
     List<DailySpendLimit> findByDate(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM DailySpendLimit dsl WHERE dsl.budget.id IN :budgetIds")
+    int deleteByBudgetIds(@Param("budgetIds") Collection<UUID> budgetIds);
 }
 
 
@@ -16,6 +16,7 @@ import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -242,17 +243,54 @@ public class BudgetService {
         );
     }
 
+    /**
+     * Copies the request onto a budget without persisting it. The month is
+     * normalized to its first day; ownership and activation are left to the caller.
+     */
+    public void applyRequest(Budget budget, BudgetRequest request) {
+        budget.setName(request.name());
+        budget.setAmount(request.amount());
+        budget.setMonthYear(request.monthYear().withDayOfMonth(1));
+    }
+
+    /**
+     * Persists budgets created or modified in bulk (sync push) and rebuilds their
+     * daily limits with a single delete and one batched insert, rather than the
+     * per-budget lookups done by {@link #create} and {@link #update}.
+     */
+    @Transactional
+    public void saveAllWithDailyLimits(List<Budget> created, List<Budget> updated) {
+        if (created.isEmpty() && updated.isEmpty()) {
+            return;
+        }
+        budgetRepository.saveAll(created);
+        if (!updated.isEmpty()) {
+            dailySpendLimitRepository.deleteByBudgetIds(
+                    updated.stream().map(Budget::getId).toList());
+        }
+
+        List<DailySpendLimit> limits = new ArrayList<>();
+        created.forEach(budget -> limits.addAll(buildDailyLimits(budget)));
+        updated.forEach(budget -> limits.addAll(buildDailyLimits(budget)));
+        dailySpendLimitRepository.saveAll(limits);
+    }
+
     private void generateDailyLimits(Budget budget) {
+        dailySpendLimitRepository.saveAll(buildDailyLimits(budget));
+    }
+
+    private List<DailySpendLimit> buildDailyLimits(Budget budget) {
         YearMonth yearMonth = YearMonth.from(budget.getMonthYear());
         LocalDate start = budget.getMonthYear();
         LocalDate end = yearMonth.atEndOfMonth();
 
+        List<DailySpendLimit> limits = new ArrayList<>(yearMonth.lengthOfMonth());
         LocalDate current = start;
         while (!current.isAfter(end)) {
-            DailySpendLimit dailyLimit = createDailyLimit(budget, current);
-            dailySpendLimitRepository.save(dailyLimit);
+            limits.add(createDailyLimit(budget, current));
             current = current.plusDays(1);
         }
+        return limits;
     }
 
     private void regenerateDailyLimits(Budget budget) {
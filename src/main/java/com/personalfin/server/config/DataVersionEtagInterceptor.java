@@ -0,0 +1,48 @@
+package com.personalfin.server.config;
+
+import com.personalfin.server.auth.util.SecurityUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GETs on per-user, read-mostly endpoints before the
+ * controller runs. The weak ETag combines the user's data version (one indexed
+ * lookup), today's date for endpoints that depend on it, and the user, so a
+ * matching {@code If-None-Match} gets a 304 without the aggregation being
+ * computed or a body serialized. A write that lands between the version check
+ * and the response only makes the next request refetch.
+ */
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+    private final Function<String, String> versionByUsername;
+    private final Clock clock;
+
+    public DataVersionEtagInterceptor(Function<String, String> versionByUsername, Clock clock) {
+        this.versionByUsername = versionByUsername;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        String username = SecurityUtils.getCurrentUsername();
+        if (username == null) {
+            return true;
+        }
+
+        String etag = "W/\"" + versionByUsername.apply(username)
+                + '-' + LocalDate.now(clock)
+                + '-' + Integer.toHexString(username.hashCode()) + '"';
+        // Per-user data: never shared caches, always revalidated
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
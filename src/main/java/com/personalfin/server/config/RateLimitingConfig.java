@@ -1,67 +1,117 @@
 package com.personalfin.server.config;
 
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.BucketConfiguration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
-import java.util.Map;
 
-@Configuration
+/**
+ * Rate-limit tiers. Each tier is a separate bucket per client; which routes
+ * draw from which tier, and at what cost, is decided by
+ * {@link com.personalfin.server.config.ratelimit.RateLimiter}.
+ */
 @ConfigurationProperties(prefix = "rate-limit")
 public class RateLimitingConfig {
 
-    private int authRequestsPerMinute = 5;
-    private int apiRequestsPerMinute = 100;
-    private int burstCapacity = 10;
+    private Tier auth = new Tier(5, 10, 0);
+    private Tier api = new Tier(100, 10, 10);
+    private Tier export = new Tier(20, 5, 0);
+    private Tier ocr = new Tier(10, 5, 0);
+    private Tier sync = new Tier(120, 30, 10);
 
-    @Bean
-    public Cache<String, Bucket> rateLimitCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(10_000)
-                .expireAfterWrite(Duration.ofMinutes(1))
-                .build();
+    public Tier getAuth() {
+        return auth;
     }
 
-    public Bucket resolveBucket(String key, boolean isAuthEndpoint) {
-        return rateLimitCache().get(key, k -> {
-            int requestsPerMinute = isAuthEndpoint ? authRequestsPerMinute : apiRequestsPerMinute;
-            Refill refill = Refill.intervally(requestsPerMinute, Duration.ofMinutes(1));
-            Bandwidth limit = Bandwidth.classic(requestsPerMinute + burstCapacity, refill);
-            return Bucket.builder()
-                    .addLimit(limit)
-                    .build();
-        });
+    public void setAuth(Tier auth) {
+        this.auth = auth;
     }
 
-    public int getAuthRequestsPerMinute() {
-        return authRequestsPerMinute;
+    public Tier getApi() {
+        return api;
     }
 
-    public void setAuthRequestsPerMinute(int authRequestsPerMinute) {
-        this.authRequestsPerMinute = authRequestsPerMinute;
+    public void setApi(Tier api) {
+        this.api = api;
     }
 
-    public int getApiRequestsPerMinute() {
-        return apiRequestsPerMinute;
+    public Tier getExport() {
+        return export;
     }
 
-    public void setApiRequestsPerMinute(int apiRequestsPerMinute) {
-        this.apiRequestsPerMinute = apiRequestsPerMinute;
+    public void setExport(Tier export) {
+        this.export = export;
     }
 
-    public int getBurstCapacity() {
-        return burstCapacity;
+    public Tier getOcr() {
+        return ocr;
     }
 
-    public void setBurstCapacity(int burstCapacity) {
-        this.burstCapacity = burstCapacity;
+    public void setOcr(Tier ocr) {
+        this.ocr = ocr;
     }
-}
 
+    public Tier getSync() {
+        return sync;
+    }
+
+    public void setSync(Tier sync) {
+        this.sync = sync;
+    }
+
+    public static class Tier {
+
+        private int requestsPerMinute;
+        private int burstCapacity;
+        // Tokens an instance may take from a shared (rate-limit.backend=jdbc) bucket
+        // before syncing with the database; 0 syncs every request
+        private long maxUnsynchronizedTokens;
+
+        public Tier() {
+        }
+
+        public Tier(int requestsPerMinute, int burstCapacity, long maxUnsynchronizedTokens) {
+            this.requestsPerMinute = requestsPerMinute;
+            this.burstCapacity = burstCapacity;
+            this.maxUnsynchronizedTokens = maxUnsynchronizedTokens;
+        }
+
+        public long capacity() {
+            return (long) requestsPerMinute + burstCapacity;
+        }
 
+        public BucketConfiguration bucketConfiguration() {
+            return BucketConfiguration.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(capacity())
+                            .refillIntervally(requestsPerMinute, Duration.ofMinutes(1))
+                            .build())
+                    .build();
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public long getMaxUnsynchronizedTokens() {
+            return maxUnsynchronizedTokens;
+        }
+
+        public void setMaxUnsynchronizedTokens(long maxUnsynchronizedTokens) {
+            this.maxUnsynchronizedTokens = maxUnsynchronizedTokens;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.personalfin.server.config;
 
+import com.personalfin.server.preferences.repository.UserPreferencesRepository;
+import com.personalfin.server.sync.repository.SyncChangeCounterRepository;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -11,19 +17,46 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:3000,http://localhost:8080}")
     private String[] allowedOrigins;
 
+    // Optional so that @WebMvcTest slices, which have no repositories, can still load
+    // this configuration; the ETag interceptors are then left out
+    private final ObjectProvider<SyncChangeCounterRepository> changeCounterRepository;
+    private final ObjectProvider<UserPreferencesRepository> preferencesRepository;
+    private final ObjectProvider<Clock> clock;
+
+    public WebConfig(ObjectProvider<SyncChangeCounterRepository> changeCounterRepository,
+                     ObjectProvider<UserPreferencesRepository> preferencesRepository,
+                     ObjectProvider<Clock> clock) {
+        this.changeCounterRepository = changeCounterRepository;
+        this.preferencesRepository = preferencesRepository;
+        this.clock = clock;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins(allowedOrigins)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                 .allowedHeaders("*")
-                .exposedHeaders("X-CSRF-TOKEN") // Expose CSRF token for frontend
+                .exposedHeaders("X-CSRF-TOKEN", "ETag", // Expose CSRF token, ETags and rate-limit state for frontend
+                        "X-RateLimit-Limit", "X-RateLimit-Remaining", "X-RateLimit-Reset", "Retry-After")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
-}
-
-
-
-
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Clock etagClock = clock.getIfAvailable(Clock::systemUTC);
+        // Budgets and expenses bump the sync change counter on every write (V13 triggers)
+        changeCounterRepository.ifAvailable(counters -> registry.addInterceptor(new DataVersionEtagInterceptor(
+                        username -> "c" + counters.findChangeSeqByUsername(username).orElse(0L),
+                        etagClock))
+                .addPathPatterns("/api/budgets/current", "/api/expenses/heatmap", "/api/expenses/analytics/**"));
+        preferencesRepository.ifAvailable(preferences -> registry.addInterceptor(new DataVersionEtagInterceptor(
+                        username -> "p" + preferences.findUpdatedAtByUsername(username)
+                                .map(OffsetDateTime::toInstant)
+                                .map(instant -> Long.toString(instant.toEpochMilli()))
+                                .orElse("0"),
+                        etagClock))
+                .addPathPatterns("/api/preferences"));
+    }
+}
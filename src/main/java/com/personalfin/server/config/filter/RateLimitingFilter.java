@@ -1,11 +1,13 @@
 package com.personalfin.server.config.filter;
 
-import io.github.bucket4j.Bucket;
-import com.personalfin.server.config.RateLimitingConfig;
+import com.personalfin.server.config.ratelimit.RateLimitRoute;
+import com.personalfin.server.config.ratelimit.RateLimiter;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.Authentication;
@@ -14,14 +16,28 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Must run after JWT authentication (see SecurityConfig) so signed-in users are
+ * limited by username rather than by the IP they share with others.
+ *
+ * <p>Every response carries the tier's limit, the tokens left and
+ * {@code X-RateLimit-Reset}, the seconds until the bucket is full again. A
+ * rejected request also gets {@code Retry-After}, the seconds until enough
+ * tokens are back for it.
+ */
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final RateLimitingConfig rateLimitingConfig;
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
 
-    public RateLimitingFilter(RateLimitingConfig rateLimitingConfig) {
-        this.rateLimitingConfig = rateLimitingConfig;
+    private final RateLimiter rateLimiter;
+
+    public RateLimitingFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -30,28 +46,34 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String path = request.getRequestURI();
-        boolean isAuthEndpoint = path.startsWith("/api/auth/");
+        RateLimitRoute route = rateLimiter.route(request.getMethod(), request.getRequestURI());
 
         // Get identifier (username if authenticated, IP address otherwise)
         String identifier = getIdentifier(request);
 
-        // Get or create bucket for this identifier
-        Bucket bucket = rateLimitingConfig.resolveBucket(identifier, isAuthEndpoint);
+        ConsumptionProbe probe = rateLimiter.tryConsume(route, identifier);
+        response.setHeader(LIMIT_HEADER, route.policy().limitHeader());
+        response.setHeader(REMAINING_HEADER, Long.toString(probe.getRemainingTokens()));
+        response.setHeader(RESET_HEADER, Long.toString(ceilSeconds(probe.getNanosToWaitForReset())));
 
-        // Try to consume a token
-        if (bucket.tryConsume(1)) {
+        if (probe.isConsumed()) {
             filterChain.doFilter(request, response);
         } else {
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, ceilSeconds(probe.getNanosToWaitForRefill()))));
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
             response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
         }
     }
 
+    private static long ceilSeconds(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L);
+    }
+
     private String getIdentifier(HttpServletRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated() 
+        if (authentication != null && authentication.isAuthenticated()
                 && !"anonymousUser".equals(authentication.getPrincipal().toString())) {
             return authentication.getName(); // Use username for authenticated users
         }
@@ -72,5 +94,3 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         return request.getRemoteAddr();
     }
 }
-
-
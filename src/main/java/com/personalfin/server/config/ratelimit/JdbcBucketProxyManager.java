@@ -0,0 +1,107 @@
+package com.personalfin.server.config.ratelimit;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Bucket4j proxy manager over the {@code rate_limit_buckets} table using
+ * optimistic compare-and-swap: read the serialized bucket state, apply the
+ * command locally, then write it back only if the row still holds what was
+ * read (Bucket4j retries on a lost race). No row locks are held between the
+ * read and the write. Rows carry an expiry after which the bucket would have
+ * refilled anyway, so {@link #removeExpired(long)} can delete them.
+ */
+public class JdbcBucketProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+    private static final String SELECT_STATE = "SELECT state FROM rate_limit_buckets WHERE bucket_key = ?";
+    private static final String INSERT_STATE =
+            "INSERT INTO rate_limit_buckets (bucket_key, state, expires_at) VALUES (?, ?, ?)";
+    private static final String UPDATE_STATE = """
+            UPDATE rate_limit_buckets SET state = ?, expires_at = ?
+            WHERE bucket_key = ? AND state = ?
+            """;
+    private static final String DELETE_EXPIRED = "DELETE FROM rate_limit_buckets WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExpirationAfterWriteStrategy expiration;
+
+    public JdbcBucketProxyManager(JdbcTemplate jdbcTemplate, ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+        this.jdbcTemplate = jdbcTemplate;
+        this.expiration = clientSideConfig.getExpirationAfterWriteStrategy()
+                .orElse(ExpirationAfterWriteStrategy.none());
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                List<byte[]> rows = jdbcTemplate.query(SELECT_STATE, (rs, i) -> rs.getBytes(1), key);
+                return rows.stream().findFirst();
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState,
+                                          Optional<Long> timeoutNanos) {
+                Long expiresAt = expiresAt(newState);
+                if (originalData == null) {
+                    try {
+                        return jdbcTemplate.update(INSERT_STATE, key, newData, expiresAt) == 1;
+                    } catch (DuplicateKeyException e) {
+                        // Another instance created the bucket first; Bucket4j re-reads and retries
+                        return false;
+                    }
+                }
+                return jdbcTemplate.update(UPDATE_STATE, newData, expiresAt, key, originalData) == 1;
+            }
+        };
+    }
+
+    private Long expiresAt(RemoteBucketState state) {
+        long nowNanos = currentTimeNanos();
+        long ttlMillis = expiration.calculateTimeToLiveMillis(state, nowNanos);
+        return ttlMillis > 0 ? TimeUnit.NANOSECONDS.toMillis(nowNanos) + ttlMillis : null;
+    }
+
+    /** Deletes buckets that have refilled completely; returns how many. */
+    public int removeExpired(long nowMillis) {
+        return jdbcTemplate.update(DELETE_EXPIRED, nowMillis);
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE bucket_key = ?", key);
+    }
+
+    @Override
+    public boolean isExpireAfterWriteSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+        throw new UnsupportedOperationException("JDBC rate-limit buckets are synchronous");
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String key) {
+        return CompletableFuture.failedFuture(
+                new UnsupportedOperationException("JDBC rate-limit buckets are synchronous"));
+    }
+}
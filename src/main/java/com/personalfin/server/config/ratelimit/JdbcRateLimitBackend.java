@@ -0,0 +1,79 @@
+package com.personalfin.server.config.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import java.time.Clock;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cluster-wide buckets stored in {@code rate_limit_buckets}. Each instance keeps
+ * a near-cache of bucket proxies; a proxy built with a non-zero
+ * {@code maxUnsynchronizedTokens} consumes that many tokens locally and
+ * reconciles with the table in one compare-and-swap, at the latest after
+ * {@code rate-limit.distributed.max-unsynchronized-timeout}. The cluster can
+ * therefore overshoot a limit by at most that many tokens per instance, in
+ * exchange for one database round-trip per batch instead of per request.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "jdbc")
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimitBackend.class);
+
+    private final JdbcBucketProxyManager proxyManager;
+    private final Duration maxUnsynchronizedTimeout;
+    private final Clock clock;
+    private final Cache<String, Bucket> nearCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(5))
+            .build();
+
+    public JdbcRateLimitBackend(
+            JdbcTemplate jdbcTemplate,
+            Clock clock,
+            @Value("${rate-limit.distributed.max-unsynchronized-timeout:PT1S}") Duration maxUnsynchronizedTimeout) {
+        this.clock = clock;
+        this.maxUnsynchronizedTimeout = maxUnsynchronizedTimeout;
+        this.proxyManager = new JdbcBucketProxyManager(jdbcTemplate, ClientSideConfig.getDefault()
+                .withExpirationAfterWriteStrategy(
+                        ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofMinutes(1))));
+    }
+
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration, long maxUnsynchronizedTokens) {
+        Bucket bucket = nearCache.getIfPresent(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        return nearCache.get(key, k -> {
+            RemoteBucketBuilder<String> builder = proxyManager.builder();
+            if (maxUnsynchronizedTokens > 0) {
+                builder = builder.withOptimization(Optimizations.delaying(
+                        new DelayParameters(maxUnsynchronizedTokens, maxUnsynchronizedTimeout)));
+            }
+            return builder.build(k, () -> configuration);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.distributed.cleanup-interval:PT10M}")
+    public void removeExpiredBuckets() {
+        int removed = proxyManager.removeExpired(clock.millis());
+        if (removed > 0) {
+            log.debug("Removed {} expired rate-limit buckets", removed);
+        }
+    }
+}
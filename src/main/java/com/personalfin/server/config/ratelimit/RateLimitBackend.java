@@ -0,0 +1,20 @@
+package com.personalfin.server.config.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Where rate-limit buckets live. {@code rate-limit.backend=local} keeps them in
+ * this instance's memory, so each node enforces its own limit;
+ * {@code rate-limit.backend=jdbc} shares them through the database so a limit
+ * holds across the cluster.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * @param maxUnsynchronizedTokens tokens a node may consume locally before
+     *                                reconciling with the shared store; 0 syncs
+     *                                every request. Ignored by local backends.
+     */
+    Bucket resolve(String key, BucketConfiguration configuration, long maxUnsynchronizedTokens);
+}
@@ -0,0 +1,18 @@
+package com.personalfin.server.config.ratelimit;
+
+import com.personalfin.server.config.RateLimitingConfig.Tier;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * A tier's limits, computed once at startup. {@code keyPrefix} keeps each
+ * tier's buckets apart and {@code limitHeader} is the ready-made
+ * {@code X-RateLimit-Limit} value.
+ */
+public record RateLimitPolicy(String name, BucketConfiguration configuration, long capacity,
+                              long maxUnsynchronizedTokens, String keyPrefix, String limitHeader) {
+
+    static RateLimitPolicy of(String name, Tier tier) {
+        return new RateLimitPolicy(name, tier.bucketConfiguration(), tier.capacity(),
+                tier.getMaxUnsynchronizedTokens(), name + ':', Long.toString(tier.capacity()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.personalfin.server.config.ratelimit;
+
+/**
+ * Requests whose path starts with {@code pathPrefix} (and whose method is
+ * {@code method}, unless that is null) draw {@code cost} tokens from
+ * {@code policy}'s bucket.
+ */
+public record RateLimitRoute(String method, String pathPrefix, RateLimitPolicy policy, long cost) {
+
+    boolean matches(String requestMethod, String path) {
+        return path.startsWith(pathPrefix) && (method == null || method.equals(requestMethod));
+    }
+}
@@ -0,0 +1,67 @@
+package com.personalfin.server.config.ratelimit;
+
+import com.personalfin.server.config.RateLimitingConfig;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps a request to the tier it draws from and what it costs, then consumes
+ * from that client's bucket. Policies and routes are built once; per request
+ * the only work is a prefix scan over a small array, the bucket key and the
+ * bucket operation itself. Routes are checked in order and the first match
+ * wins; anything unmatched is a plain API call.
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitBackend backend;
+    private final RateLimitRoute[] routes;
+    private final RateLimitRoute defaultRoute;
+
+    public RateLimiter(RateLimitBackend backend, RateLimitingConfig config) {
+        this.backend = backend;
+        RateLimitPolicy auth = RateLimitPolicy.of("auth", config.getAuth());
+        RateLimitPolicy api = RateLimitPolicy.of("api", config.getApi());
+        RateLimitPolicy export = RateLimitPolicy.of("export", config.getExport());
+        RateLimitPolicy ocr = RateLimitPolicy.of("ocr", config.getOcr());
+        RateLimitPolicy sync = RateLimitPolicy.of("sync", config.getSync());
+        this.routes = new RateLimitRoute[] {
+                new RateLimitRoute(null, "/api/auth/", auth, 1),
+                // Covers /scan and /scan-and-create; polling a job is a plain API call
+                new RateLimitRoute("POST", "/api/receipts/scan", ocr, 1),
+                new RateLimitRoute("POST", "/api/receipts/jobs", ocr, 1),
+                // PDF rendering costs several times a CSV dump
+                new RateLimitRoute("GET", "/api/expenses/export/pdf", export, 5),
+                new RateLimitRoute("GET", "/api/expenses/export/", export, 1),
+                // A push carries a whole batch of changes
+                new RateLimitRoute("POST", "/api/sync/push", sync, 5),
+                new RateLimitRoute(null, "/api/sync/", sync, 1),
+        };
+        this.defaultRoute = new RateLimitRoute(null, "", api, 1);
+        for (RateLimitRoute route : routes) {
+            if (route.cost() > route.policy().capacity()) {
+                throw new IllegalStateException("Rate-limit tier '" + route.policy().name()
+                        + "' holds " + route.policy().capacity() + " tokens but " + route.pathPrefix()
+                        + " costs " + route.cost());
+            }
+        }
+    }
+
+    public RateLimitRoute route(String method, String path) {
+        for (RateLimitRoute route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    /** Consumes the route's cost from {@code identifier}'s bucket for the route's tier. */
+    public ConsumptionProbe tryConsume(RateLimitRoute route, String identifier) {
+        RateLimitPolicy policy = route.policy();
+        Bucket bucket = backend.resolve(policy.keyPrefix() + identifier, policy.configuration(),
+                policy.maxUnsynchronizedTokens());
+        return bucket.tryConsumeAndReturnRemaining(route.cost());
+    }
+}
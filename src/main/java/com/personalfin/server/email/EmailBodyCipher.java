@@ -0,0 +1,78 @@
+package com.personalfin.server.email;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-GCM for outbox message bodies, so codes and links in queued mail are not
+ * readable from the database. Output is the 12-byte IV followed by the
+ * ciphertext and tag; the row id is bound as associated data, so a body cannot
+ * be moved to another row.
+ */
+final class EmailBodyCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    private EmailBodyCipher(SecretKey key) {
+        this.key = key;
+    }
+
+    /** A cipher for a base64-encoded 128, 192 or 256-bit key. */
+    static EmailBodyCipher fromBase64Key(String base64Key) {
+        byte[] key = Base64.getDecoder().decode(base64Key.trim());
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("Outbox encryption key must be 16, 24 or 32 bytes");
+        }
+        return new EmailBodyCipher(new SecretKeySpec(key, "AES"));
+    }
+
+    /** A cipher with a key that lives only as long as this process. */
+    static EmailBodyCipher ephemeral() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            return new EmailBodyCipher(generator.generateKey());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    }
+
+    byte[] encrypt(String body, byte[] associatedData) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(associatedData);
+            byte[] ciphertext = cipher.doFinal(body.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.allocate(IV_BYTES + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt email body", e);
+        }
+    }
+
+    /** @throws GeneralSecurityException if the body was written with another key or tampered with */
+    String decrypt(byte[] encrypted, byte[] associatedData) throws GeneralSecurityException {
+        if (encrypted.length <= IV_BYTES) {
+            throw new GeneralSecurityException("Encrypted email body is truncated");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, encrypted, 0, IV_BYTES));
+        cipher.updateAAD(associatedData);
+        byte[] plaintext = cipher.doFinal(encrypted, IV_BYTES, encrypted.length - IV_BYTES);
+        return new String(plaintext, StandardCharsets.UTF_8);
+    }
+}
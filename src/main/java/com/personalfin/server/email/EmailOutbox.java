@@ -0,0 +1,397 @@
+package com.personalfin.server.email;
+
+import com.personalfin.server.email.config.EmailOutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactional outbox for outgoing mail. {@link #enqueue} is a single INSERT
+ * in the caller's transaction, so a request never waits on SMTP. A dispatcher
+ * thread claims due messages in batches (woken after each commit, otherwise
+ * every {@code poll-interval}) and hands each batch to a bounded pool of
+ * senders; a batch goes out over one SMTP connection. Failed messages are
+ * retried with exponential backoff and marked FAILED after
+ * {@code max-attempts}. Claims carry a lease, so batches held by a crashed
+ * instance are picked up again once it runs out.
+ *
+ * <p>Bodies are encrypted with {@link EmailBodyCipher} and only decrypted on
+ * the sender thread. Messages enqueued with a deadline are dropped unsent once
+ * it passes, and FAILED rows are purged after {@code failed-retention}.
+ */
+@Component
+public class EmailOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutbox.class);
+
+    private static final String INSERT_MESSAGE = """
+            INSERT INTO email_outbox
+                (id, recipient, subject, body_encrypted, status, attempts, next_attempt_at, expires_at, created_at)
+            VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?, ?)
+            """;
+    // The outer lease check makes a concurrent claimer skip rows another instance just took
+    private static final String CLAIM_BATCH = """
+            UPDATE email_outbox SET claim_token = ?, claimed_until = ?
+            WHERE id IN (
+                SELECT id FROM email_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= ?
+                  AND (expires_at IS NULL OR expires_at > ?)
+                  AND (claimed_until IS NULL OR claimed_until < ?)
+                ORDER BY next_attempt_at
+                LIMIT ?)
+              AND (claimed_until IS NULL OR claimed_until < ?)
+            """;
+    private static final String SELECT_CLAIMED = """
+            SELECT id, recipient, subject, body_encrypted, attempts FROM email_outbox WHERE claim_token = ?
+            """;
+    private static final String DELETE_SENT = "DELETE FROM email_outbox WHERE id = ?";
+    private static final String RELEASE_CLAIM = """
+            UPDATE email_outbox SET claim_token = NULL, claimed_until = NULL WHERE claim_token = ?
+            """;
+    private static final String RESCHEDULE = """
+            UPDATE email_outbox
+            SET attempts = ?, next_attempt_at = ?, last_error = ?, claim_token = NULL, claimed_until = NULL
+            WHERE id = ?
+            """;
+    private static final String MARK_FAILED = """
+            UPDATE email_outbox
+            SET status = 'FAILED', attempts = ?, last_error = ?, failed_at = ?, body_encrypted = NULL,
+                claim_token = NULL, claimed_until = NULL
+            WHERE id = ?
+            """;
+    private static final String PURGE_EXPIRED = """
+            DELETE FROM email_outbox WHERE id IN (
+                SELECT id FROM email_outbox
+                WHERE status = 'PENDING' AND expires_at < ? AND (claimed_until IS NULL OR claimed_until < ?)
+                LIMIT ?)
+            """;
+    private static final String PURGE_FAILED = """
+            DELETE FROM email_outbox WHERE id IN (
+                SELECT id FROM email_outbox WHERE status = 'FAILED' AND failed_at < ? LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender mailSender;
+    private final Clock clock;
+    private final String fromEmail;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration failedRetention;
+    private final int purgeBatchSize;
+    private final EmailBodyCipher cipher;
+    private final ThreadPoolExecutor senders;
+    private final Thread dispatcher;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter expired;
+    private volatile boolean running = true;
+
+    public EmailOutbox(
+            JdbcTemplate jdbcTemplate,
+            JavaMailSender mailSender,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            EmailOutboxProperties properties,
+            @Value("${spring.mail.from:no-reply@personalfinance.com}") String fromEmail) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailSender = mailSender;
+        this.clock = clock;
+        this.fromEmail = fromEmail;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.pollIntervalNanos = properties.getPollInterval().toNanos();
+        this.lease = properties.getLease();
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+        this.initialBackoff = properties.getInitialBackoff();
+        this.maxBackoff = properties.getMaxBackoff();
+        this.failedRetention = properties.getFailedRetention();
+        this.purgeBatchSize = Math.max(1, properties.getPurgeBatchSize());
+        String encryptionKey = properties.getEncryptionKey();
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            log.warn("email.outbox.encryption-key is not set; using a per-process key, "
+                    + "so mail still queued at shutdown will not be delivered after a restart");
+            this.cipher = EmailBodyCipher.ephemeral();
+        } else {
+            this.cipher = EmailBodyCipher.fromBase64Key(encryptionKey);
+        }
+
+        int poolSize = Math.max(1, properties.getPoolSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-outbox-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dispatcher = new Thread(this::run, "email-outbox-dispatcher");
+        this.dispatcher.setDaemon(true);
+
+        this.sent = Counter.builder("email.outbox.sent")
+                .description("Messages delivered to the SMTP server")
+                .register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.retried")
+                .description("Delivery attempts that failed and were rescheduled")
+                .register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.failed")
+                .description("Messages given up on after the last attempt")
+                .register(meterRegistry);
+        this.expired = Counter.builder("email.outbox.expired")
+                .description("Messages dropped unsent because their deadline passed")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.sending", senders, ThreadPoolExecutor::getActiveCount)
+                .description("Sender threads currently talking to SMTP")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher.start();
+    }
+
+    public void enqueue(String recipient, String subject, String body) {
+        enqueue(recipient, subject, body, null);
+    }
+
+    /**
+     * Stores a message for delivery, dropping it unsent if {@code expiresAt} (may
+     * be null) passes first. Inside a transaction the dispatcher is woken once it
+     * commits; a rolled-back transaction sends nothing.
+     */
+    public void enqueue(String recipient, String subject, String body, Instant expiresAt) {
+        UUID id = UUID.randomUUID();
+        Timestamp now = Timestamp.from(clock.instant());
+        jdbcTemplate.update(INSERT_MESSAGE, id, recipient, subject, cipher.encrypt(body, associatedData(id)),
+                now, expiresAt != null ? Timestamp.from(expiresAt) : null, now);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    public void wake() {
+        LockSupport.unpark(dispatcher);
+    }
+
+    /** Deletes messages whose deadline passed and FAILED messages past retention, in batches. */
+    @Scheduled(fixedDelayString = "${email.outbox.purge-interval:PT15M}")
+    public void purge() {
+        Instant now = clock.instant();
+        Timestamp nowTimestamp = Timestamp.from(now);
+        int dropped = deleteInBatches(PURGE_EXPIRED, nowTimestamp, nowTimestamp);
+        int purged = deleteInBatches(PURGE_FAILED, Timestamp.from(now.minus(failedRetention)));
+        if (dropped > 0) {
+            expired.increment(dropped);
+            log.info("Dropped {} outgoing emails that expired before delivery", dropped);
+        }
+        if (purged > 0) {
+            log.debug("Purged {} failed outgoing emails", purged);
+        }
+    }
+
+    private int deleteInBatches(String sql, Object... args) {
+        Object[] batchArgs = Arrays.copyOf(args, args.length + 1);
+        batchArgs[args.length] = purgeBatchSize;
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, batchArgs);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        return total;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        // Unclaimed and in-flight messages stay in the table for the next start
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run() {
+        while (running) {
+            boolean claimedFullBatch = false;
+            try {
+                // A sender slot must be free before claiming, or the batch would sit out its lease
+                if (senders.getQueue().remainingCapacity() > 0) {
+                    claimedFullBatch = dispatchBatch() == batchSize;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to claim outgoing mail", e);
+            }
+            if (!claimedFullBatch) {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+    }
+
+    /** Claims up to one batch of due messages and hands it to a sender; returns the number claimed. */
+    int dispatchBatch() {
+        Instant now = clock.instant();
+        UUID claimToken = UUID.randomUUID();
+        Timestamp nowTimestamp = Timestamp.from(now);
+        int claimed = jdbcTemplate.update(CLAIM_BATCH, claimToken, Timestamp.from(now.plus(lease)),
+                nowTimestamp, nowTimestamp, nowTimestamp, batchSize, nowTimestamp);
+        if (claimed == 0) {
+            return 0;
+        }
+        List<OutboxMessage> batch = jdbcTemplate.query(SELECT_CLAIMED, (rs, rowNum) -> new OutboxMessage(
+                rs.getObject("id", UUID.class),
+                rs.getString("recipient"),
+                rs.getString("subject"),
+                rs.getBytes("body_encrypted"),
+                rs.getInt("attempts")), claimToken);
+        try {
+            senders.execute(() -> {
+                send(batch);
+                // A sender slot is free again
+                wake();
+            });
+        } catch (RejectedExecutionException e) {
+            jdbcTemplate.update(RELEASE_CLAIM, claimToken);
+        }
+        return claimed;
+    }
+
+    private void send(List<OutboxMessage> claimed) {
+        List<OutboxMessage> batch = new ArrayList<>(claimed.size());
+        List<SimpleMailMessage> mail = new ArrayList<>(claimed.size());
+        for (OutboxMessage outboxMessage : claimed) {
+            String body;
+            try {
+                body = cipher.decrypt(outboxMessage.bodyEncrypted(), associatedData(outboxMessage.id()));
+            } catch (GeneralSecurityException | RuntimeException e) {
+                // Written under another key (e.g. an unset key before a restart); retrying cannot help
+                markFailed(outboxMessage, outboxMessage.attempts(), "Cannot decrypt message body");
+                continue;
+            }
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(outboxMessage.recipient());
+            message.setSubject(outboxMessage.subject());
+            message.setText(body);
+            batch.add(outboxMessage);
+            mail.add(message);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        SimpleMailMessage[] messages = mail.toArray(new SimpleMailMessage[0]);
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            // JavaMailSenderImpl sends the whole array over one connection
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+
+        List<Object[]> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < messages.length; i++) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (failure == null) {
+                delivered.add(new Object[] {batch.get(i).id()});
+            } else {
+                recordFailure(batch.get(i), failure);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SENT, delivered);
+            sent.increment(delivered.size());
+        }
+    }
+
+    private void recordFailure(OutboxMessage message, Exception failure) {
+        int attempts = message.attempts() + 1;
+        String error = truncate(failure.getMessage(), 500);
+        if (attempts >= maxAttempts) {
+            markFailed(message, attempts, error);
+        } else {
+            Instant next = clock.instant().plus(backoff(attempts, initialBackoff, maxBackoff));
+            jdbcTemplate.update(RESCHEDULE, attempts, Timestamp.from(next), error, message.id());
+            retried.increment();
+            log.warn("Email to {} failed (attempt {}), retrying at {}: {}", message.recipient(), attempts, next, error);
+        }
+    }
+
+    private void markFailed(OutboxMessage message, int attempts, String error) {
+        jdbcTemplate.update(MARK_FAILED, attempts, error, Timestamp.from(clock.instant()), message.id());
+        failed.increment();
+        log.error("Giving up on email to {} after {} attempts: {}", message.recipient(), attempts, error);
+    }
+
+    // Binds each ciphertext to its row
+    private static byte[] associatedData(UUID id) {
+        return id.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Delay before the next attempt once {@code attempts} have failed. */
+    static Duration backoff(int attempts, Duration initial, Duration max) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = initial.multipliedBy(1L << doublings);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private record OutboxMessage(UUID id, String recipient, String subject, byte[] bodyEncrypted, int attempts) {
+    }
+}
@@ -1,11 +1,9 @@
 package com.personalfin.server.email;
 
+import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,7 +11,7 @@ public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    private final JavaMailSender mailSender;
+    private final EmailOutbox outbox;
 
     @Value("${spring.mail.from:no-reply@personalfinance.com}")
     private String fromEmail;
@@ -24,11 +22,12 @@ public class EmailService {
     @Value("${spring.profiles.active:dev}")
     private String activeProfile;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutbox outbox) {
+        this.outbox = outbox;
     }
 
-    public void sendOtpEmail(String toEmail, String otp) {
+    /** Queues the OTP mail; it is dropped unsent if still queued at {@code expiresAt}. */
+    public void sendOtpEmail(String toEmail, String otp, Instant expiresAt) {
         if (!emailEnabled) {
             logger.warn("Email sending is disabled. OTP for {}: {}", toEmail, otp);
             // In dev mode, log OTP for testing
@@ -48,32 +47,9 @@ public class EmailService {
             return;
         }
 
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Your Registration OTP - Personal Finance Tracker");
-            message.setText(buildOtpEmailBody(otp));
-
-            logger.debug("Attempting to send email to {} from {}", toEmail, fromEmail);
-            mailSender.send(message);
-            logger.info("✅ OTP email sent successfully to {}", toEmail);
-        } catch (MailException e) {
-            logger.error("❌ Failed to send OTP email to {}: {}", toEmail, e.getMessage());
-            logger.error("Error details: {}", e.getClass().getSimpleName());
-            if (e.getCause() != null) {
-                logger.error("Caused by: {}", e.getCause().getMessage());
-            }
-            // In development, log the OTP instead of failing
-            if ("dev".equalsIgnoreCase(activeProfile)) {
-                logger.warn("DEV MODE: Email sending failed - OTP for {} is {}", toEmail, otp);
-                logger.warn("Check your email configuration: EMAIL_HOST, EMAIL_PORT, EMAIL_USERNAME, EMAIL_PASSWORD");
-            } else {
-                // In production, we might want to throw or handle differently
-                logger.error("Failed to send OTP email in production. User registration may fail.");
-                throw new RuntimeException("Failed to send OTP email. Please try again later.", e);
-            }
-        }
+        // Delivered by EmailOutbox after the caller's transaction commits
+        outbox.enqueue(toEmail, "Your Registration OTP - Personal Finance Tracker", buildOtpEmailBody(otp), expiresAt);
+        logger.debug("Queued OTP email to {}", toEmail);
     }
 
     private String buildOtpEmailBody(String otp) {
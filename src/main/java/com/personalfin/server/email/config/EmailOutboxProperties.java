@@ -0,0 +1,117 @@
+package com.personalfin.server.email.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "email.outbox")
+public class EmailOutboxProperties {
+
+    // Threads delivering mail; each holds one SMTP connection per batch
+    private int poolSize = 2;
+    // Messages claimed at once and sent over a single SMTP connection
+    private int batchSize = 20;
+    // How often the outbox is checked when nothing wakes the dispatcher
+    private Duration pollInterval = Duration.ofSeconds(5);
+    // A claimed batch not finished within this time is picked up again
+    private Duration lease = Duration.ofMinutes(2);
+    // Delivery attempts before a message is marked FAILED
+    private int maxAttempts = 6;
+    // Retry delay after the first failure, doubled per attempt up to maxBackoff
+    private Duration initialBackoff = Duration.ofSeconds(10);
+    private Duration maxBackoff = Duration.ofMinutes(15);
+    // Base64 AES key (16, 24 or 32 bytes) for stored bodies; unset means a per-process key
+    private String encryptionKey;
+    // How often expired and long-failed messages are deleted
+    private Duration purgeInterval = Duration.ofMinutes(15);
+    private int purgeBatchSize = 1000;
+    // How long FAILED messages are kept for inspection
+    private Duration failedRetention = Duration.ofDays(7);
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public String getEncryptionKey() {
+        return encryptionKey;
+    }
+
+    public void setEncryptionKey(String encryptionKey) {
+        this.encryptionKey = encryptionKey;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    public void setPurgeBatchSize(int purgeBatchSize) {
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public Duration getFailedRetention() {
+        return failedRetention;
+    }
+
+    public void setFailedRetention(Duration failedRetention) {
+        this.failedRetention = failedRetention;
+    }
+}
@@ -0,0 +1,19 @@
+package com.personalfin.server.expense.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "expense.duplicates")
+public class ExpenseDuplicateProperties {
+
+    // Same payee and amount this many days apart still counts as a likely duplicate;
+    // covers the lag between a receipt date and the bank's posting date
+    private int windowDays = 3;
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public void setWindowDays(int windowDays) {
+        this.windowDays = windowDays;
+    }
+}
@@ -0,0 +1,29 @@
+package com.personalfin.server.expense.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "expense.import")
+public class ExpenseImportProperties {
+
+    // Rows categorized, deduplicated and inserted (and committed) together
+    private int batchSize = 1000;
+
+    // Invalid rows listed in the response; the rest are only counted
+    private int maxReportedErrors = 20;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.personalfin.server.expense.dto;
+
+import java.util.List;
+
+/** Expenses with the same payee and amount within the duplicate window, oldest first. */
+public record ExpenseDuplicateGroup(
+        List<ExpenseResponse> expenses
+) {
+}
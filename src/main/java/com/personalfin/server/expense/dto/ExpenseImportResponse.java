@@ -0,0 +1,20 @@
+package com.personalfin.server.expense.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a statement import so far. {@code complete} is false for the
+ * progress updates sent while the import is still running.
+ */
+public record ExpenseImportResponse(
+        long rowsRead,
+        long imported,
+        long duplicates,
+        long skipped,
+        long failed,
+        List<RowError> errors,
+        boolean complete
+) {
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.personalfin.server.expense.dto;
+
+import java.util.List;
+
+public record ExpenseListResponse(
+        List<ExpenseResponse> expenses,
+        ExpenseListSummary summary
+) {
+}
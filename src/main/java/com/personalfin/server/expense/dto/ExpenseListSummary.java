@@ -0,0 +1,12 @@
+package com.personalfin.server.expense.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ExpenseListSummary(
+        BigDecimal totalAmount,
+        long count,
+        // Largest first, in the same shape as /analytics/categories
+        List<CategorySpendingSummary> categories
+) {
+}
@@ -43,6 +43,10 @@ public class Expense {
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
+    // Kept in step with merchant, description and amount on every write; see ExpenseFingerprint
+    @Column(name = "fingerprint")
+    private Long fingerprint;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
@@ -54,11 +58,13 @@ public class Expense {
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
         createdAt = now;
         updatedAt = now;
+        fingerprint = ExpenseFingerprint.of(merchant, description, amount);
     }
 
     @PreUpdate
     void onUpdate() {
         updatedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        fingerprint = ExpenseFingerprint.of(merchant, description, amount);
     }
 
     public UUID getId() {
@@ -125,6 +131,10 @@ public class Expense {
         return updatedAt;
     }
 
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
     public UUID getUserId() {
         return userId;
     }
@@ -0,0 +1,56 @@
+package com.personalfin.server.expense.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Duplicate-detection key for an expense: the first 64 bits of the MD5 of
+ * {@code payee|amount}, where the payee is the merchant (or the description
+ * when there is no merchant) lower-cased with everything but letters and
+ * digits removed. The date is not part of the key; duplicates are looked up
+ * by fingerprint plus a date range on the same index.
+ *
+ * <p>V16 backfills existing rows with the same computation in SQL, so any
+ * change here needs a migration that recomputes the column.
+ */
+public final class ExpenseFingerprint {
+
+    private ExpenseFingerprint() {
+    }
+
+    public static Long of(String merchant, String description, BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        String payee = normalize(merchant);
+        if (payee.isEmpty()) {
+            payee = normalize(description);
+        }
+        String key = payee + '|' + amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint expense", e);
+        }
+    }
+
+    /** Matches {@code regexp_replace(lower(value), '[^a-z0-9]', '', 'g')}. */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -9,7 +9,8 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface ExpenseRepository extends JpaRepository<Expense, UUID>, JpaSpecificationExecutor<Expense> {
+public interface ExpenseRepository extends JpaRepository<Expense, UUID>, JpaSpecificationExecutor<Expense>,
+        ExpenseSearchRepository {
 
     List<Expense> findByUserId(UUID userId);
 
@@ -55,6 +56,26 @@ public interface ExpenseRepository extends JpaRepository<Expense, UUID>, JpaSpec
     @Query("SELECT e FROM Expense e WHERE e.userId = :userId AND e.updatedAt > :since ORDER BY e.updatedAt ASC")
     List<Expense> findUpdatedSince(@Param("userId") UUID userId, @Param("since") java.time.OffsetDateTime since);
 
+    /**
+     * Expenses in the range that share a fingerprint with another of the user's
+     * expenses dated at most {@code windowDays} apart, ordered so that each
+     * group's members are adjacent. Both sides are index lookups on
+     * (user_id, fingerprint, transaction_date).
+     */
+    @Query(value = "SELECT e.* FROM expenses e "
+            + "WHERE e.user_id = :userId AND e.transaction_date BETWEEN :start AND :end "
+            + "AND e.fingerprint IS NOT NULL "
+            + "AND EXISTS (SELECT 1 FROM expenses d "
+            + "WHERE d.user_id = e.user_id AND d.fingerprint = e.fingerprint AND d.id <> e.id "
+            + "AND d.transaction_date BETWEEN e.transaction_date - CAST(:windowDays AS integer) "
+            + "AND e.transaction_date + CAST(:windowDays AS integer)) "
+            + "ORDER BY e.fingerprint, e.transaction_date, e.created_at", nativeQuery = true)
+    List<Expense> findLikelyDuplicates(
+            @Param("userId") UUID userId,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("windowDays") int windowDays);
+
     interface DailySpendProjection {
         LocalDate getDate();
         java.math.BigDecimal getTotal();
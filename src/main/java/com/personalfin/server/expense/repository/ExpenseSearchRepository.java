@@ -0,0 +1,24 @@
+package com.personalfin.server.expense.repository;
+
+import com.personalfin.server.expense.dto.ExpenseFilterRequest;
+import com.personalfin.server.expense.dto.ExpenseResponse;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked text search over the user's expenses, backed by the PostgreSQL
+ * full-text and trigram indexes from V17. Other databases (H2 in tests) do
+ * not have them; callers check {@link #supportsRankedSearch()} and fall back
+ * to {@link ExpenseSpecifications}.
+ */
+public interface ExpenseSearchRepository {
+
+    boolean supportsRankedSearch();
+
+    /**
+     * Expenses matching every filter in the request, with {@code search}
+     * matched as word prefixes, as a substring or approximately (typos),
+     * best matches first.
+     */
+    List<ExpenseResponse> searchRanked(UUID userId, ExpenseFilterRequest filter);
+}
@@ -0,0 +1,143 @@
+package com.personalfin.server.expense.repository;
+
+import com.personalfin.server.expense.dto.ExpenseFilterRequest;
+import com.personalfin.server.expense.dto.ExpenseResponse;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * A row matches when its search vector matches every search word as a prefix,
+ * when merchant or description contains the search text, or when a word in
+ * either is close to it by trigram similarity. Each alternative is served by
+ * its own GIN index. Rank is the full-text rank plus the merchant's trigram
+ * similarity, newest first among equals.
+ */
+class ExpenseSearchRepositoryImpl implements ExpenseSearchRepository {
+
+    private static final RowMapper<ExpenseResponse> ROW_MAPPER = (resultSet, rowNum) -> new ExpenseResponse(
+            resultSet.getObject("id", UUID.class),
+            resultSet.getString("description"),
+            resultSet.getString("merchant"),
+            resultSet.getString("category"),
+            resultSet.getBigDecimal("amount"),
+            resultSet.getObject("transaction_date", LocalDate.class),
+            resultSet.getString("payment_method"),
+            resultSet.getObject("created_at", OffsetDateTime.class),
+            resultSet.getObject("updated_at", OffsetDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean rankedSearch;
+
+    ExpenseSearchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean supportsRankedSearch() {
+        Boolean supported = rankedSearch;
+        if (supported == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(
+                        jdbcTemplate.getJdbcTemplate().getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                supported = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException e) {
+                // Not cached: the database may just be unreachable for now
+                return false;
+            }
+            rankedSearch = supported;
+        }
+        return supported;
+    }
+
+    @Override
+    public List<ExpenseResponse> searchRanked(UUID userId, ExpenseFilterRequest filter) {
+        String term = filter.search().trim().toLowerCase(Locale.ROOT);
+        String tsQuery = prefixQuery(term);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("term", term)
+                .addValue("pattern", "%" + escapeLike(term) + "%");
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT e.id, e.description, e.merchant, e.category, e.amount, e.transaction_date,
+                       e.payment_method, e.created_at, e.updated_at
+                FROM expenses e
+                WHERE e.user_id = :userId
+                """);
+        if (filter.startDate() != null) {
+            sql.append(" AND e.transaction_date >= :startDate");
+            params.addValue("startDate", filter.startDate());
+        }
+        if (filter.endDate() != null) {
+            sql.append(" AND e.transaction_date <= :endDate");
+            params.addValue("endDate", filter.endDate());
+        }
+        if (filter.category() != null && !filter.category().isBlank()) {
+            sql.append(" AND lower(e.category) = :category");
+            params.addValue("category", filter.category().toLowerCase(Locale.ROOT));
+        }
+        if (filter.minAmount() != null) {
+            sql.append(" AND e.amount >= :minAmount");
+            params.addValue("minAmount", filter.minAmount());
+        }
+        if (filter.maxAmount() != null) {
+            sql.append(" AND e.amount <= :maxAmount");
+            params.addValue("maxAmount", filter.maxAmount());
+        }
+        if (filter.paymentMethod() != null && !filter.paymentMethod().isBlank()) {
+            sql.append(" AND lower(e.payment_method) = :paymentMethod");
+            params.addValue("paymentMethod", filter.paymentMethod().toLowerCase(Locale.ROOT));
+        }
+
+        sql.append(" AND (lower(e.description) LIKE :pattern OR lower(e.merchant) LIKE :pattern"
+                + " OR :term <% lower(e.description) OR :term <% lower(e.merchant)");
+        String rank = "coalesce(similarity(lower(e.merchant), :term), 0)";
+        if (tsQuery != null) {
+            sql.append(" OR e.search_vector @@ to_tsquery('simple', :tsQuery)");
+            rank = "ts_rank_cd(e.search_vector, to_tsquery('simple', :tsQuery)) + " + rank;
+            params.addValue("tsQuery", tsQuery);
+        }
+        sql.append(")\nORDER BY ").append(rank).append(" DESC, e.transaction_date DESC, e.created_at DESC");
+
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    /**
+     * {@code "big baz"} becomes {@code "big:* & baz:*"}. Words are cut at
+     * anything but letters and digits, so no tsquery syntax gets through.
+     */
+    static String prefixQuery(String term) {
+        StringBuilder query = new StringBuilder();
+        int i = 0;
+        while (i < term.length()) {
+            while (i < term.length() && !Character.isLetterOrDigit(term.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < term.length() && Character.isLetterOrDigit(term.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (!query.isEmpty()) {
+                    query.append(" & ");
+                }
+                query.append(term, start, i).append(":*");
+            }
+        }
+        return query.isEmpty() ? null : query.toString();
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -37,7 +38,7 @@ public class ExpenseSpecifications {
             
             // Category filter
             if (category != null && !category.isBlank()) {
-                predicates.add(cb.equal(cb.lower(root.get("category")), category.toLowerCase()));
+                predicates.add(cb.equal(cb.lower(root.get("category")), category.toLowerCase(Locale.ROOT)));
             }
             
             // Amount range filters
@@ -50,7 +51,7 @@ public class ExpenseSpecifications {
             
             // Search text (searches in description and merchant)
             if (search != null && !search.isBlank()) {
-                String searchLower = "%" + search.toLowerCase() + "%";
+                String searchLower = "%" + search.toLowerCase(Locale.ROOT) + "%";
                 Predicate descriptionMatch = cb.like(cb.lower(root.get("description")), searchLower);
                 Predicate merchantMatch = cb.like(cb.lower(root.get("merchant")), searchLower);
                 predicates.add(cb.or(descriptionMatch, merchantMatch));
@@ -58,7 +59,7 @@ public class ExpenseSpecifications {
             
             // Payment method filter
             if (paymentMethod != null && !paymentMethod.isBlank()) {
-                predicates.add(cb.equal(cb.lower(root.get("paymentMethod")), paymentMethod.toLowerCase()));
+                predicates.add(cb.equal(cb.lower(root.get("paymentMethod")), paymentMethod.toLowerCase(Locale.ROOT)));
             }
             
             return cb.and(predicates.toArray(new Predicate[0]));
@@ -0,0 +1,299 @@
+package com.personalfin.server.expense.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads CSV statements as exported by banks and by {@code /api/expenses/export/csv}.
+ * Preamble lines (account details and so on) before the header row are skipped;
+ * columns are recognised by name. Amounts come from a debit/withdrawal column
+ * when there is one (rows with only a credit are skipped), otherwise from an
+ * amount column where positive values are spend and negative values are refunds
+ * or deposits, unless a Dr/Cr type column says otherwise.
+ */
+class CsvStatementReader implements StatementReader {
+
+    // Header names are compared lower-cased with everything but letters removed
+    private static final List<String> DATE_COLUMNS = List.of(
+            "transactiondate", "txndate", "date", "postingdate", "posteddate", "valuedate");
+    private static final List<String> DESCRIPTION_COLUMNS = List.of(
+            "description", "narration", "transactiondetails", "details", "particulars", "memo", "remarks");
+    private static final List<String> MERCHANT_COLUMNS = List.of("merchant", "payee", "name");
+    private static final List<String> AMOUNT_COLUMNS = List.of("amount", "transactionamount");
+    private static final List<String> DEBIT_COLUMNS = List.of(
+            "debit", "debitamount", "withdrawal", "withdrawals", "withdrawalamt", "withdrawalamount", "dr");
+    private static final List<String> TYPE_COLUMNS = List.of("type", "drcr", "crdr", "transactiontype");
+    private static final List<String> CATEGORY_COLUMNS = List.of("category");
+    private static final List<String> PAYMENT_METHOD_COLUMNS = List.of("paymentmethod", "mode");
+
+    private static final int MAX_PREAMBLE_RECORDS = 50;
+
+    // Tried in order until one matches; rows are then read with that format first
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            caseInsensitive("dd-MMM-yyyy"),
+            caseInsensitive("dd MMM yyyy"),
+            caseInsensitive("dd-MMM-yy"),
+            caseInsensitive("MMM d, yyyy"));
+
+    private final BufferedReader reader;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private long line;
+    private long recordLine;
+    private Columns columns;
+    private DateTimeFormatter dateFormat;
+
+    CsvStatementReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        if (columns == null) {
+            columns = readHeader();
+        }
+        while (readRecord()) {
+            if (isBlankRecord()) {
+                continue;
+            }
+            return toRow();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Columns readHeader() throws IOException {
+        for (int records = 0; records < MAX_PREAMBLE_RECORDS && readRecord(); records++) {
+            Columns header = Columns.of(fields);
+            if (header != null) {
+                return header;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Statement has no header row with a date column and an amount or debit column");
+    }
+
+    private StatementRow toRow() {
+        String dateValue = columns.value(fields, columns.date);
+        if (dateValue.isEmpty()) {
+            // Opening/closing balance and total lines
+            return StatementRow.skipped(recordLine);
+        }
+        LocalDate date = parseDate(dateValue);
+        if (date == null) {
+            return StatementRow.invalid(recordLine, "Unrecognised date '" + dateValue + "'");
+        }
+
+        BigDecimal amount;
+        try {
+            amount = debitAmount();
+        } catch (NumberFormatException e) {
+            return StatementRow.invalid(recordLine, "Unrecognised amount");
+        }
+        if (amount == null || amount.signum() <= 0) {
+            return StatementRow.skipped(recordLine);
+        }
+
+        String description = columns.value(fields, columns.description);
+        String merchant = columns.value(fields, columns.merchant);
+        return StatementRow.debit(
+                recordLine,
+                date,
+                description.isEmpty() ? merchant : description,
+                merchant.isEmpty() ? null : merchant,
+                emptyToNull(columns.value(fields, columns.category)),
+                emptyToNull(columns.value(fields, columns.paymentMethod)),
+                amount);
+    }
+
+    /** The amount spent by this row, or {@code null}/non-positive when it is not a debit. */
+    private BigDecimal debitAmount() {
+        if (columns.debit >= 0) {
+            String debit = columns.value(fields, columns.debit);
+            return debit.isEmpty() ? null : parseAmount(debit).abs();
+        }
+        BigDecimal amount = parseAmount(columns.value(fields, columns.amount));
+        if (columns.type >= 0) {
+            String type = columns.value(fields, columns.type).toLowerCase(Locale.ROOT);
+            return type.startsWith("cr") ? null : amount.abs();
+        }
+        return amount;
+    }
+
+    private LocalDate parseDate(String value) {
+        if (dateFormat != null) {
+            LocalDate date = tryParse(value, dateFormat);
+            if (date != null) {
+                return date;
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            LocalDate date = tryParse(value, format);
+            if (date != null) {
+                dateFormat = format;
+                return date;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate tryParse(String value, DateTimeFormatter format) {
+        try {
+            return LocalDate.parse(value, format);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Accepts "1,234.50", "Rs. 1,234.50", "(45.00)", "-45.00" and "45.00 DR"/"45.00 CR". */
+    static BigDecimal parseAmount(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        boolean negative = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c >= '0' && c <= '9') || (c == '.' && !digits.isEmpty())) {
+                digits.append(c);
+            } else if (c == '-' || c == '(') {
+                negative = true;
+            }
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("cr")) {
+            negative = true;
+        }
+        if (digits.isEmpty()) {
+            throw new NumberFormatException("No digits in amount");
+        }
+        BigDecimal amount = new BigDecimal(digits.toString());
+        return negative ? amount.negate() : amount;
+    }
+
+    /**
+     * Reads one RFC 4180 record into {@link #fields}; quoted fields may contain
+     * commas, doubled quotes and line breaks.
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        recordLine = line + 1;
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r' && c != '\uFEFF') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return false;
+        }
+        fields.add(field.toString().trim());
+        return true;
+    }
+
+    private boolean isBlankRecord() {
+        for (String value : fields) {
+            if (!value.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static DateTimeFormatter caseInsensitive(String pattern) {
+        return new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern(pattern)
+                .toFormatter(Locale.ENGLISH);
+    }
+
+    /** Column positions found in the header row; -1 when the column is absent. */
+    private record Columns(int date, int description, int merchant, int amount, int debit, int type,
+                           int category, int paymentMethod) {
+
+        static Columns of(List<String> header) {
+            List<String> names = header.stream().map(Columns::normalize).toList();
+            int date = find(names, DATE_COLUMNS);
+            int amount = find(names, AMOUNT_COLUMNS);
+            int debit = find(names, DEBIT_COLUMNS);
+            if (date < 0 || (amount < 0 && debit < 0)) {
+                return null;
+            }
+            return new Columns(date, find(names, DESCRIPTION_COLUMNS), find(names, MERCHANT_COLUMNS), amount,
+                    debit, find(names, TYPE_COLUMNS), find(names, CATEGORY_COLUMNS),
+                    find(names, PAYMENT_METHOD_COLUMNS));
+        }
+
+        String value(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column) : "";
+        }
+
+        private static int find(List<String> names, List<String> candidates) {
+            for (String candidate : candidates) {
+                int index = names.indexOf(candidate);
+                if (index >= 0) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        private static String normalize(String name) {
+            StringBuilder normalized = new StringBuilder(name.length());
+            for (int i = 0; i < name.length(); i++) {
+                char c = Character.toLowerCase(name.charAt(i));
+                if (c >= 'a' && c <= 'z') {
+                    normalized.append(c);
+                }
+            }
+            return normalized.toString();
+        }
+    }
+}
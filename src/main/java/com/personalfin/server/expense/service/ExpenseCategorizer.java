@@ -2,9 +2,18 @@ package com.personalfin.server.expense.service;
 
 import com.personalfin.server.expense.dto.ExpenseCategorizationRequest;
 import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
+import java.util.List;
 
 public interface ExpenseCategorizer {
 
     ExpenseCategorizationResponse categorize(ExpenseCategorizationRequest request);
+
+    /**
+     * Categorizes a batch, returning responses in request order. Implementations
+     * may share work across the batch; by default each request is categorized on its own.
+     */
+    default List<ExpenseCategorizationResponse> categorizeAll(List<ExpenseCategorizationRequest> requests) {
+        return requests.stream().map(this::categorize).toList();
+    }
 }
 
@@ -0,0 +1,274 @@
+package com.personalfin.server.expense.service;
+
+import com.personalfin.server.auth.util.SecurityUtils;
+import com.personalfin.server.expense.config.ExpenseImportProperties;
+import com.personalfin.server.expense.dto.ExpenseCategorizationRequest;
+import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
+import com.personalfin.server.expense.dto.ExpenseImportResponse;
+import com.personalfin.server.expense.model.ExpenseFingerprint;
+import com.personalfin.server.expense.service.StatementReader.StatementRow;
+import com.personalfin.server.user.service.UserService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports bank statements (CSV or OFX) as expenses. The upload is read one row
+ * at a time and written in batches: each batch is categorized together, checked
+ * against the user's existing expenses and inserted with one JDBC batch in its
+ * own transaction, and nothing about it is kept once it is written. Memory
+ * stays flat however long the statement is, and a failure keeps the batches
+ * already committed. Importing the same statement again only adds rows that are
+ * not there yet.
+ *
+ * <p>A duplicate shares payee, amount and date with an existing expense. A full
+ * batch is only written when the date changes, so in a date-ordered statement
+ * every repeat of a row is checked against one lookup made before any of them
+ * is inserted. In a statement that is not ordered by date, repeats of a row in
+ * different batches are checked separately, and a later one can match an
+ * expense that an earlier batch inserted or already matched.
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final String INSERT_EXPENSE = """
+            INSERT INTO expenses (id, description, merchant, category, amount, transaction_date,
+                                  payment_method, user_id, fingerprint, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Served by idx_expenses_user_fingerprint
+    private static final String SELECT_EXISTING = """
+            SELECT fingerprint, transaction_date
+            FROM expenses
+            WHERE user_id = :userId AND fingerprint IN (:fingerprints)
+              AND transaction_date BETWEEN :from AND :to
+            """;
+
+    private static final String DEFAULT_DESCRIPTION = "Imported transaction";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ExpenseCategorizer expenseCategorizer;
+    private final ExpenseImportProperties properties;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExpenseImportService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ExpenseCategorizer expenseCategorizer,
+            ExpenseImportProperties properties,
+            UserService userService,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expenseCategorizer = expenseCategorizer;
+        this.properties = properties;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Imports the statement for the current user. {@code progress} is called
+     * after every committed batch.
+     */
+    public ExpenseImportResponse importStatement(InputStream statement, Consumer<ExpenseImportResponse> progress)
+            throws IOException {
+        ImportRun run = new ImportRun(SecurityUtils.getCurrentUserId(userService));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<StatementRow> batch = new ArrayList<>(batchSize);
+
+        try (StatementReader reader = StatementReader.open(statement)) {
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                run.rowsRead++;
+                switch (row.type()) {
+                    case DEBIT -> {
+                        // A full batch is written at the next change of date, never between two rows of one day
+                        if (batch.size() >= batchSize && !row.date().equals(batch.get(batch.size() - 1).date())) {
+                            writeBatch(run, batch);
+                            progress.accept(run.toResponse(false));
+                        }
+                        batch.add(row);
+                    }
+                    case SKIPPED -> run.skipped++;
+                    case INVALID -> run.fail(row, properties.getMaxReportedErrors());
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(run, batch);
+        }
+        return run.toResponse(true);
+    }
+
+    private void writeBatch(ImportRun run, List<StatementRow> batch) {
+        List<Long> fingerprints = new ArrayList<>(batch.size());
+        for (StatementRow row : batch) {
+            fingerprints.add(ExpenseFingerprint.of(truncate(row.merchant(), 120), description(row), row.amount()));
+        }
+        Map<DedupKey, Integer> existing = loadExisting(run.userId, batch, fingerprints);
+
+        List<StatementRow> fresh = new ArrayList<>(batch.size());
+        List<Long> freshFingerprints = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            StatementRow row = batch.get(i);
+            if (consume(existing, new DedupKey(fingerprints.get(i), row.date()))) {
+                run.duplicates++;
+            } else {
+                fresh.add(row);
+                freshFingerprints.add(fingerprints.get(i));
+            }
+        }
+        batch.clear();
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<String> categories = categorize(fresh);
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_EXPENSE, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        StatementRow row = fresh.get(i);
+                        statement.setObject(1, UUID.randomUUID());
+                        statement.setString(2, description(row));
+                        statement.setString(3, truncate(row.merchant(), 120));
+                        statement.setString(4, truncate(categories.get(i), 60));
+                        statement.setBigDecimal(5, row.amount());
+                        statement.setObject(6, row.date());
+                        statement.setString(7, truncate(row.paymentMethod(), 40));
+                        statement.setObject(8, run.userId);
+                        statement.setLong(9, freshFingerprints.get(i));
+                        statement.setObject(10, now);
+                        statement.setObject(11, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return fresh.size();
+                    }
+                }));
+        run.imported += fresh.size();
+    }
+
+    /**
+     * Counts the user's expenses per key for the batch's fingerprints and date
+     * range. Runs before the batch is inserted, so rows added by this import
+     * never count as duplicates of each other.
+     */
+    private Map<DedupKey, Integer> loadExisting(UUID userId, List<StatementRow> batch, List<Long> fingerprints) {
+        LocalDate from = batch.get(0).date();
+        LocalDate to = from;
+        for (StatementRow row : batch) {
+            from = row.date().isBefore(from) ? row.date() : from;
+            to = row.date().isAfter(to) ? row.date() : to;
+        }
+        Map<String, Object> params = Map.of(
+                "userId", userId,
+                "fingerprints", new HashSet<>(fingerprints),
+                "from", from,
+                "to", to);
+        Map<DedupKey, Integer> existing = new HashMap<>();
+        jdbcTemplate.query(SELECT_EXISTING, params, resultSet -> {
+            existing.merge(new DedupKey(
+                    resultSet.getLong("fingerprint"),
+                    resultSet.getObject("transaction_date", LocalDate.class)), 1, Integer::sum);
+        });
+        return existing;
+    }
+
+    // Existing expenses are counted per key, so two identical statement rows only
+    // skip two identical existing expenses
+    private static boolean consume(Map<DedupKey, Integer> existing, DedupKey key) {
+        Integer count = existing.get(key);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            existing.remove(key);
+        } else {
+            existing.put(key, count - 1);
+        }
+        return true;
+    }
+
+    private List<String> categorize(List<StatementRow> rows) {
+        List<ExpenseCategorizationRequest> requests = new ArrayList<>();
+        for (StatementRow row : rows) {
+            if (row.category() == null) {
+                requests.add(new ExpenseCategorizationRequest(description(row), row.merchant(), row.amount()));
+            }
+        }
+        List<ExpenseCategorizationResponse> responses = requests.isEmpty()
+                ? List.of()
+                : expenseCategorizer.categorizeAll(requests);
+
+        List<String> categories = new ArrayList<>(rows.size());
+        int next = 0;
+        for (StatementRow row : rows) {
+            categories.add(row.category() != null ? row.category() : responses.get(next++).category());
+        }
+        return categories;
+    }
+
+    private static String description(StatementRow row) {
+        if (row.description() != null && !row.description().isBlank()) {
+            return row.description().trim();
+        }
+        return row.merchant() != null && !row.merchant().isBlank() ? row.merchant().trim() : DEFAULT_DESCRIPTION;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /** A statement row is a duplicate of an existing expense with the same payee, amount and date. */
+    private record DedupKey(long fingerprint, LocalDate date) {
+    }
+
+    /** Counters for one import; error details are capped at the reported maximum. */
+    private static final class ImportRun {
+
+        private final UUID userId;
+        private final List<ExpenseImportResponse.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long duplicates;
+        private long skipped;
+        private long failed;
+
+        private ImportRun(UUID userId) {
+            this.userId = userId;
+        }
+
+        void fail(StatementRow row, int maxReportedErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ExpenseImportResponse.RowError(row.line(), row.error()));
+            }
+        }
+
+        ExpenseImportResponse toResponse(boolean complete) {
+            return new ExpenseImportResponse(rowsRead, imported, duplicates, skipped, failed,
+                    List.copyOf(errors), complete);
+        }
+    }
+}
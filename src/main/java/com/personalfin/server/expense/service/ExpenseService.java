@@ -3,11 +3,16 @@ package com.personalfin.server.expense.service;
 import com.personalfin.server.auth.util.SecurityUtils;
 import com.personalfin.server.budget.dto.CoachMessage;
 import com.personalfin.server.budget.service.DailySpendCoachService;
+import com.personalfin.server.expense.dto.CategorySpendingSummary;
 import com.personalfin.server.expense.config.ExpenseAnalyticsProperties;
+import com.personalfin.server.expense.config.ExpenseDuplicateProperties;
 import com.personalfin.server.expense.dto.ExpenseCreateRequest;
 import com.personalfin.server.expense.dto.ExpenseCreateResponse;
+import com.personalfin.server.expense.dto.ExpenseDuplicateGroup;
 import com.personalfin.server.expense.dto.ExpenseFilterRequest;
 import com.personalfin.server.expense.dto.ExpenseHeatmapPoint;
+import com.personalfin.server.expense.dto.ExpenseListResponse;
+import com.personalfin.server.expense.dto.ExpenseListSummary;
 import com.personalfin.server.expense.dto.ExpenseResponse;
 import com.personalfin.server.expense.dto.ExpenseUpdateRequest;
 import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
@@ -18,10 +23,15 @@ import com.personalfin.server.expense.repository.ExpenseSpecifications;
 import com.personalfin.server.user.service.UserService;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +41,7 @@ public class ExpenseService {
     private final ExpenseRepository expenseRepository;
     private final ExpenseCategorizer expenseCategorizer;
     private final ExpenseAnalyticsProperties analyticsProperties;
+    private final ExpenseDuplicateProperties duplicateProperties;
     private final DailySpendCoachService coachService;
     private final UserService userService;
     private final Clock clock;
@@ -38,12 +49,14 @@ public class ExpenseService {
     public ExpenseService(ExpenseRepository expenseRepository,
                           ExpenseCategorizer expenseCategorizer,
                           ExpenseAnalyticsProperties analyticsProperties,
+                          ExpenseDuplicateProperties duplicateProperties,
                           DailySpendCoachService coachService,
                           UserService userService,
                           Clock clock) {
         this.expenseRepository = expenseRepository;
         this.expenseCategorizer = expenseCategorizer;
         this.analyticsProperties = analyticsProperties;
+        this.duplicateProperties = duplicateProperties;
         this.coachService = coachService;
         this.userService = userService;
         this.clock = clock;
@@ -52,6 +65,15 @@ public class ExpenseService {
     @Transactional
     public ExpenseResponse createExpense(ExpenseCreateRequest request) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
+        Expense saved = expenseRepository.save(newExpense(request, userId));
+        return toResponse(saved);
+    }
+
+    /**
+     * Builds an unsaved, categorized expense for the given user. Used by bulk
+     * paths (sync push) that resolve the user once and persist in batches.
+     */
+    public Expense newExpense(ExpenseCreateRequest request, UUID userId) {
         Expense expense = new Expense();
         expense.setDescription(request.description());
         expense.setMerchant(request.merchant());
@@ -62,30 +84,17 @@ public class ExpenseService {
         expense.setPaymentMethod(request.paymentMethod());
         expense.setCategory(resolveCategory(request));
         expense.setUserId(userId);
-        Expense saved = expenseRepository.save(expense);
-        return toResponse(saved);
+        return expense;
     }
 
     @Transactional
     public ExpenseCreateResponse createExpenseWithCoach(ExpenseCreateRequest request) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
-        LocalDate transactionDate = request.transactionDate() != null
-                ? request.transactionDate()
-                : LocalDate.now(clock);
-        
-        Expense expense = new Expense();
-        expense.setDescription(request.description());
-        expense.setMerchant(request.merchant());
-        expense.setAmount(request.amount());
-        expense.setTransactionDate(transactionDate);
-        expense.setPaymentMethod(request.paymentMethod());
-        expense.setCategory(resolveCategory(request));
-        expense.setUserId(userId);
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(newExpense(request, userId));
         
         // Check budget and get coach message
         CoachMessage coachMessage = coachService.evaluateSpendingAfterExpense(
-                request.amount(), transactionDate);
+                request.amount(), saved.getTransactionDate());
         
         return new ExpenseCreateResponse(toResponse(saved), coachMessage);
     }
@@ -101,6 +110,11 @@ public class ExpenseService {
 
     public List<ExpenseResponse> listFiltered(ExpenseFilterRequest filter) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
+
+        // Text searches are ranked by relevance where the database supports it
+        if (filter.search() != null && !filter.search().isBlank() && expenseRepository.supportsRankedSearch()) {
+            return expenseRepository.searchRanked(userId, filter);
+        }
         
         var specification = ExpenseSpecifications.filterByUserAndCriteria(
                 userId,
@@ -120,6 +134,39 @@ public class ExpenseService {
                 .toList();
     }
 
+    /**
+     * Wraps a listing with its total, count and per-category subtotals. The
+     * listing is not paged, so every matching row is already here and the
+     * summary needs no query of its own.
+     */
+    public ExpenseListResponse withSummary(List<ExpenseResponse> expenses) {
+        BigDecimal total = BigDecimal.ZERO;
+        Map<String, BigDecimal> categoryTotals = new HashMap<>();
+        Map<String, Long> categoryCounts = new HashMap<>();
+        for (ExpenseResponse expense : expenses) {
+            String category = expense.category() != null ? expense.category() : "Uncategorized";
+            total = total.add(expense.amount());
+            categoryTotals.merge(category, expense.amount(), BigDecimal::add);
+            categoryCounts.merge(category, 1L, Long::sum);
+        }
+
+        BigDecimal grandTotal = total;
+        List<CategorySpendingSummary> categories = categoryTotals.entrySet().stream()
+                .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+                .map(entry -> new CategorySpendingSummary(
+                        entry.getKey(),
+                        entry.getValue(),
+                        categoryCounts.get(entry.getKey()),
+                        grandTotal.signum() > 0
+                                ? entry.getValue()
+                                        .divide(grandTotal, 4, RoundingMode.HALF_UP)
+                                        .multiply(BigDecimal.valueOf(100))
+                                        .doubleValue()
+                                : 0.0))
+                .toList();
+        return new ExpenseListResponse(expenses, new ExpenseListSummary(total, expenses.size(), categories));
+    }
+
     public ExpenseResponse getById(UUID id) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
         Expense expense = expenseRepository.findById(id)
@@ -144,6 +191,17 @@ public class ExpenseService {
             throw new ExpenseNotFoundException(id);
         }
         
+        applyUpdate(expense, request);
+        
+        Expense updated = expenseRepository.save(expense);
+        return toResponse(updated);
+    }
+
+    /**
+     * Applies the non-null fields of the request to an already loaded expense,
+     * re-categorizing when the description or merchant changes.
+     */
+    public void applyUpdate(Expense expense, ExpenseUpdateRequest request) {
         // Update fields if provided
         if (request.description() != null && !request.description().isBlank()) {
             expense.setDescription(request.description());
@@ -173,9 +231,6 @@ public class ExpenseService {
             );
             expense.setCategory(category);
         }
-        
-        Expense updated = expenseRepository.save(expense);
-        return toResponse(updated);
     }
 
     @Transactional
@@ -204,6 +259,45 @@ public class ExpenseService {
                 .toList();
     }
 
+    /**
+     * Groups of expenses with the same payee and amount dated within the
+     * duplicate window of each other, for groups with at least one expense in
+     * the range.
+     */
+    public List<ExpenseDuplicateGroup> findLikelyDuplicates(LocalDate start, LocalDate end) {
+        UUID userId = SecurityUtils.getCurrentUserId(userService);
+        int window = Math.max(0, duplicateProperties.getWindowDays());
+        // Widen the range so a group straddling either end is returned whole
+        List<Expense> candidates = expenseRepository.findLikelyDuplicates(
+                userId, start.minusDays(window), end.plusDays(window), window);
+
+        List<ExpenseDuplicateGroup> groups = new ArrayList<>();
+        List<Expense> group = new ArrayList<>();
+        for (Expense expense : candidates) {
+            if (!group.isEmpty()) {
+                Expense last = group.get(group.size() - 1);
+                boolean sameGroup = Objects.equals(last.getFingerprint(), expense.getFingerprint())
+                        && !expense.getTransactionDate().isAfter(last.getTransactionDate().plusDays(window));
+                if (!sameGroup) {
+                    addDuplicateGroup(groups, group, start, end);
+                    group = new ArrayList<>();
+                }
+            }
+            group.add(expense);
+        }
+        addDuplicateGroup(groups, group, start, end);
+        return groups;
+    }
+
+    private void addDuplicateGroup(List<ExpenseDuplicateGroup> groups, List<Expense> group,
+                                   LocalDate start, LocalDate end) {
+        boolean inRange = group.stream().anyMatch(expense ->
+                !expense.getTransactionDate().isBefore(start) && !expense.getTransactionDate().isAfter(end));
+        if (group.size() > 1 && inRange) {
+            groups.add(new ExpenseDuplicateGroup(group.stream().map(this::toResponse).toList()));
+        }
+    }
+
     private String resolveCategory(ExpenseCreateRequest request) {
         if (request.category() != null && !request.category().isBlank()) {
             return request.category();
@@ -0,0 +1,169 @@
+package com.personalfin.server.expense.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads {@code <STMTTRN>} transactions from OFX/QFX statements, both OFX 1.x
+ * (SGML, leaf elements without closing tags) and OFX 2.x (XML). Negative
+ * {@code TRNAMT} values are debits; everything else is skipped.
+ */
+class OfxStatementReader implements StatementReader {
+
+    private static final String TRANSACTION = "STMTTRN";
+
+    private final BufferedReader reader;
+    private final StringBuilder text = new StringBuilder();
+    private final Map<String, String> transaction = new HashMap<>();
+    private long line = 1;
+    private int pushedBack = -1;
+
+    OfxStatementReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String tag;
+        while ((tag = nextTag()) != null) {
+            if (tag.equals(TRANSACTION)) {
+                return readTransaction(line);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StatementRow readTransaction(long startLine) throws IOException {
+        transaction.clear();
+        String tag;
+        while ((tag = nextTag()) != null && !tag.equals("/" + TRANSACTION)) {
+            if (!tag.startsWith("/")) {
+                transaction.put(tag, readValue());
+            }
+        }
+        return toRow(startLine);
+    }
+
+    private StatementRow toRow(long startLine) {
+        String posted = transaction.getOrDefault("DTPOSTED", "");
+        String rawAmount = transaction.getOrDefault("TRNAMT", "");
+        LocalDate date = parseDate(posted);
+        if (date == null) {
+            return StatementRow.invalid(startLine, "Unrecognised DTPOSTED '" + posted + "'");
+        }
+        BigDecimal amount;
+        try {
+            // Some banks write a decimal comma
+            amount = new BigDecimal(rawAmount.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return StatementRow.invalid(startLine, "Unrecognised TRNAMT '" + rawAmount + "'");
+        }
+        if (amount.signum() >= 0) {
+            return StatementRow.skipped(startLine);
+        }
+
+        String name = transaction.get("NAME");
+        String memo = transaction.get("MEMO");
+        String description = memo != null && !memo.isEmpty() ? memo : name;
+        return StatementRow.debit(
+                startLine,
+                date,
+                description != null ? description : "",
+                name,
+                null,
+                null,
+                amount.negate());
+    }
+
+    /** DTPOSTED is YYYYMMDD optionally followed by a time and zone. */
+    private static LocalDate parseDate(String value) {
+        if (value.length() < 8) {
+            return null;
+        }
+        for (int i = 0; i < 8; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        try {
+            return LocalDate.of(
+                    Integer.parseInt(value, 0, 4, 10),
+                    Integer.parseInt(value, 4, 6, 10),
+                    Integer.parseInt(value, 6, 8, 10));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Advances past the next tag and returns its name ({@code /NAME} for closing
+     * tags), skipping processing instructions and the OFX 1.x header block.
+     */
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<') {
+                continue;
+            }
+            text.setLength(0);
+            while ((c = read()) != -1 && c != '>') {
+                text.append((char) c);
+            }
+            if (!text.isEmpty() && text.charAt(0) != '?' && text.charAt(0) != '!') {
+                return text.toString().trim().toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    /** Text up to the next tag, which is left unread. */
+    private String readValue() throws IOException {
+        text.setLength(0);
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                pushedBack = c;
+                break;
+            }
+            text.append((char) c);
+        }
+        return unescape(text.toString().trim());
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&nbsp;", " ")
+                .replace("&amp;", "&");
+    }
+}
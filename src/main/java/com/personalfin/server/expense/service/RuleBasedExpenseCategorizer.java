@@ -3,7 +3,10 @@ package com.personalfin.server.expense.service;
 import com.personalfin.server.expense.config.ExpenseCategorizerProperties;
 import com.personalfin.server.expense.dto.ExpenseCategorizationRequest;
 import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -36,8 +39,24 @@ public class RuleBasedExpenseCategorizer implements ExpenseCategorizer {
 
     @Override
     public ExpenseCategorizationResponse categorize(ExpenseCategorizationRequest request) {
-        String searchSpace = buildSearchSpace(request);
+        return categorize(buildSearchSpace(request));
+    }
 
+    /**
+     * Statements repeat the same payees many times, so each distinct description
+     * and merchant pair in the batch is matched only once.
+     */
+    @Override
+    public List<ExpenseCategorizationResponse> categorizeAll(List<ExpenseCategorizationRequest> requests) {
+        Map<String, ExpenseCategorizationResponse> bySearchSpace = new HashMap<>();
+        List<ExpenseCategorizationResponse> responses = new ArrayList<>(requests.size());
+        for (ExpenseCategorizationRequest request : requests) {
+            responses.add(bySearchSpace.computeIfAbsent(buildSearchSpace(request), this::categorize));
+        }
+        return responses;
+    }
+
+    private ExpenseCategorizationResponse categorize(String searchSpace) {
         // First try exact match
         Optional<Map.Entry<String, String>> exactMatch = keywordCache.entrySet()
                 .stream()
@@ -86,8 +105,7 @@ public class RuleBasedExpenseCategorizer implements ExpenseCategorizer {
         // Check for common typos (single character difference)
         if (keyword.length() > 3) {
             for (int i = 0; i <= text.length() - keyword.length(); i++) {
-                String substring = text.substring(i, Math.min(i + keyword.length(), text.length()));
-                if (levenshteinDistance(substring, keyword) <= 1) {
+                if (atMostOneSubstitution(text, i, keyword)) {
                     return true;
                 }
             }
@@ -96,25 +114,19 @@ public class RuleBasedExpenseCategorizer implements ExpenseCategorizer {
         return false;
     }
 
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-
-        for (int i = 0; i <= s1.length(); i++) {
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = Math.min(
-                            Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                            dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1)
-                    );
-                }
+    /**
+     * Levenshtein distance of at most 1 between the keyword and the equally long
+     * window of text at {@code offset}. For equal lengths that means at most one
+     * differing character, so no distance matrix is needed.
+     */
+    private boolean atMostOneSubstitution(String text, int offset, String keyword) {
+        int differences = 0;
+        for (int j = 0; j < keyword.length(); j++) {
+            if (text.charAt(offset + j) != keyword.charAt(j) && ++differences > 1) {
+                return false;
             }
         }
-
-        return dp[s1.length()][s2.length()];
+        return true;
     }
 
     private String buildSearchSpace(ExpenseCategorizationRequest request) {
@@ -0,0 +1,78 @@
+package com.personalfin.server.expense.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Reads bank statement transactions one at a time, so an import holds one row
+ * in memory rather than the whole file.
+ */
+interface StatementReader extends Closeable {
+
+    int SNIFF_CHARS = 1024;
+
+    /** The next transaction, or {@code null} at the end of the statement. */
+    StatementRow next() throws IOException;
+
+    /** Picks the reader from the content: OFX/QFX if it looks like one, CSV otherwise. */
+    static StatementReader open(InputStream statement) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8));
+        reader.mark(SNIFF_CHARS);
+        char[] head = new char[SNIFF_CHARS];
+        int length = reader.read(head, 0, SNIFF_CHARS);
+        reader.reset();
+
+        String start = length > 0 ? new String(head, 0, length).stripLeading() : "";
+        if (!start.isEmpty() && start.charAt(0) == '\uFEFF') {
+            start = start.substring(1).stripLeading();
+        }
+        if (start.startsWith("OFXHEADER") || start.startsWith("<OFX") || start.contains("<?OFX")) {
+            return new OfxStatementReader(reader);
+        }
+        return new CsvStatementReader(reader);
+    }
+
+    enum RowType {
+        /** Money out: becomes an expense. */
+        DEBIT,
+        /** Money in, a zero amount or a summary line; not imported. */
+        SKIPPED,
+        INVALID
+    }
+
+    /**
+     * One statement transaction. Debit amounts are positive; {@code error} is set
+     * only for {@link RowType#INVALID} rows.
+     */
+    record StatementRow(
+            long line,
+            RowType type,
+            LocalDate date,
+            String description,
+            String merchant,
+            String category,
+            String paymentMethod,
+            BigDecimal amount,
+            String error
+    ) {
+        static StatementRow debit(long line, LocalDate date, String description, String merchant,
+                                  String category, String paymentMethod, BigDecimal amount) {
+            return new StatementRow(line, RowType.DEBIT, date, description, merchant, category, paymentMethod,
+                    amount, null);
+        }
+
+        static StatementRow skipped(long line) {
+            return new StatementRow(line, RowType.SKIPPED, null, null, null, null, null, null, null);
+        }
+
+        static StatementRow invalid(long line, String error) {
+            return new StatementRow(line, RowType.INVALID, null, null, null, null, null, null, error);
+        }
+    }
+}
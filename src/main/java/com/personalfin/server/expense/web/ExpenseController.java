@@ -3,8 +3,10 @@ package com.personalfin.server.expense.web;
 import com.personalfin.server.expense.dto.CategorySpendingSummary;
 import com.personalfin.server.expense.dto.ExpenseCreateRequest;
 import com.personalfin.server.expense.dto.ExpenseCreateResponse;
+import com.personalfin.server.expense.dto.ExpenseDuplicateGroup;
 import com.personalfin.server.expense.dto.ExpenseFilterRequest;
 import com.personalfin.server.expense.dto.ExpenseHeatmapPoint;
+import com.personalfin.server.expense.dto.ExpenseListResponse;
 import com.personalfin.server.expense.dto.ExpenseResponse;
 import com.personalfin.server.expense.dto.ExpenseUpdateRequest;
 import com.personalfin.server.expense.dto.SpendingPattern;
@@ -59,26 +61,38 @@ public class ExpenseController {
                 .body(expenseService.createExpenseWithCoach(request));
     }
 
+    /**
+     * Lists expenses, filtered when any filter is given. With
+     * {@code summary=true} the body is an {@link ExpenseListResponse} carrying
+     * totals and per-category subtotals for the same rows.
+     */
     @GetMapping
-    public List<ExpenseResponse> list(
+    public ResponseEntity<?> list(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) java.math.BigDecimal minAmount,
             @RequestParam(required = false) java.math.BigDecimal maxAmount,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String paymentMethod) {
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(defaultValue = "false") boolean summary) {
         
         // If any filter is provided, use filtered search; otherwise return all
+        List<ExpenseResponse> expenses;
         if (startDate != null || endDate != null || category != null || 
             minAmount != null || maxAmount != null || search != null || paymentMethod != null) {
             
             ExpenseFilterRequest filter = new ExpenseFilterRequest(
                     startDate, endDate, category, minAmount, maxAmount, search, paymentMethod);
-            return expenseService.listFiltered(filter);
+            expenses = expenseService.listFiltered(filter);
+        } else {
+            expenses = expenseService.listAll();
         }
-        
-        return expenseService.listAll();
+
+        if (summary) {
+            return ResponseEntity.ok(expenseService.withSummary(expenses));
+        }
+        return ResponseEntity.ok(expenses);
     }
 
     @GetMapping("/{id}")
@@ -106,6 +120,13 @@ public class ExpenseController {
         return expenseService.heatmap(start, end);
     }
 
+    @GetMapping("/duplicates")
+    public List<ExpenseDuplicateGroup> duplicates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return expenseService.findLikelyDuplicates(start, end);
+    }
+
     @GetMapping("/analytics/categories")
     public List<CategorySpendingSummary> getCategorySpending(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
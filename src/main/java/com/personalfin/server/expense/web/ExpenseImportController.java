@@ -0,0 +1,94 @@
+package com.personalfin.server.expense.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personalfin.server.expense.dto.ExpenseImportResponse;
+import com.personalfin.server.expense.service.ExpenseImportService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.util.WebUtils;
+
+@RestController
+@RequestMapping("/api/expenses")
+public class ExpenseImportController {
+
+    private static final String FILE_PART = "file";
+
+    private final ExpenseImportService importService;
+    private final ObjectMapper objectMapper;
+
+    public ExpenseImportController(ExpenseImportService importService, ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports a CSV or OFX/QFX bank statement, sent either as a multipart form with
+     * a {@code file} part or as the raw request body. Debits become expenses;
+     * credits and rows matching an existing expense are skipped.
+     *
+     * <p>With {@code Accept: application/x-ndjson} the response streams one JSON
+     * line per committed batch while the import runs, ending with the summary.
+     */
+    @PostMapping(value = "/import", consumes = {
+            MediaType.MULTIPART_FORM_DATA_VALUE, "text/csv", MediaType.TEXT_PLAIN_VALUE,
+            "application/x-ofx", "application/vnd.intu.qfx", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ExpenseImportResponse> importStatement(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        try (InputStream statement = openUpload(request)) {
+            if (!acceptsNdjson(accept)) {
+                return ResponseEntity.ok(importService.importStatement(statement, progress -> { }));
+            }
+
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            ServletOutputStream out = response.getOutputStream();
+            ExpenseImportResponse summary = importService.importStatement(statement, progress -> {
+                try {
+                    writeLine(out, progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writeLine(out, summary);
+            // Already written
+            return null;
+        }
+    }
+
+    private void writeLine(ServletOutputStream out, ExpenseImportResponse line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    private static InputStream openUpload(HttpServletRequest request) throws IOException {
+        MultipartHttpServletRequest multipart = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        if (multipart == null) {
+            return request.getInputStream();
+        }
+        MultipartFile file = multipart.getFile(FILE_PART);
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Multipart upload must include a '" + FILE_PART + "' file part");
+        }
+        return file.getInputStream();
+    }
+}
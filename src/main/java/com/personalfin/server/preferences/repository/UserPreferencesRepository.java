@@ -1,13 +1,19 @@
 package com.personalfin.server.preferences.repository;
 
 import com.personalfin.server.preferences.model.UserPreferences;
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserPreferencesRepository extends JpaRepository<UserPreferences, UUID> {
 
     Optional<UserPreferences> findByUserId(UUID userId);
+
+    @Query("SELECT p.updatedAt FROM UserPreferences p, User u WHERE u.id = p.userId AND u.username = :username")
+    Optional<OffsetDateTime> findUpdatedAtByUsername(@Param("username") String username);
 }
 
 
@@ -0,0 +1,180 @@
+package com.personalfin.server.receipt.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "receipt")
+public class ReceiptProperties {
+
+    private final Ocr ocr = new Ocr();
+    private final Jobs jobs = new Jobs();
+    private final Upload upload = new Upload();
+
+    public Ocr getOcr() {
+        return ocr;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public Upload getUpload() {
+        return upload;
+    }
+
+    public static class Ocr {
+        private String datapath = System.getProperty("user.dir") + "/tessdata";
+        private String language = "eng";
+        // Worker threads, each with its own Tesseract engine; 0 means one per core
+        private int poolSize = 0;
+        // Scans waiting for a worker before new ones are rejected with 503
+        private int queueCapacity = 16;
+        // How long a request waits for its scan before giving up
+        private Duration timeout = Duration.ofSeconds(30);
+        // Resolution Tesseract is told the preprocessed image has; nominal, since a
+        // photo has no physical scale (see preprocess.target-width)
+        private int dpi = 300;
+        private final Preprocess preprocess = new Preprocess();
+
+        public String getDatapath() {
+            return datapath;
+        }
+
+        public void setDatapath(String datapath) {
+            this.datapath = datapath;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public void setLanguage(String language) {
+            this.language = language;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getDpi() {
+            return dpi;
+        }
+
+        public void setDpi(int dpi) {
+            this.dpi = dpi;
+        }
+
+        public Preprocess getPreprocess() {
+            return preprocess;
+        }
+    }
+
+    public static class Preprocess {
+        private boolean enabled = true;
+        // Width in pixels, not DPI: 300 DPI across an 80 mm receipt is 945 px,
+        // and the rest is the background around a receipt that fills most of the frame
+        private int targetWidth = 1200;
+        // Share of white pixels that marks a row or column as receipt paper
+        private double paperWhiteRatio = 0.6;
+        // Smaller detected regions are ignored and the whole image is used
+        private double minPaperAreaRatio = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTargetWidth() {
+            return targetWidth;
+        }
+
+        public void setTargetWidth(int targetWidth) {
+            this.targetWidth = targetWidth;
+        }
+
+        public double getPaperWhiteRatio() {
+            return paperWhiteRatio;
+        }
+
+        public void setPaperWhiteRatio(double paperWhiteRatio) {
+            this.paperWhiteRatio = paperWhiteRatio;
+        }
+
+        public double getMinPaperAreaRatio() {
+            return minPaperAreaRatio;
+        }
+
+        public void setMinPaperAreaRatio(double minPaperAreaRatio) {
+            this.minPaperAreaRatio = minPaperAreaRatio;
+        }
+    }
+
+    public static class Jobs {
+        // Pending jobs handed to the OCR pool per dispatch run
+        private int batchSize = 20;
+        // A job claimed longer ago than this is assumed lost (e.g. restart) and requeued
+        private Duration staleAfter = Duration.ofMinutes(10);
+        // Jobs requeued more often than this are failed rather than retried forever
+        private int maxAttempts = 3;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getStaleAfter() {
+            return staleAfter;
+        }
+
+        public void setStaleAfter(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    public static class Upload {
+        // Largest binary receipt upload accepted; multipart uploads are also capped by spring.servlet.multipart
+        private long maxBytes = 10L * 1024 * 1024;
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.personalfin.server.receipt.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record ReceiptScanJobResponse(
+        UUID id,
+        String status,
+        BigDecimal amount,
+        String merchant,
+        LocalDate date,
+        String category,
+        String rawText,
+        String error,
+        OffsetDateTime createdAt,
+        OffsetDateTime completedAt
+) {
+}
@@ -0,0 +1,19 @@
+package com.personalfin.server.receipt.exception;
+
+/**
+ * Thrown when a receipt cannot be scanned right now because every OCR worker
+ * is busy and the queue is full, or the scan did not finish in time.
+ */
+public class OcrUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OcrUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
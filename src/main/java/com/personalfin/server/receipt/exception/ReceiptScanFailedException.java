@@ -0,0 +1,10 @@
+package com.personalfin.server.receipt.exception;
+
+/**
+ * Thrown when an uploaded image could not be decoded or recognized.
+ */
+public class ReceiptScanFailedException extends RuntimeException {
+    public ReceiptScanFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package com.personalfin.server.receipt.exception;
+
+import java.util.UUID;
+
+public class ReceiptScanJobNotFoundException extends RuntimeException {
+    public ReceiptScanJobNotFoundException(UUID id) {
+        super("Receipt scan job not found: " + id);
+    }
+}
@@ -0,0 +1,191 @@
+package com.personalfin.server.receipt.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+@Entity
+@Table(name = "receipt_scan_jobs")
+public class ReceiptScanJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // SHA-256 of the uploaded image, hex encoded
+    @Column(name = "image_hash", nullable = false, length = 64)
+    private String imageHash;
+
+    @Column(name = "image_data")
+    private byte[] imageData;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReceiptScanJobStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "ocr_text", columnDefinition = "TEXT")
+    private String ocrText;
+
+    @Column(precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(columnDefinition = "TEXT")
+    private String merchant;
+
+    @Column(name = "transaction_date")
+    private LocalDate transactionDate;
+
+    @Column(length = 60)
+    private String category;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "claimed_at")
+    private OffsetDateTime claimedAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * Finishes the job with parsed receipt fields and drops the stored image.
+     */
+    public void complete(String ocrText, BigDecimal amount, String merchant, LocalDate transactionDate, String category) {
+        this.ocrText = ocrText;
+        this.amount = amount;
+        this.merchant = merchant;
+        this.transactionDate = transactionDate;
+        this.category = category;
+        this.status = ReceiptScanJobStatus.COMPLETED;
+        this.errorMessage = null;
+        this.imageData = null;
+        this.completedAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    public void fail(String errorMessage) {
+        this.status = ReceiptScanJobStatus.FAILED;
+        this.errorMessage = errorMessage;
+        this.imageData = null;
+        this.completedAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public byte[] getImageData() {
+        return imageData;
+    }
+
+    public void setImageData(byte[] imageData) {
+        this.imageData = imageData;
+    }
+
+    public ReceiptScanJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReceiptScanJobStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getOcrText() {
+        return ocrText;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getMerchant() {
+        return merchant;
+    }
+
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public OffsetDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public OffsetDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.personalfin.server.receipt.model;
+
+public enum ReceiptScanJobStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,57 @@
+package com.personalfin.server.receipt.repository;
+
+import com.personalfin.server.receipt.model.ReceiptScanJob;
+import com.personalfin.server.receipt.model.ReceiptScanJobStatus;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReceiptScanJobRepository extends JpaRepository<ReceiptScanJob, UUID> {
+
+    Optional<ReceiptScanJob> findByIdAndUserId(UUID id, UUID userId);
+
+    Optional<ReceiptScanJob> findFirstByImageHashAndStatus(String imageHash, ReceiptScanJobStatus status);
+
+    @Query("SELECT j.id FROM ReceiptScanJob j WHERE j.status = :status ORDER BY j.createdAt")
+    List<UUID> findIdsByStatus(@Param("status") ReceiptScanJobStatus status, Pageable pageable);
+
+    /**
+     * Moves a job from {@code from} to {@code to}. Returns 0 when another worker
+     * already moved it, which makes this safe to use as a claim.
+     */
+    @Modifying
+    @Query("UPDATE ReceiptScanJob j SET j.status = :to, j.claimedAt = :now, j.updatedAt = :now, "
+            + "j.attempts = j.attempts + 1 WHERE j.id = :id AND j.status = :from")
+    int claim(@Param("id") UUID id,
+              @Param("from") ReceiptScanJobStatus from,
+              @Param("to") ReceiptScanJobStatus to,
+              @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReceiptScanJob j SET j.status = :to, j.updatedAt = :now, j.attempts = j.attempts - 1 "
+            + "WHERE j.id = :id AND j.status = :from")
+    int release(@Param("id") UUID id,
+                @Param("from") ReceiptScanJobStatus from,
+                @Param("to") ReceiptScanJobStatus to,
+                @Param("now") OffsetDateTime now);
+
+    /**
+     * Returns jobs whose worker went away (e.g. the server restarted mid-scan) to
+     * the queue.
+     */
+    @Modifying
+    @Query("UPDATE ReceiptScanJob j SET j.status = :to, j.updatedAt = :now "
+            + "WHERE j.status = :from AND j.claimedAt < :claimedBefore")
+    int releaseStale(@Param("from") ReceiptScanJobStatus from,
+                     @Param("to") ReceiptScanJobStatus to,
+                     @Param("claimedBefore") OffsetDateTime claimedBefore,
+                     @Param("now") OffsetDateTime now);
+}
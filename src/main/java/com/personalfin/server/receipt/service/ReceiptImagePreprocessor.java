@@ -0,0 +1,253 @@
+package com.personalfin.server.receipt.service;
+
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares a decoded receipt photo for Tesseract: downscales it to
+ * {@code receipt.ocr.preprocess.target-width}, converts to grayscale, binarizes
+ * with Otsu's threshold and finds the bright paper region to OCR.
+ *
+ * <p>The target is a pixel width rather than a DPI because a photo has no
+ * physical scale. Phones write a fixed resolution (usually 72) into EXIF
+ * whatever the distance to the receipt, so the DPI of the paper in a photo
+ * cannot be read off the file. Scaling the frame to a fixed width instead
+ * brings a receipt that fills most of it to roughly the resolution Tesseract
+ * is told it has ({@code receipt.ocr.dpi}): 1200 px is 300 DPI across an
+ * 80 mm roll (945 px) plus the background around it.
+ *
+ * <p>Pixels are read straight from the decoded raster and written once into an
+ * 8-bit buffer that is handed to Tesseract as is, so no intermediate images are
+ * created. The buffer belongs to the calling thread and is reused by its next
+ * call, which suits the OCR workers that each run one scan at a time.
+ */
+@Component
+public class ReceiptImagePreprocessor {
+
+    private static final int WHITE = 255;
+
+    private final ReceiptProperties.Preprocess properties;
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<>();
+
+    public ReceiptImagePreprocessor(ReceiptProperties receiptProperties) {
+        this.properties = receiptProperties.getOcr().getPreprocess();
+    }
+
+    public PreprocessedImage preprocess(BufferedImage image) {
+        int srcWidth = image.getWidth();
+        int srcHeight = image.getHeight();
+        int width = Math.min(srcWidth, Math.max(1, properties.getTargetWidth()));
+        int height = Math.max(1, (int) ((long) srcHeight * width / srcWidth));
+
+        ByteBuffer pixels = buffer(width * height);
+        int[] histogram = new int[256];
+        downscaleToGray(image, width, height, pixels, histogram);
+
+        int threshold = otsuThreshold(histogram, width * height);
+        Rectangle region = binarizeAndFindPaper(pixels, width, height, threshold);
+        return new PreprocessedImage(width, height, pixels, region);
+    }
+
+    /**
+     * Box-filter downscale: every source pixel contributes its luminance to exactly
+     * one destination pixel, accumulated one destination row at a time.
+     */
+    private void downscaleToGray(BufferedImage image, int width, int height, ByteBuffer out, int[] histogram) {
+        int srcWidth = image.getWidth();
+        int srcHeight = image.getHeight();
+        LuminanceReader reader = LuminanceReader.of(image);
+
+        int[] column = new int[srcWidth];
+        int[] columnCount = new int[width];
+        for (int sx = 0; sx < srcWidth; sx++) {
+            column[sx] = (int) ((long) sx * width / srcWidth);
+            columnCount[column[sx]]++;
+        }
+
+        int[] row = new int[srcWidth];
+        long[] sums = new long[width];
+        for (int dy = 0; dy < height; dy++) {
+            int sy0 = (int) ((long) dy * srcHeight / height);
+            int sy1 = Math.max(sy0 + 1, (int) ((long) (dy + 1) * srcHeight / height));
+            Arrays.fill(sums, 0);
+            for (int sy = sy0; sy < sy1; sy++) {
+                reader.readRow(sy, row);
+                for (int sx = 0; sx < srcWidth; sx++) {
+                    sums[column[sx]] += row[sx];
+                }
+            }
+            int rows = sy1 - sy0;
+            int offset = dy * width;
+            for (int dx = 0; dx < width; dx++) {
+                int gray = (int) (sums[dx] / ((long) columnCount[dx] * rows));
+                out.put(offset + dx, (byte) gray);
+                histogram[gray]++;
+            }
+        }
+    }
+
+    static int otsuThreshold(int[] histogram, int total) {
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += (long) i * histogram[i];
+        }
+        long backgroundSum = 0;
+        int backgroundCount = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int t = 0; t < 256; t++) {
+            backgroundCount += histogram[t];
+            if (backgroundCount == 0) {
+                continue;
+            }
+            int foregroundCount = total - backgroundCount;
+            if (foregroundCount == 0) {
+                break;
+            }
+            backgroundSum += (long) t * histogram[t];
+            double backgroundMean = (double) backgroundSum / backgroundCount;
+            double foregroundMean = (double) (sum - backgroundSum) / foregroundCount;
+            double variance = (double) backgroundCount * foregroundCount
+                    * (backgroundMean - foregroundMean) * (backgroundMean - foregroundMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = t;
+            }
+        }
+        return threshold;
+    }
+
+    /**
+     * Thresholds the buffer in place and returns the bounding box of the rows and
+     * columns that are mostly white, i.e. the receipt paper. Falls back to the whole
+     * image when no plausible paper region is found.
+     */
+    private Rectangle binarizeAndFindPaper(ByteBuffer pixels, int width, int height, int threshold) {
+        int[] whiteInRow = new int[height];
+        int[] whiteInColumn = new int[width];
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                boolean white = (pixels.get(offset + x) & 0xFF) > threshold;
+                pixels.put(offset + x, (byte) (white ? WHITE : 0));
+                if (white) {
+                    whiteInRow[y]++;
+                    whiteInColumn[x]++;
+                }
+            }
+        }
+
+        double minWhite = properties.getPaperWhiteRatio();
+        int top = firstAbove(whiteInRow, width * minWhite, 0, 1);
+        int bottom = firstAbove(whiteInRow, width * minWhite, height - 1, -1);
+        int left = firstAbove(whiteInColumn, height * minWhite, 0, 1);
+        int right = firstAbove(whiteInColumn, height * minWhite, width - 1, -1);
+
+        Rectangle full = new Rectangle(0, 0, width, height);
+        if (top < 0 || left < 0 || bottom < top || right < left) {
+            return full;
+        }
+        Rectangle paper = new Rectangle(left, top, right - left + 1, bottom - top + 1);
+        long area = (long) paper.width * paper.height;
+        return area < (long) width * height * properties.getMinPaperAreaRatio() ? full : paper;
+    }
+
+    private static int firstAbove(int[] counts, double minimum, int start, int step) {
+        for (int i = start; i >= 0 && i < counts.length; i += step) {
+            if (counts[i] >= minimum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer buffer(int size) {
+        ByteBuffer buffer = buffers.get();
+        if (buffer == null || buffer.capacity() < size) {
+            // Direct, so Tesseract reads it in place rather than through a copy
+            buffer = ByteBuffer.allocateDirect(size);
+            buffers.set(buffer);
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * An 8-bit, one byte per pixel image ready for Tesseract, and the region of it
+     * to recognize.
+     */
+    public record PreprocessedImage(int width, int height, ByteBuffer pixels, Rectangle region) {
+    }
+
+    /** Reads one row of luminance values (0-255) from the decoded image. */
+    private interface LuminanceReader {
+
+        void readRow(int y, int[] row);
+
+        static LuminanceReader of(BufferedImage image) {
+            Raster raster = image.getRaster();
+            int colorSpace = image.getColorModel().getColorSpace().getType();
+            if (raster.getDataBuffer() instanceof DataBufferByte
+                    && raster.getSampleModel() instanceof ComponentSampleModel
+                    && image.getColorModel() instanceof ComponentColorModel
+                    && (colorSpace == ColorSpace.TYPE_RGB || colorSpace == ColorSpace.TYPE_GRAY)) {
+                return interleavedBytes(image);
+            }
+            // Anything else (palettes, packed ints, ...) goes through getRGB one row at a time
+            int width = image.getWidth();
+            return (y, row) -> {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int rgb = row[x];
+                    row[x] = luminance((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                }
+            };
+        }
+
+        private static LuminanceReader interleavedBytes(BufferedImage image) {
+            Raster raster = image.getRaster();
+            ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            int base = raster.getDataBuffer().getOffset();
+            int pixelStride = sampleModel.getPixelStride();
+            int scanlineStride = sampleModel.getScanlineStride();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            int width = image.getWidth();
+
+            if (image.getColorModel().getColorSpace().getType() == ColorSpace.TYPE_GRAY) {
+                int gray = bandOffsets[0];
+                return (y, row) -> {
+                    int offset = base + y * scanlineStride + gray;
+                    for (int x = 0; x < width; x++, offset += pixelStride) {
+                        row[x] = data[offset] & 0xFF;
+                    }
+                };
+            }
+            int red = bandOffsets[0];
+            int green = bandOffsets[1];
+            int blue = bandOffsets[2];
+            return (y, row) -> {
+                int offset = base + y * scanlineStride;
+                for (int x = 0; x < width; x++, offset += pixelStride) {
+                    row[x] = luminance(data[offset + red] & 0xFF, data[offset + green] & 0xFF,
+                            data[offset + blue] & 0xFF);
+                }
+            };
+        }
+
+        private static int luminance(int red, int green, int blue) {
+            // ITU-R BT.601 weights in fixed point
+            return (77 * red + 150 * green + 29 * blue) >> 8;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.personalfin.server.receipt.service;
+
+import com.personalfin.server.auth.util.SecurityUtils;
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import com.personalfin.server.receipt.dto.ReceiptScanJobResponse;
+import com.personalfin.server.receipt.exception.OcrUnavailableException;
+import com.personalfin.server.receipt.exception.ReceiptScanJobNotFoundException;
+import com.personalfin.server.receipt.model.ReceiptScanJob;
+import com.personalfin.server.receipt.model.ReceiptScanJobStatus;
+import com.personalfin.server.receipt.repository.ReceiptScanJobRepository;
+import com.personalfin.server.receipt.service.ReceiptParserService.ReceiptParsedData;
+import com.personalfin.server.user.service.UserService;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Asynchronous receipt scanning. Uploads are stored as jobs and handed to the
+ * OCR worker pool; clients poll for the result. Jobs live in the database, so a
+ * restart only delays them, and a result is reused for any later upload of the
+ * same image instead of running OCR again.
+ */
+@Service
+public class ReceiptScanJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptScanJobService.class);
+
+    private final ReceiptScanJobRepository jobRepository;
+    private final ReceiptScannerService scannerService;
+    private final ReceiptParserService parserService;
+    private final ReceiptScanMetrics scanMetrics;
+    private final ReceiptProperties.Jobs properties;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReceiptScanJobService(
+            ReceiptScanJobRepository jobRepository,
+            ReceiptScannerService scannerService,
+            ReceiptParserService parserService,
+            ReceiptScanMetrics scanMetrics,
+            ReceiptProperties receiptProperties,
+            UserService userService,
+            PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.scannerService = scannerService;
+        this.parserService = parserService;
+        this.scanMetrics = scanMetrics;
+        this.properties = receiptProperties.getJobs();
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Dispatch also runs from afterCommit callbacks, where only a new transaction is safe
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public ReceiptScanJobResponse submit(byte[] imageBytes) {
+        UUID userId = SecurityUtils.getCurrentUserId(userService);
+        String imageHash = sha256(imageBytes);
+
+        ReceiptScanJob job = transactionTemplate.execute(status -> {
+            ReceiptScanJob created = new ReceiptScanJob();
+            created.setUserId(userId);
+            created.setImageHash(imageHash);
+            Optional<ReceiptScanJob> cached = findCompleted(imageHash);
+            if (cached.isPresent()) {
+                completeFrom(created, cached.get());
+            } else {
+                created.setImageData(imageBytes);
+                created.setStatus(ReceiptScanJobStatus.PENDING);
+            }
+            ReceiptScanJob saved = jobRepository.save(created);
+            if (saved.getStatus() == ReceiptScanJobStatus.PENDING) {
+                dispatchAfterCommit(saved.getId());
+            }
+            return saved;
+        });
+        return toResponse(job);
+    }
+
+    public ReceiptScanJobResponse get(UUID id) {
+        UUID userId = SecurityUtils.getCurrentUserId(userService);
+        return jobRepository.findByIdAndUserId(id, userId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ReceiptScanJobNotFoundException(id));
+    }
+
+    /**
+     * Picks up jobs that could not be handed to the OCR pool when they were
+     * submitted (pool full) or whose worker was lost.
+     */
+    @Scheduled(fixedDelayString = "${receipt.jobs.poll-interval:PT5S}")
+    public void dispatchPending() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        transactionTemplate.executeWithoutResult(status -> {
+            int released = jobRepository.releaseStale(ReceiptScanJobStatus.PROCESSING, ReceiptScanJobStatus.PENDING,
+                    now.minus(properties.getStaleAfter()), now);
+            if (released > 0) {
+                logger.warn("Requeued {} receipt scan jobs whose worker was lost", released);
+            }
+        });
+
+        List<UUID> pending = jobRepository.findIdsByStatus(
+                ReceiptScanJobStatus.PENDING, PageRequest.of(0, Math.max(1, properties.getBatchSize())));
+        for (UUID id : pending) {
+            if (!dispatch(id)) {
+                // Pool is full; the rest wait for the next run
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims a pending job and queues its scan. Returns {@code false} only when the
+     * OCR pool rejected it, in which case the job is pending again.
+     */
+    boolean dispatch(UUID id) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        byte[] image = transactionTemplate.execute(status -> {
+            if (jobRepository.claim(id, ReceiptScanJobStatus.PENDING, ReceiptScanJobStatus.PROCESSING, now) == 0) {
+                return null;
+            }
+            ReceiptScanJob job = jobRepository.findById(id).orElseThrow();
+            Optional<ReceiptScanJob> cached = findCompleted(job.getImageHash());
+            if (cached.isPresent()) {
+                // An identical image finished while this job was waiting
+                completeFrom(job, cached.get());
+                return null;
+            }
+            if (job.getAttempts() > properties.getMaxAttempts()) {
+                job.fail("Receipt scan did not finish after " + properties.getMaxAttempts() + " attempts");
+                return null;
+            }
+            return job.getImageData();
+        });
+        if (image == null) {
+            return true;
+        }
+
+        try {
+            scannerService.submit(image).whenComplete((text, error) -> finish(id, text, error));
+            return true;
+        } catch (OcrUnavailableException e) {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.release(
+                    id, ReceiptScanJobStatus.PROCESSING, ReceiptScanJobStatus.PENDING,
+                    OffsetDateTime.now(ZoneOffset.UTC)));
+            return false;
+        }
+    }
+
+    private void finish(UUID id, String text, Throwable error) {
+        ReceiptParsedData parsed = null;
+        String failure = null;
+        if (error != null) {
+            failure = describe(error instanceof CompletionException ? error.getCause() : error);
+            logger.warn("Receipt scan job {} failed: {}", id, failure);
+        } else {
+            try {
+                long start = System.nanoTime();
+                parsed = parserService.parse(text);
+                scanMetrics.record(ReceiptScanMetrics.PARSE, start);
+            } catch (RuntimeException e) {
+                logger.error("Parsing receipt scan job {} failed", id, e);
+                failure = describe(e);
+            }
+        }
+
+        ReceiptParsedData result = parsed;
+        String message = failure;
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(id).ifPresent(job -> {
+            if (result != null) {
+                job.complete(text, result.getAmount(), result.getMerchant(), result.getDate(), result.getCategory());
+            } else {
+                job.fail(message);
+            }
+        }));
+    }
+
+    private Optional<ReceiptScanJob> findCompleted(String imageHash) {
+        return jobRepository.findFirstByImageHashAndStatus(imageHash, ReceiptScanJobStatus.COMPLETED);
+    }
+
+    private static void completeFrom(ReceiptScanJob job, ReceiptScanJob cached) {
+        job.complete(cached.getOcrText(), cached.getAmount(), cached.getMerchant(),
+                cached.getTransactionDate(), cached.getCategory());
+    }
+
+    private void dispatchAfterCommit(UUID id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(id);
+            }
+        });
+    }
+
+    private static String describe(Throwable error) {
+        if (error instanceof TesseractException) {
+            return "Text could not be recognized in the image";
+        }
+        if (error instanceof IOException) {
+            return "Image could not be read: " + error.getMessage();
+        }
+        return "Receipt scan failed";
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash receipt image", e);
+        }
+    }
+
+    private ReceiptScanJobResponse toResponse(ReceiptScanJob job) {
+        return new ReceiptScanJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getAmount(),
+                job.getMerchant(),
+                job.getTransactionDate(),
+                job.getCategory(),
+                job.getOcrText(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getCompletedAt()
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package com.personalfin.server.receipt.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-stage timings for receipt scanning, published as
+ * {@code receipt.scan.stage{stage=decode|preprocess|ocr|parse}}, plus the heap
+ * each upload allocates while it is decoded, as {@code receipt.scan.allocated}.
+ */
+@Component
+public class ReceiptScanMetrics {
+
+    public static final String DECODE = "decode";
+    public static final String PREPROCESS = "preprocess";
+    public static final String OCR = "ocr";
+    public static final String PARSE = "parse";
+
+    private static final List<String> STAGES = List.of(DECODE, PREPROCESS, OCR, PARSE);
+
+    // Registered once per stage, so recording is a map lookup rather than a registry lookup
+    private final Map<String, Timer> timers = new HashMap<>();
+    private final Map<String, DistributionSummary> allocations = new HashMap<>();
+    private final com.sun.management.ThreadMXBean threads;
+
+    public ReceiptScanMetrics(MeterRegistry meterRegistry) {
+        for (String stage : STAGES) {
+            timers.put(stage, Timer.builder("receipt.scan.stage")
+                    .description("Time spent in each receipt scanning stage")
+                    .tag("stage", stage)
+                    .register(meterRegistry));
+            allocations.put(stage, DistributionSummary.builder("receipt.scan.allocated")
+                    .description("Heap allocated by the scanning thread in each receipt scanning stage")
+                    .baseUnit("bytes")
+                    .tag("stage", stage)
+                    .register(meterRegistry));
+        }
+        // Per-thread allocation counters are a HotSpot extension
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()
+                ? bean
+                : null;
+    }
+
+    public void record(String stage, long startNanos) {
+        meter(timers, stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 when the JVM does not
+     * track per-thread allocation.
+     */
+    public long allocatedBytes() {
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    public void recordAllocation(String stage, long startBytes) {
+        if (startBytes < 0) {
+            return;
+        }
+        meter(allocations, stage).record(allocatedBytes() - startBytes);
+    }
+
+    private static <M> M meter(Map<String, M> meters, String stage) {
+        M meter = meters.get(stage);
+        if (meter == null) {
+            throw new IllegalArgumentException("Unknown receipt scan stage: " + stage);
+        }
+        return meter;
+    }
+}
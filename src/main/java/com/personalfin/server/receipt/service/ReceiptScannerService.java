@@ -1,55 +1,317 @@
 package com.personalfin.server.receipt.service;
 
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import com.personalfin.server.receipt.exception.OcrUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Runs OCR on a fixed pool of worker threads. Tesseract instances are not
+ * thread-safe, so each worker owns one engine for its lifetime. When all workers
+ * are busy and the queue is full, scans are rejected instead of piling up on
+ * request threads.
+ */
 @Service
 public class ReceiptScannerService {
 
-    private final Tesseract tesseract;
+    private final ReceiptProperties.Ocr properties;
+    private final ReceiptProperties.Upload uploadProperties;
+    private final ReceiptImagePreprocessor preprocessor;
+    private final ReceiptScanMetrics metrics;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Tesseract> engines = ThreadLocal.withInitial(this::createTesseract);
 
-    public ReceiptScannerService() {
-        this.tesseract = new Tesseract();
-        // Set Tesseract data path - adjust based on your installation
-        // For production, this should be configurable
+    public ReceiptScannerService(
+            ReceiptProperties receiptProperties,
+            ReceiptImagePreprocessor preprocessor,
+            ReceiptScanMetrics metrics,
+            MeterRegistry meterRegistry) {
+        this.properties = receiptProperties.getOcr();
+        this.uploadProperties = receiptProperties.getUpload();
+        this.preprocessor = preprocessor;
+        this.metrics = metrics;
+
+        int poolSize = properties.getPoolSize() > 0
+                ? properties.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "receipt-ocr-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("receipt.ocr.queue", executor, e -> e.getQueue().size())
+                .description("Receipt scans waiting for an OCR worker")
+                .register(meterRegistry);
+        Gauge.builder("receipt.ocr.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("OCR workers currently scanning")
+                .register(meterRegistry);
+    }
+
+    public String extractText(byte[] imageBytes) throws TesseractException, IOException {
+        return await(submit(imageBytes));
+    }
+
+    /**
+     * Decodes the image straight from {@code imageStream} without buffering the
+     * encoded bytes, then runs OCR. Both happen on an OCR worker, so a full pool
+     * rejects the upload before any of it is read; the calling thread only waits.
+     * Uploads larger than {@code receipt.upload.max-bytes} are rejected.
+     */
+    public String extractText(InputStream imageStream) throws TesseractException, IOException {
+        UploadLimitInputStream limited = new UploadLimitInputStream(imageStream, uploadProperties.getMaxBytes());
         try {
-            tesseract.setDatapath(System.getProperty("user.dir") + "/tessdata");
-        } catch (Exception e) {
-            // Fallback to default or system path
+            return await(submitTask(() -> ocr(decode(limited))));
+        } finally {
+            // The caller closes the request stream once we return, even if a timed-out worker is still decoding
+            limited.detach();
         }
-        tesseract.setLanguage("eng");
     }
 
-    public String extractText(byte[] imageBytes) throws TesseractException, IOException {
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
-        return tesseract.doOCR(image);
+    /**
+     * Reads a whole upload into memory, for callers that need the encoded bytes
+     * (e.g. to store or hash them).
+     */
+    public byte[] readUpload(InputStream imageStream) throws IOException {
+        long maxBytes = uploadProperties.getMaxBytes();
+        byte[] bytes = imageStream.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBytes + 1));
+        if (bytes.length > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Queues a scan without waiting for it. The future completes on an OCR worker
+     * with the recognized text, or exceptionally with the {@link TesseractException}
+     * or {@link IOException} that stopped it.
+     *
+     * @throws OcrUnavailableException when every worker is busy and the queue is full
+     */
+    public CompletableFuture<String> submit(byte[] imageBytes) {
+        return submitTask(() -> ocr(decode(new ByteArrayInputStream(imageBytes))));
     }
 
     public String extractTextFromBase64(String base64Image) throws TesseractException, IOException {
+        return extractText(decodeBase64(base64Image));
+    }
+
+    public byte[] decodeBase64(String base64Image) {
         // Remove data URL prefix if present
         String base64Data = base64Image;
         if (base64Image.contains(",")) {
             base64Data = base64Image.substring(base64Image.indexOf(",") + 1);
         }
 
-        byte[] imageBytes = Base64.getDecoder().decode(base64Data);
-        return extractText(imageBytes);
+        return Base64.getDecoder().decode(base64Data);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<String> submitTask(OcrTask task) {
+        CompletableFuture<String> scan = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (scan.isCancelled()) {
+                    return;
+                }
+                try {
+                    scan.complete(task.run());
+                } catch (Throwable e) {
+                    scan.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new OcrUnavailableException("Receipt scanner is busy, please retry shortly", retryAfterSeconds());
+        }
+        return scan;
+    }
+
+    private String await(CompletableFuture<String> scan) throws TesseractException, IOException {
+        try {
+            return scan.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            scan.cancel(false);
+            throw new OcrUnavailableException("Receipt scan timed out, please retry shortly", retryAfterSeconds());
+        } catch (InterruptedException e) {
+            scan.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for receipt scan", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TesseractException tesseractException) {
+                throw tesseractException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Receipt scan failed", cause);
+        }
+    }
+
+    private BufferedImage decode(InputStream imageStream) throws IOException {
+        long start = System.nanoTime();
+        long startBytes = metrics.allocatedBytes();
+        BufferedImage image;
+        try {
+            // Memory cache: ImageIO's default may spool the stream to a temp file
+            image = ImageIO.read(new MemoryCacheImageInputStream(imageStream));
+        } catch (IOException e) {
+            if (imageStream instanceof UploadLimitInputStream limited && limited.isExceeded()) {
+                throw new MaxUploadSizeExceededException(uploadProperties.getMaxBytes());
+            }
+            throw e;
+        }
+        metrics.record(ReceiptScanMetrics.DECODE, start);
+        metrics.recordAllocation(ReceiptScanMetrics.DECODE, startBytes);
+        if (image == null) {
+            throw new IOException("Unsupported or corrupt image");
+        }
+        return image;
     }
-}
 
+    private String ocr(BufferedImage image) throws TesseractException {
+        if (!properties.getPreprocess().isEnabled()) {
+            long start = System.nanoTime();
+            String text = engines.get().doOCR(image);
+            metrics.record(ReceiptScanMetrics.OCR, start);
+            return text;
+        }
 
+        long start = System.nanoTime();
+        ReceiptImagePreprocessor.PreprocessedImage prepared = preprocessor.preprocess(image);
+        metrics.record(ReceiptScanMetrics.PREPROCESS, start);
 
+        start = System.nanoTime();
+        String text = engines.get().doOCR(
+                prepared.width(), prepared.height(), prepared.pixels(), prepared.region(), 8);
+        metrics.record(ReceiptScanMetrics.OCR, start);
+        return text;
+    }
 
+    // A full queue drains within roughly one scan timeout
+    private long retryAfterSeconds() {
+        return Math.max(1, properties.getTimeout().toSeconds());
+    }
 
+    private Tesseract createTesseract() {
+        Tesseract tesseract = new Tesseract();
+        tesseract.setDatapath(properties.getDatapath());
+        tesseract.setLanguage(properties.getLanguage());
+        // Raw buffers carry no resolution metadata
+        tesseract.setVariable("user_defined_dpi", String.valueOf(properties.getDpi()));
+        return tesseract;
+    }
+
+    @FunctionalInterface
+    private interface OcrTask {
+        String run() throws TesseractException, IOException;
+    }
 
+    /**
+     * Fails reads once more than {@code maxBytes} have been consumed, so an
+     * oversized upload is cut off while it streams instead of after buffering.
+     * Reads are synchronized with {@link #detach()}, which waits out a read in
+     * progress and fails every later one.
+     */
+    private static class UploadLimitInputStream extends FilterInputStream {
 
+        private final long maxBytes;
+        private long readBytes;
+        private volatile boolean exceeded;
+        private boolean detached;
 
+        UploadLimitInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
 
+        @Override
+        public synchronized int read() throws IOException {
+            ensureAttached();
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
 
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            ensureAttached();
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public synchronized long skip(long n) throws IOException {
+            ensureAttached();
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                count(skipped);
+            }
+            return skipped;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+
+        synchronized void detach() {
+            detached = true;
+        }
+
+        private void ensureAttached() throws IOException {
+            if (detached) {
+                throw new IOException("Upload stream is no longer available");
+            }
+        }
+
+        private void count(long n) throws IOException {
+            readBytes += n;
+            if (readBytes > maxBytes) {
+                exceeded = true;
+                throw new IOException("Upload exceeds " + maxBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.personalfin.server.receipt.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Pulls the amount, merchant and date out of OCR text in one scan over its
+ * lines, with no regular expressions and no exceptions for control flow.
+ *
+ * <ul>
+ *   <li>Amount: the largest number following {@code total}, {@code amount},
+ *       {@code amt}, {@code rs}, {@code inr} or {@code ₹} (case-insensitive, the
+ *       number may start on the next line). Without one, the largest standalone
+ *       number of three or more digits between 10 and 1,000,000.</li>
+ *   <li>Merchant: the first line starting with an upper-case run such as
+ *       {@code BIG BAZAAR & CO}, else the first short line without a long digit run.</li>
+ *   <li>Date: the first {@code d/m/y}-shaped token, read as {@code dd/MM/yyyy},
+ *       {@code dd/MM/yy} or {@code MM/dd/yyyy} ({@code -} works too) and accepted
+ *       only within the last five years; otherwise today.</li>
+ * </ul>
+ */
+final class ReceiptTextScanner {
+
+    private static final String[] AMOUNT_KEYWORDS = {"total", "amount", "amt", "rs", "inr", "₹"};
+    private static final BigDecimal MIN_UNLABELLED_AMOUNT = BigDecimal.TEN;
+    private static final BigDecimal MAX_UNLABELLED_AMOUNT = BigDecimal.valueOf(1_000_000);
+    private static final int MIN_UNLABELLED_DIGITS = 3;
+
+    private final String text;
+    private final LocalDate today;
+    private char[] digits = new char[16];
+
+    private BigDecimal labelledAmount = BigDecimal.ZERO;
+    private BigDecimal unlabelledAmount = BigDecimal.ZERO;
+    // Unlabelled numbers may take ".dd" after their digits; those digits are not a new number
+    private int unlabelledResume;
+    private String header;
+    private String firstShortLine;
+    private boolean dateTokenSeen;
+    private LocalDate date;
+
+    private ReceiptTextScanner(String text, LocalDate today) {
+        this.text = text;
+        this.today = today;
+    }
+
+    static ScannedReceipt scan(String text, LocalDate today) {
+        ReceiptTextScanner scanner = new ReceiptTextScanner(text, today);
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            scanner.scanLine(start, end);
+            start = end + 1;
+        }
+        return scanner.result();
+    }
+
+    private void scanLine(int start, int end) {
+        if (header == null) {
+            header = header(start, end);
+            if (header == null && firstShortLine == null) {
+                firstShortLine = shortLine(start, end);
+            }
+        }
+
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (isWordChar(i - 1)) {
+                    // Inside a word such as "A123"; not a number of its own
+                    i = digitsEnd(i);
+                    continue;
+                }
+                i = scanNumber(i);
+                continue;
+            }
+            int keywordEnd = keywordEnd(i);
+            if (keywordEnd > i) {
+                labelledAmount(keywordEnd);
+            }
+            // Keywords can overlap ("INRs"), so move on one character at a time
+            i++;
+        }
+    }
+
+    /** Handles a digit run that starts on a word boundary; returns where scanning resumes. */
+    private int scanNumber(int start) {
+        int end = digitsEnd(start);
+        if (!dateTokenSeen) {
+            dateToken(start, end);
+        }
+        if (start < unlabelledResume || end - start < MIN_UNLABELLED_DIGITS) {
+            return end;
+        }
+
+        int numberEnd = -1;
+        if (charAt(end) == '.' && isDigit(charAt(end + 1)) && isDigit(charAt(end + 2)) && !isWordChar(end + 3)) {
+            numberEnd = end + 3;
+        } else if (!isWordChar(end)) {
+            numberEnd = end;
+        }
+        if (numberEnd > 0) {
+            unlabelledResume = numberEnd;
+            BigDecimal amount = decimal(start, numberEnd);
+            if (amount.compareTo(MIN_UNLABELLED_AMOUNT) >= 0
+                    && amount.compareTo(MAX_UNLABELLED_AMOUNT) <= 0
+                    && amount.compareTo(unlabelledAmount) > 0) {
+                unlabelledAmount = amount;
+            }
+        }
+        return end;
+    }
+
+    /** Reads "[ws][:][ws]1,234.56" after an amount keyword, across line ends. */
+    private void labelledAmount(int from) {
+        int i = skipWhitespace(from);
+        if (charAt(i) == ':') {
+            i = skipWhitespace(i + 1);
+        }
+
+        int start = i;
+        boolean anyDigit = false;
+        char c;
+        while (isDigit(c = charAt(i)) || c == ',') {
+            anyDigit |= c != ',';
+            i++;
+        }
+        if (i == start) {
+            return;
+        }
+        if (charAt(i) == '.' && isDigit(charAt(i + 1)) && isDigit(charAt(i + 2))) {
+            // A run of separators alone still takes the decimals: ",.50" reads as 0.50
+            anyDigit = true;
+            i += 3;
+        }
+        if (!anyDigit) {
+            return;
+        }
+        BigDecimal amount = decimal(start, i);
+        if (amount.compareTo(labelledAmount) > 0) {
+            labelledAmount = amount;
+        }
+    }
+
+    private int keywordEnd(int i) {
+        for (String keyword : AMOUNT_KEYWORDS) {
+            if (startsWithIgnoreCase(i, keyword)) {
+                int end = i + keyword.length();
+                // "Rs." is as common as "Rs"
+                return keyword.equals("rs") && charAt(end) == '.' ? end + 1 : end;
+            }
+        }
+        return i;
+    }
+
+    /** ASCII-only case folding; {@code keyword} is lower case. */
+    private boolean startsWithIgnoreCase(int i, String keyword) {
+        for (int k = 0; k < keyword.length(); k++) {
+            char c = charAt(i + k);
+            if ((isUpper(c) ? (char) (c + ('a' - 'A')) : c) != keyword.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches day/month/year tokens; only the first one in the text counts. */
+    private void dateToken(int start, int firstEnd) {
+        int first = firstEnd - start;
+        char separator = charAt(firstEnd);
+        if (first > 2 || (separator != '/' && separator != '-')) {
+            return;
+        }
+        int secondEnd = digitsEnd(firstEnd + 1);
+        int second = secondEnd - firstEnd - 1;
+        char secondSeparator = charAt(secondEnd);
+        if (second < 1 || second > 2 || (secondSeparator != '/' && secondSeparator != '-')) {
+            return;
+        }
+        int yearEnd = digitsEnd(secondEnd + 1);
+        int yearDigits = yearEnd - secondEnd - 1;
+        if (yearDigits < 2 || yearDigits > 4 || isWordChar(yearEnd)) {
+            return;
+        }
+
+        dateTokenSeen = true;
+        // The accepted formats use two-digit day and month fields and one separator throughout
+        if (first != 2 || second != 2 || separator != secondSeparator || yearDigits == 3) {
+            return;
+        }
+        int a = number(start, firstEnd);
+        int b = number(firstEnd + 1, secondEnd);
+        int year = number(secondEnd + 1, yearEnd);
+        if (yearDigits == 2) {
+            date = recentDate(2000 + year, b, a);
+        } else {
+            date = recentDate(year, b, a);
+            if (date == null) {
+                date = recentDate(year, a, b);
+            }
+        }
+    }
+
+    private LocalDate recentDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        // Like DateTimeFormatter's smart resolver: 31/04 reads as the 30th
+        int lastDay = month == 2 ? Month.FEBRUARY.length(Year.isLeap(year)) : Month.of(month).maxLength();
+        LocalDate candidate = LocalDate.of(year, month, Math.min(day, lastDay));
+        return candidate.isAfter(today.minusYears(5)) && !candidate.isAfter(today) ? candidate : null;
+    }
+
+    /** An upper-case run at the start of the line, e.g. "STAR BAZAAR & CO". */
+    private String header(int start, int end) {
+        if (start >= end || !isUpper(text.charAt(start))) {
+            return null;
+        }
+        int i = start + 1;
+        char c;
+        while (i < end && (isUpper(c = text.charAt(i)) || c == '&' || c == ' ' || c == '\t' || c == '\r'
+                || c == '\f' || c == '\u000B')) {
+            i++;
+        }
+        return i > start + 1 ? text.substring(start, i).trim() : null;
+    }
+
+    private String shortLine(int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length <= 3 || length >= 50) {
+            return null;
+        }
+        int run = 0;
+        for (int i = start; i < end; i++) {
+            run = isDigit(text.charAt(i)) ? run + 1 : 0;
+            if (run >= 4) {
+                return null;
+            }
+        }
+        return text.substring(start, end);
+    }
+
+    private ScannedReceipt result() {
+        BigDecimal amount = labelledAmount.signum() > 0 ? labelledAmount : unlabelledAmount;
+        return new ScannedReceipt(
+                amount.setScale(2, RoundingMode.HALF_UP),
+                header != null ? header : firstShortLine,
+                date != null ? date : today);
+    }
+
+    private int skipWhitespace(int i) {
+        char c;
+        while ((c = charAt(i)) == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B') {
+            i++;
+        }
+        return i;
+    }
+
+    private int digitsEnd(int i) {
+        while (isDigit(charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Parses the digits (and an optional ".dd") in the range, ignoring thousands separators. */
+    private BigDecimal decimal(int start, int end) {
+        if (digits.length < end - start) {
+            digits = Arrays.copyOf(digits, end - start);
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != ',') {
+                digits[length++] = c;
+            }
+        }
+        return new BigDecimal(digits, 0, length);
+    }
+
+    private int number(int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /** The character at {@code i}, or {@code 0} outside the text. */
+    private char charAt(int i) {
+        return i >= 0 && i < text.length() ? text.charAt(i) : 0;
+    }
+
+    private boolean isWordChar(int i) {
+        char c = charAt(i);
+        return c == '_' || (c != 0 && Character.isLetterOrDigit(c));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    record ScannedReceipt(BigDecimal amount, String merchant, LocalDate date) {
+    }
+}
@@ -3,100 +3,183 @@ package com.personalfin.server.receipt.web;
 import com.personalfin.server.expense.dto.ExpenseCreateRequest;
 import com.personalfin.server.expense.service.ExpenseService;
 import com.personalfin.server.expense.dto.ExpenseResponse;
+import com.personalfin.server.receipt.dto.ReceiptScanJobResponse;
 import com.personalfin.server.receipt.dto.ReceiptScanRequest;
 import com.personalfin.server.receipt.dto.ReceiptScanResponse;
+import com.personalfin.server.receipt.exception.ReceiptScanFailedException;
 import com.personalfin.server.receipt.service.ReceiptParserService;
+import com.personalfin.server.receipt.service.ReceiptScanJobService;
+import com.personalfin.server.receipt.service.ReceiptScanMetrics;
 import com.personalfin.server.receipt.service.ReceiptScannerService;
 import com.personalfin.server.receipt.service.ReceiptParserService.ReceiptParsedData;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import net.sourceforge.tess4j.TesseractException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/receipts")
 public class ReceiptController {
 
+    private static final String IMAGE_PART = "image";
+
     private final ReceiptScannerService scannerService;
     private final ReceiptParserService parserService;
     private final ExpenseService expenseService;
+    private final ReceiptScanMetrics scanMetrics;
+    private final ReceiptScanJobService jobService;
 
     public ReceiptController(
             ReceiptScannerService scannerService,
             ReceiptParserService parserService,
-            ExpenseService expenseService) {
+            ExpenseService expenseService,
+            ReceiptScanMetrics scanMetrics,
+            ReceiptScanJobService jobService) {
         this.scannerService = scannerService;
         this.parserService = parserService;
         this.expenseService = expenseService;
+        this.scanMetrics = scanMetrics;
+        this.jobService = jobService;
     }
 
-    @PostMapping("/scan")
+    @PostMapping(value = "/scan", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ReceiptScanResponse> scanReceipt(
             @Valid @RequestBody ReceiptScanRequest request) {
         try {
-            String ocrText = scannerService.extractTextFromBase64(request.imageData());
-            ReceiptParsedData parsedData = parserService.parse(ocrText);
-
-            ExpenseCreateRequest expenseRequest = new ExpenseCreateRequest(
-                    "Receipt from " + (parsedData.getMerchant() != null ? parsedData.getMerchant() : "Unknown"),
-                    parsedData.getMerchant(),
-                    parsedData.getAmount(),
-                    parsedData.getDate(),
-                    parsedData.getCategory(),
-                    null
-            );
-
-            ReceiptScanResponse response = new ReceiptScanResponse(
-                    parsedData.getAmount(),
-                    parsedData.getMerchant(),
-                    parsedData.getDate(),
-                    parsedData.getCategory(),
-                    ocrText,
-                    expenseRequest
-            );
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toScanResponse(scannerService.extractTextFromBase64(request.imageData())));
+        } catch (TesseractException | IOException e) {
+            throw new ReceiptScanFailedException("The receipt image could not be scanned", e);
+        }
+    }
+
+    /**
+     * Same as {@link #scanReceipt} for a binary upload: either a multipart form with
+     * an {@code image} part or the raw image as the request body. The image is
+     * decoded while it streams in instead of being buffered as base64 first.
+     */
+    @PostMapping(value = "/scan", consumes = {
+            MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ReceiptScanResponse> scanReceiptUpload(HttpServletRequest request) {
+        try (InputStream image = openUpload(request)) {
+            return ResponseEntity.ok(toScanResponse(scannerService.extractText(image)));
         } catch (TesseractException | IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            throw new ReceiptScanFailedException("The receipt image could not be scanned", e);
         }
     }
 
-    @PostMapping("/scan-and-create")
+    @PostMapping(value = "/scan-and-create", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ExpenseResponse> scanAndCreateExpense(
             @Valid @RequestBody ReceiptScanRequest request) {
         try {
-            String ocrText = scannerService.extractTextFromBase64(request.imageData());
-            ReceiptParsedData parsedData = parserService.parse(ocrText);
-
-            ExpenseCreateRequest expenseRequest = new ExpenseCreateRequest(
-                    "Receipt from " + (parsedData.getMerchant() != null ? parsedData.getMerchant() : "Unknown"),
-                    parsedData.getMerchant(),
-                    parsedData.getAmount(),
-                    parsedData.getDate(),
-                    parsedData.getCategory(),
-                    null
-            );
-
-            ExpenseResponse expense = expenseService.createExpense(expenseRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(expense);
+            return createExpense(scannerService.extractTextFromBase64(request.imageData()));
         } catch (TesseractException | IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            throw new ReceiptScanFailedException("The receipt image could not be scanned", e);
         }
     }
-}
 
+    @PostMapping(value = "/scan-and-create", consumes = {
+            MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ExpenseResponse> scanAndCreateExpenseUpload(HttpServletRequest request) {
+        try (InputStream image = openUpload(request)) {
+            return createExpense(scannerService.extractText(image));
+        } catch (TesseractException | IOException e) {
+            throw new ReceiptScanFailedException("The receipt image could not be scanned", e);
+        }
+    }
 
+    /**
+     * Queues a scan and returns immediately; poll the job for the result.
+     */
+    @PostMapping(value = "/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReceiptScanJobResponse> submitScanJob(
+            @Valid @RequestBody ReceiptScanRequest request) {
+        return accepted(jobService.submit(scannerService.decodeBase64(request.imageData())));
+    }
 
+    @PostMapping(value = "/jobs", consumes = {
+            MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ReceiptScanJobResponse> submitScanJobUpload(HttpServletRequest request)
+            throws IOException {
+        try (InputStream image = openUpload(request)) {
+            // Jobs keep the encoded image until a worker picks them up, so read it whole
+            return accepted(jobService.submit(scannerService.readUpload(image)));
+        }
+    }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReceiptScanJobResponse> getScanJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(jobService.get(id));
+    }
 
+    private ReceiptScanResponse toScanResponse(String ocrText) {
+        ReceiptParsedData parsedData = parse(ocrText);
+        return new ReceiptScanResponse(
+                parsedData.getAmount(),
+                parsedData.getMerchant(),
+                parsedData.getDate(),
+                parsedData.getCategory(),
+                ocrText,
+                toExpenseRequest(parsedData)
+        );
+    }
 
+    private ResponseEntity<ExpenseResponse> createExpense(String ocrText) {
+        ExpenseResponse expense = expenseService.createExpense(toExpenseRequest(parse(ocrText)));
+        return ResponseEntity.status(HttpStatus.CREATED).body(expense);
+    }
 
+    private static ExpenseCreateRequest toExpenseRequest(ReceiptParsedData parsedData) {
+        return new ExpenseCreateRequest(
+                "Receipt from " + (parsedData.getMerchant() != null ? parsedData.getMerchant() : "Unknown"),
+                parsedData.getMerchant(),
+                parsedData.getAmount(),
+                parsedData.getDate(),
+                parsedData.getCategory(),
+                null
+        );
+    }
 
+    private static ResponseEntity<ReceiptScanJobResponse> accepted(ReceiptScanJobResponse job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/receipts/jobs/" + job.id()))
+                .body(job);
+    }
 
+    private static InputStream openUpload(HttpServletRequest request) throws IOException {
+        MultipartHttpServletRequest multipart = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        if (multipart == null) {
+            return request.getInputStream();
+        }
+        MultipartFile image = multipart.getFile(IMAGE_PART);
+        if (image == null || image.isEmpty()) {
+            throw new IllegalArgumentException("Multipart upload must include an '" + IMAGE_PART + "' file part");
+        }
+        return image.getInputStream();
+    }
 
+    private ReceiptParsedData parse(String ocrText) {
+        long start = System.nanoTime();
+        ReceiptParsedData parsedData = parserService.parse(ocrText);
+        scanMetrics.record(ReceiptScanMetrics.PARSE, start);
+        return parsedData;
+    }
+}
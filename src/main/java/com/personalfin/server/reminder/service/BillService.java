@@ -92,7 +92,11 @@ public class BillService {
         return billRepository.findByActiveTrueAndNextDueDateBetween(start, end);
     }
 
-    private void mapRequestToEntity(BillRequest request, Bill bill) {
+    /**
+     * Copies the request onto a bill without persisting it, applying the
+     * configured reminder default. Shared with bulk callers such as sync push.
+     */
+    public void mapRequestToEntity(BillRequest request, Bill bill) {
         bill.setName(request.name());
         bill.setCategory(request.category());
         bill.setAmount(request.amount());
@@ -0,0 +1,62 @@
+package com.personalfin.server.security.config;
+
+/**
+ * Settings shared by the buffered security log writers; each log binds its
+ * own copy under its own prefix.
+ */
+public class BatchWriterProperties {
+
+    public enum OverflowPolicy {
+        /** Discard the event and count it; the request never waits. */
+        DROP,
+        /** Wait up to {@code blockTimeoutMillis} for the writer to make room, then drop. */
+        BLOCK
+    }
+
+    // Rounded up to a power of two
+    private int bufferCapacity = 8192;
+    private int batchSize = 500;
+    private long flushIntervalMillis = 200;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private long blockTimeoutMillis = 50;
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public long getBlockTimeoutMillis() {
+        return blockTimeoutMillis;
+    }
+
+    public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+}
@@ -0,0 +1,7 @@
+package com.personalfin.server.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "security.login-attempts")
+public class LoginAttemptLogProperties extends BatchWriterProperties {
+}
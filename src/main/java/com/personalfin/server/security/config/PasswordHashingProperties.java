@@ -0,0 +1,49 @@
+package com.personalfin.server.security.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+
+    // BCrypt log rounds; stored hashes with a different cost are rehashed on login
+    private int strength = 10;
+    // Hashing threads; 0 means one per core
+    private int poolSize = 0;
+    // Hash operations waiting for a thread before new ones are rejected with 503
+    private int queueCapacity = 64;
+    // How long a request waits for its hash before giving up
+    private Duration timeout = Duration.ofSeconds(5);
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,37 @@
+package com.personalfin.server.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "security.log-retention")
+public class SecurityLogRetentionProperties {
+
+    // Whole monthly partitions are dropped once they end this many months before the current one
+    private int auditLogMonths = 12;
+    private int loginAttemptMonths = 3;
+    // Partitions are created this far ahead so inserts never land in the default partition
+    private int monthsAhead = 2;
+
+    public int getAuditLogMonths() {
+        return auditLogMonths;
+    }
+
+    public void setAuditLogMonths(int auditLogMonths) {
+        this.auditLogMonths = auditLogMonths;
+    }
+
+    public int getLoginAttemptMonths() {
+        return loginAttemptMonths;
+    }
+
+    public void setLoginAttemptMonths(int loginAttemptMonths) {
+        this.loginAttemptMonths = loginAttemptMonths;
+    }
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+}
@@ -1,8 +1,12 @@
 package com.personalfin.server.security.exception;
 
 import com.personalfin.server.expense.exception.ExpenseNotFoundException;
+import com.personalfin.server.receipt.exception.OcrUnavailableException;
+import com.personalfin.server.receipt.exception.ReceiptScanFailedException;
+import com.personalfin.server.receipt.exception.ReceiptScanJobNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -126,6 +130,59 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(ReceiptScanJobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleReceiptScanJobNotFoundException(ReceiptScanJobNotFoundException ex) {
+        logger.warn("Receipt scan job not found: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Receipt scan job not found");
+        response.put("message", ex.getMessage());
+        response.put("timestamp", OffsetDateTime.now());
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(ReceiptScanFailedException.class)
+    public ResponseEntity<Map<String, Object>> handleReceiptScanFailedException(ReceiptScanFailedException ex) {
+        logger.warn("Receipt scan failed: {}", ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Receipt scan failed");
+        response.put("message", ex.getMessage());
+        response.put("timestamp", OffsetDateTime.now());
+        
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    @ExceptionHandler(OcrUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleOcrUnavailableException(OcrUnavailableException ex) {
+        logger.warn("Receipt scanning unavailable: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Service busy");
+        response.put("message", ex.getMessage());
+        response.put("timestamp", OffsetDateTime.now());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingUnavailableException(
+            PasswordHashingUnavailableException ex) {
+        logger.warn("Password hashing unavailable: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Service busy");
+        response.put("message", ex.getMessage());
+        response.put("timestamp", OffsetDateTime.now());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         logger.error("Unexpected error: ", ex);
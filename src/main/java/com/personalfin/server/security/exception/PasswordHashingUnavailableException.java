@@ -0,0 +1,19 @@
+package com.personalfin.server.security.exception;
+
+/**
+ * Thrown when a password cannot be hashed or checked right now because every
+ * hashing thread is busy and the queue is full, or the hash did not finish in time.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
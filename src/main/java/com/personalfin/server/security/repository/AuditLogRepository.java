@@ -1,6 +1,8 @@
 package com.personalfin.server.security.repository;
 
 import com.personalfin.server.security.model.AuditLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,7 +27,25 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
     @Query("SELECT al FROM AuditLog al WHERE al.userId = :userId AND al.eventType = :eventType " +
            "ORDER BY al.createdAt DESC")
     List<AuditLog> findByUserIdAndEventType(@Param("userId") UUID userId, @Param("eventType") String eventType);
-}
 
+    // Paged and time-bounded: the created_at bound lets PostgreSQL prune monthly partitions,
+    // and a Slice skips the count query over all of them
+
+    @Query("SELECT al FROM AuditLog al WHERE al.userId = :userId AND al.createdAt >= :since " +
+           "ORDER BY al.createdAt DESC")
+    Slice<AuditLog> findByUserIdSince(@Param("userId") UUID userId, @Param("since") OffsetDateTime since,
+                                      Pageable pageable);
+
+    @Query("SELECT al FROM AuditLog al WHERE al.eventType = :eventType AND al.createdAt >= :since " +
+           "ORDER BY al.createdAt DESC")
+    Slice<AuditLog> findByEventTypeSince(@Param("eventType") String eventType, @Param("since") OffsetDateTime since,
+                                         Pageable pageable);
 
+    @Query("SELECT al FROM AuditLog al WHERE al.createdAt >= :since ORDER BY al.createdAt DESC")
+    Slice<AuditLog> findSince(@Param("since") OffsetDateTime since, Pageable pageable);
 
+    @Query("SELECT al FROM AuditLog al WHERE al.userId = :userId AND al.eventType = :eventType " +
+           "AND al.createdAt >= :since ORDER BY al.createdAt DESC")
+    Slice<AuditLog> findByUserIdAndEventTypeSince(@Param("userId") UUID userId, @Param("eventType") String eventType,
+                                                  @Param("since") OffsetDateTime since, Pageable pageable);
+}
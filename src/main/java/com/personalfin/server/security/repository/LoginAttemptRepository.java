@@ -1,6 +1,8 @@
 package com.personalfin.server.security.repository;
 
 import com.personalfin.server.security.model.LoginAttempt;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,7 +31,14 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, java
     @Query("SELECT la FROM LoginAttempt la WHERE la.ipAddress = :ipAddress " +
            "ORDER BY la.createdAt DESC")
     List<LoginAttempt> findRecentAttemptsByIp(@Param("ipAddress") String ipAddress);
-}
-
 
+    @Query("SELECT la FROM LoginAttempt la WHERE la.username = :username AND la.createdAt >= :since " +
+           "ORDER BY la.createdAt DESC")
+    Slice<LoginAttempt> findRecentAttemptsByUsername(@Param("username") String username,
+                                                     @Param("since") OffsetDateTime since, Pageable pageable);
 
+    @Query("SELECT la FROM LoginAttempt la WHERE la.ipAddress = :ipAddress AND la.createdAt >= :since " +
+           "ORDER BY la.createdAt DESC")
+    Slice<LoginAttempt> findRecentAttemptsByIp(@Param("ipAddress") String ipAddress,
+                                               @Param("since") OffsetDateTime since, Pageable pageable);
+}
@@ -1,66 +1,103 @@
 package com.personalfin.server.security.service;
 
-import com.personalfin.server.security.model.LoginAttempt;
-import com.personalfin.server.security.repository.LoginAttemptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 
+/**
+ * Lockout decisions come from in-memory sliding-window counters per username
+ * and per IP, so a login costs no database round-trip however large
+ * {@code login_attempts} gets. Attempts are still written there, in the
+ * background by {@link LoginAttemptWriter}, and the counters are rebuilt from
+ * the last window of failures at startup. Counters are per instance.
+ */
 @Service
 public class AccountLockoutService {
 
-    private final LoginAttemptRepository loginAttemptRepository;
-
-    @Value("${security.account-lockout.max-attempts:5}")
-    private int maxAttempts;
-
-    @Value("${security.account-lockout.lockout-duration-minutes:30}")
-    private int lockoutDurationMinutes;
-
-    @Value("${security.account-lockout.window-minutes:15}")
-    private int windowMinutes;
+    private static final Logger log = LoggerFactory.getLogger(AccountLockoutService.class);
+
+    private static final String SELECT_RECENT_FAILURES = """
+            SELECT username, ip_address, created_at
+            FROM login_attempts
+            WHERE successful = false AND created_at >= ?
+            """;
+
+    private final LoginAttemptWriter loginAttemptWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int maxAttempts;
+    private final int lockoutDurationMinutes;
+    private final int windowMinutes;
+    private final FailureWindowCounters usernameFailures;
+    private final FailureWindowCounters ipFailures;
+
+    public AccountLockoutService(
+            LoginAttemptWriter loginAttemptWriter,
+            JdbcTemplate jdbcTemplate,
+            Clock clock,
+            @Value("${security.account-lockout.max-attempts:5}") int maxAttempts,
+            @Value("${security.account-lockout.lockout-duration-minutes:30}") int lockoutDurationMinutes,
+            @Value("${security.account-lockout.window-minutes:15}") int windowMinutes,
+            @Value("${security.account-lockout.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.loginAttemptWriter = loginAttemptWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.maxAttempts = maxAttempts;
+        this.lockoutDurationMinutes = lockoutDurationMinutes;
+        this.windowMinutes = windowMinutes;
+        Duration window = Duration.ofMinutes(windowMinutes);
+        this.usernameFailures = new FailureWindowCounters(maxAttempts, window, maxTrackedKeys);
+        // IP blocking threshold is higher
+        this.ipFailures = new FailureWindowCounters(maxAttempts * 2, window, maxTrackedKeys);
+    }
 
-    public AccountLockoutService(LoginAttemptRepository loginAttemptRepository) {
-        this.loginAttemptRepository = loginAttemptRepository;
+    /** Rebuilds the counters from failures still inside the window. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        OffsetDateTime windowStart = OffsetDateTime.now(clock).minusMinutes(windowMinutes);
+        try {
+            jdbcTemplate.query(SELECT_RECENT_FAILURES, resultSet -> {
+                long at = resultSet.getTimestamp("created_at").getTime();
+                usernameFailures.record(resultSet.getString("username"), at);
+                ipFailures.record(resultSet.getString("ip_address"), at);
+            }, Timestamp.from(windowStart.toInstant()));
+        } catch (DataAccessException e) {
+            log.warn("Could not load recent login failures; lockout counters start empty", e);
+        }
     }
 
-    @Transactional
     public void recordFailedAttempt(String username, String ipAddress, String failureReason) {
-        LoginAttempt attempt = new LoginAttempt();
-        attempt.setUsername(username);
-        attempt.setIpAddress(ipAddress);
-        attempt.setSuccessful(false);
-        attempt.setFailureReason(failureReason);
-        loginAttemptRepository.save(attempt);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        long at = now.toInstant().toEpochMilli();
+        usernameFailures.record(username, at);
+        ipFailures.record(ipAddress, at);
+        loginAttemptWriter.enqueue(username, ipAddress, false, failureReason, now);
     }
 
-    @Transactional
     public void recordSuccessfulAttempt(String username, String ipAddress) {
-        LoginAttempt attempt = new LoginAttempt();
-        attempt.setUsername(username);
-        attempt.setIpAddress(ipAddress);
-        attempt.setSuccessful(true);
-        loginAttemptRepository.save(attempt);
+        loginAttemptWriter.enqueue(username, ipAddress, true, null, OffsetDateTime.now(clock));
     }
 
     public boolean isAccountLocked(String username) {
-        OffsetDateTime windowStart = OffsetDateTime.now().minusMinutes(windowMinutes);
-        long failedAttempts = loginAttemptRepository.countFailedAttemptsSince(username, windowStart);
-        return failedAttempts >= maxAttempts;
+        return usernameFailures.isOverLimit(username, clock.millis());
     }
 
     public boolean isIpBlocked(String ipAddress) {
-        OffsetDateTime windowStart = OffsetDateTime.now().minusMinutes(windowMinutes);
-        long failedAttempts = loginAttemptRepository.countFailedAttemptsByIpSince(ipAddress, windowStart);
-        return failedAttempts >= maxAttempts * 2; // IP blocking threshold is higher
+        return ipFailures.isOverLimit(ipAddress, clock.millis());
     }
 
     public long getRemainingAttempts(String username) {
-        OffsetDateTime windowStart = OffsetDateTime.now().minusMinutes(windowMinutes);
-        long failedAttempts = loginAttemptRepository.countFailedAttemptsSince(username, windowStart);
-        return Math.max(0, maxAttempts - failedAttempts);
+        return Math.max(0, maxAttempts - usernameFailures.count(username, clock.millis()));
     }
 
     public int getMaxAttempts() {
@@ -71,6 +108,3 @@ public class AccountLockoutService {
         return lockoutDurationMinutes;
     }
 }
-
-
-
@@ -1,55 +1,48 @@
 package com.personalfin.server.security.service;
 
-import com.personalfin.server.security.model.AuditLog;
-import com.personalfin.server.security.repository.AuditLogRepository;
+import com.personalfin.server.security.service.AuditLogWriter.AuditEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/**
+ * Records security events. Events are handed to {@link AuditLogWriter} and
+ * written in batches in the background, so callers never wait on an INSERT.
+ */
 @Service
 public class AuditLogService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final Clock clock;
 
-    public AuditLogService(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditLogService(AuditLogWriter auditLogWriter, Clock clock) {
+        this.auditLogWriter = auditLogWriter;
+        this.clock = clock;
     }
 
-    @Transactional
     public void logSecurityEvent(String eventType, String userId, String username, String ipAddress, 
                                  String details, boolean success) {
-        AuditLog auditLog = new AuditLog();
-        auditLog.setEventType(eventType);
-        auditLog.setUserId(userId != null ? UUID.fromString(userId) : null);
-        auditLog.setUsername(username);
-        auditLog.setIpAddress(ipAddress);
-        auditLog.setDetails(details);
-        auditLog.setSuccess(success);
-        auditLog.setCreatedAt(OffsetDateTime.now());
-        auditLogRepository.save(auditLog);
+        auditLogWriter.enqueue(new AuditEvent(eventType, userId != null ? UUID.fromString(userId) : null,
+                username, ipAddress, details, success, OffsetDateTime.now(clock)));
     }
 
-    @Transactional
     public void logAuthentication(String username, String ipAddress, boolean success, String reason) {
         logSecurityEvent("AUTHENTICATION", null, username, ipAddress, 
                         success ? "Login successful" : "Login failed: " + reason, success);
     }
 
-    @Transactional
     public void logRegistration(String username, String ipAddress, boolean success, String reason) {
         logSecurityEvent("REGISTRATION", null, username, ipAddress,
                         success ? "Registration successful" : "Registration failed: " + reason, success);
     }
 
-    @Transactional
     public void logSensitiveOperation(String eventType, UUID userId, String username, String ipAddress, 
                                       String details) {
         logSecurityEvent(eventType, userId.toString(), username, ipAddress, details, true);
     }
 
-    @Transactional
     public void logDataAccess(String eventType, UUID userId, String username, String ipAddress, 
                              String resourceType, String resourceId) {
         logSecurityEvent(eventType, userId.toString(), username, ipAddress,
@@ -0,0 +1,60 @@
+package com.personalfin.server.security.service;
+
+import static com.personalfin.server.security.service.BatchLogWriter.truncate;
+
+import com.personalfin.server.security.config.AuditLogProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes audit events to {@code audit_logs} off the request thread through a
+ * {@link BatchLogWriter} configured by {@code security.audit.*}. Metrics are
+ * published as {@code security.audit.written|dropped|blocked|buffered}.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final String INSERT_EVENT = """
+            INSERT INTO audit_logs (id, event_type, user_id, username, ip_address, details, success, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final BatchLogWriter<AuditEvent> writer;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, AuditLogProperties properties) {
+        this.writer = new BatchLogWriter<>("audit_logs", "audit-log-writer", "security.audit", jdbcTemplate,
+                INSERT_EVENT, (statement, event) -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, truncate(event.eventType(), 50));
+                    statement.setObject(3, event.userId());
+                    statement.setString(4, truncate(event.username(), 100));
+                    statement.setString(5, truncate(event.ipAddress(), 45));
+                    statement.setString(6, event.details());
+                    statement.setBoolean(7, event.success());
+                    statement.setObject(8, event.createdAt());
+                }, properties, meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public void enqueue(AuditEvent event) {
+        writer.enqueue(event);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        writer.stop();
+    }
+
+    public record AuditEvent(String eventType, UUID userId, String username, String ipAddress, String details,
+                             boolean success, OffsetDateTime createdAt) {
+    }
+}
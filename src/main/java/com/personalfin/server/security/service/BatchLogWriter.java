@@ -0,0 +1,179 @@
+package com.personalfin.server.security.service;
+
+import com.personalfin.server.security.config.BatchWriterProperties;
+import com.personalfin.server.security.config.BatchWriterProperties.OverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes rows of one security log table off the request thread. Rows go into a
+ * {@link BoundedRingBuffer}; one writer thread flushes them with a JDBC batch
+ * insert once {@code batchSize} are waiting or {@code flushIntervalMillis} has
+ * passed. A full buffer either drops the row or, under the BLOCK policy, waits
+ * briefly for room before dropping; both are counted as
+ * {@code <metricPrefix>.dropped} and {@code <metricPrefix>.blocked}.
+ *
+ * <p>{@link #stop()} closes the buffer before the final drain, so every row it
+ * accepted is written and rows arriving after that are written inline.
+ */
+final class BatchLogWriter<E> {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchLogWriter.class);
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final String table;
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+    private final RowBinder<E> binder;
+    private final BoundedRingBuffer<E> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter blocked;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    BatchLogWriter(String table, String threadName, String metricPrefix, JdbcTemplate jdbcTemplate,
+                   String insertSql, RowBinder<E> binder, BatchWriterProperties properties,
+                   MeterRegistry meterRegistry) {
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertSql = insertSql;
+        this.binder = binder;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.buffer = new BoundedRingBuffer<>(Math.max(batchSize, properties.getBufferCapacity()));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushIntervalMillis()));
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getBlockTimeoutMillis());
+        this.written = Counter.builder(metricPrefix + ".written")
+                .description("Rows written to " + table)
+                .register(meterRegistry);
+        this.dropped = Counter.builder(metricPrefix + ".dropped")
+                .description("Rows for " + table + " lost because the buffer was full or the batch insert failed")
+                .register(meterRegistry);
+        this.blocked = Counter.builder(metricPrefix + ".blocked")
+                .description("Rows for " + table + " whose caller waited for buffer space")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".buffered", buffer, BoundedRingBuffer::size)
+                .description("Rows waiting to be written to " + table)
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, threadName);
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    void enqueue(E row) {
+        if (buffer.offer(row)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        if (!buffer.isClosed() && overflowPolicy == OverflowPolicy.BLOCK && offerWithin(row, blockTimeoutNanos)) {
+            return;
+        }
+        if (buffer.isClosed()) {
+            write(List.of(row));
+            return;
+        }
+        dropped.increment();
+    }
+
+    private boolean offerWithin(E row, long timeoutNanos) {
+        blocked.increment();
+        long deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(row)) {
+                return true;
+            }
+        } while (!buffer.isClosed() && System.nanoTime() < deadline);
+        return false;
+    }
+
+    void stop() throws InterruptedException {
+        // Producers that lose the race with close() write inline instead
+        buffer.close();
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Writer is gone (or stuck); this thread is now the only consumer
+        List<E> rest = new ArrayList<>(batchSize);
+        while (buffer.drainClosed(rest, batchSize) > 0) {
+            write(rest);
+            rest.clear();
+        }
+    }
+
+    private void run() {
+        List<E> batch = new ArrayList<>(batchSize);
+        long batchStarted = 0;
+        while (running) {
+            if (batch.isEmpty()) {
+                batchStarted = System.nanoTime();
+            }
+            buffer.drainTo(batch, batchSize - batch.size());
+            long waited = System.nanoTime() - batchStarted;
+            if (batch.size() >= batchSize || (!batch.isEmpty() && waited >= flushIntervalNanos)) {
+                write(batch);
+                batch.clear();
+            } else {
+                // Woken early by a producer once a full batch is waiting
+                LockSupport.parkNanos(this, flushIntervalNanos - Math.min(waited, flushIntervalNanos));
+            }
+        }
+        // stop() drains whatever is still buffered
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<E> batch) {
+        try {
+            jdbcTemplate.batchUpdate(insertSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    binder.bind(statement, batch.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            dropped.increment(batch.size());
+            log.warn("Failed to write {} rows to {}", batch.size(), table, e);
+        }
+    }
+
+    static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    @FunctionalInterface
+    interface RowBinder<E> {
+        void bind(PreparedStatement statement, E row) throws SQLException;
+    }
+}
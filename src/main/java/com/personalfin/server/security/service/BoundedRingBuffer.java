@@ -0,0 +1,125 @@
+package com.personalfin.server.security.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer. Producers claim a slot
+ * with one CAS on the tail and publish it through the slot's sequence number,
+ * so request threads never take a lock; a full buffer rejects the offer
+ * instead of waiting. Only one thread may call {@link #poll()} or
+ * {@link #drainTo(List, int)}.
+ *
+ * <p>{@link #close()} marks the tail so every later offer fails; after that the
+ * consumer can drain exactly the elements that were accepted, including ones a
+ * producer has claimed but not yet published.
+ */
+final class BoundedRingBuffer<E> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private static final long CLOSED = 1L << 62;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    BoundedRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /** Approximate; exact only when producers and the consumer are idle. */
+    int size() {
+        return (int) Math.max(0, (tail.get() & ~CLOSED) - head);
+    }
+
+    boolean isClosed() {
+        return (tail.get() & CLOSED) != 0;
+    }
+
+    /** Makes every later {@link #offer} fail; offers that already claimed a slot still complete. */
+    void close() {
+        long position;
+        do {
+            position = tail.get();
+        } while ((position & CLOSED) == 0 && !tail.compareAndSet(position, position | CLOSED));
+    }
+
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            if ((position & CLOSED) != 0) {
+                return false;
+            }
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                // The consumer has not freed this slot yet: full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.set(index, position + slots.length);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Drains up to {@code max} elements of a closed buffer, waiting for slots a
+     * producer claimed before {@link #close()} but has not published yet.
+     */
+    int drainClosed(List<? super E> target, int max) {
+        long end = tail.get() & ~CLOSED;
+        int drained = 0;
+        while (drained < max && head < end) {
+            E element = poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int drainTo(List<? super E> target, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,81 @@
+package com.personalfin.server.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+
+/**
+ * Sliding-window failure counts per key (username or IP). Only the newest
+ * {@code threshold} failure times are kept per key, which is all a lockout
+ * decision needs: the key is over the limit when the oldest of them is still
+ * inside the window. Each key locks only its own window, and keys expire once
+ * their newest failure has left the window.
+ */
+final class FailureWindowCounters {
+
+    private final int threshold;
+    private final long windowMillis;
+    private final Cache<String, Window> windows;
+
+    FailureWindowCounters(int threshold, Duration window, long maxKeys) {
+        this.threshold = Math.max(1, threshold);
+        this.windowMillis = window.toMillis();
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    void record(String key, long atMillis) {
+        if (key != null) {
+            windows.get(key, k -> new Window(threshold)).add(atMillis);
+        }
+    }
+
+    /** Failures within the window ending at {@code nowMillis}, at most the threshold. */
+    int count(String key, long nowMillis) {
+        Window window = key != null ? windows.getIfPresent(key) : null;
+        return window != null ? window.countSince(nowMillis - windowMillis) : 0;
+    }
+
+    boolean isOverLimit(String key, long nowMillis) {
+        return count(key, nowMillis) >= threshold;
+    }
+
+    private static final class Window {
+
+        private final long[] times;
+        private int size;
+
+        Window(int capacity) {
+            times = new long[capacity];
+        }
+
+        /** Keeps the newest times, so late warm-up records never push out live ones. */
+        synchronized void add(long atMillis) {
+            if (size < times.length) {
+                times[size++] = atMillis;
+                return;
+            }
+            int oldest = 0;
+            for (int i = 1; i < size; i++) {
+                if (times[i] < times[oldest]) {
+                    oldest = i;
+                }
+            }
+            if (atMillis > times[oldest]) {
+                times[oldest] = atMillis;
+            }
+        }
+
+        synchronized int countSince(long sinceMillis) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (times[i] >= sinceMillis) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.personalfin.server.security.service;
+
+import static com.personalfin.server.security.service.BatchLogWriter.truncate;
+
+import com.personalfin.server.security.config.LoginAttemptLogProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes login attempts to {@code login_attempts} off the request thread through
+ * a {@link BatchLogWriter} configured by {@code security.login-attempts.*}. The
+ * table is an audit trail and the warm-up source for
+ * {@link AccountLockoutService}; lockout decisions never wait for it. When the
+ * buffer is full (the database cannot keep up with an attack) attempts are
+ * dropped and counted in {@code security.login_attempts.dropped}.
+ */
+@Component
+public class LoginAttemptWriter {
+
+    private static final String INSERT_ATTEMPT = """
+            INSERT INTO login_attempts (id, username, ip_address, successful, failure_reason, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final BatchLogWriter<Attempt> writer;
+
+    public LoginAttemptWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                              LoginAttemptLogProperties properties) {
+        this.writer = new BatchLogWriter<>("login_attempts", "login-attempt-writer", "security.login_attempts",
+                jdbcTemplate, INSERT_ATTEMPT, (statement, attempt) -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, truncate(attempt.username(), 100));
+                    statement.setString(3, truncate(attempt.ipAddress(), 45));
+                    statement.setBoolean(4, attempt.successful());
+                    statement.setString(5, truncate(attempt.failureReason(), 255));
+                    statement.setObject(6, attempt.at());
+                }, properties, meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public void enqueue(String username, String ipAddress, boolean successful, String failureReason,
+                        OffsetDateTime at) {
+        writer.enqueue(new Attempt(username, ipAddress, successful, failureReason, at));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        writer.stop();
+    }
+
+    private record Attempt(String username, String ipAddress, boolean successful, String failureReason,
+                           OffsetDateTime at) {
+    }
+}
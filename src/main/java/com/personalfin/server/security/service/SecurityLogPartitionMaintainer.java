@@ -0,0 +1,184 @@
+package com.personalfin.server.security.service;
+
+import com.personalfin.server.security.config.SecurityLogRetentionProperties;
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of {@code audit_logs} and {@code login_attempts}
+ * (see V18) rolling: creates the next few months ahead of time and drops whole
+ * months past retention, which is far cheaper than deleting rows. Runs at
+ * startup and daily; every statement is idempotent, so overlapping runs on
+ * several instances are harmless, and each partition is created or dropped on
+ * its own so one failure does not hold up the rest. Does nothing on databases
+ * other than PostgreSQL.
+ *
+ * <p>PostgreSQL refuses to create a partition while the default partition holds
+ * rows in its range (written during a missed run). Those months are created in
+ * one transaction that detaches the default partition, creates the month, moves
+ * the rows across and attaches the default partition again.
+ */
+@Component
+public class SecurityLogPartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityLogPartitionMaintainer.class);
+
+    static final String AUDIT_LOGS = "audit_logs";
+    static final String LOGIN_ATTEMPTS = "login_attempts";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String SELECT_PARTITIONS = """
+            SELECT child.relname
+            FROM pg_inherits inheritance
+            JOIN pg_class parent ON parent.oid = inheritance.inhparent
+            JOIN pg_class child ON child.oid = inheritance.inhrelid
+            WHERE parent.relname = ?
+            """;
+    private static final String DEFAULT_HAS_ROWS = "SELECT EXISTS (SELECT 1 FROM %s WHERE created_at >= ? AND created_at < ?)";
+    private static final String MOVE_FROM_DEFAULT = """
+            WITH moved AS (DELETE FROM %s WHERE created_at >= ? AND created_at < ? RETURNING *)
+            INSERT INTO %s SELECT * FROM moved
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecurityLogRetentionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public SecurityLogPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                          SecurityLogRetentionProperties properties,
+                                          PlatformTransactionManager transactionManager,
+                                          Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${security.log-retention.cron:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!isPostgres()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+        maintain(AUDIT_LOGS, current, properties.getAuditLogMonths());
+        // The lockout window and warm-up read the current month's failures
+        maintain(LOGIN_ATTEMPTS, current, Math.max(1, properties.getLoginAttemptMonths()));
+    }
+
+    void maintain(String table, YearMonth current, int retentionMonths) {
+        List<String> partitions;
+        try {
+            partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class, table);
+        } catch (DataAccessException e) {
+            log.warn("Partition maintenance for {} failed; will retry on the next run", table, e);
+            return;
+        }
+        boolean hasDefault = partitions.contains(defaultPartitionName(table));
+        for (int ahead = 0; ahead <= properties.getMonthsAhead(); ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            if (!partitions.contains(partitionName(table, month))) {
+                createPartition(table, month, hasDefault);
+            }
+        }
+        for (String partition : expiredPartitions(table, partitions, current.minusMonths(retentionMonths))) {
+            try {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired partition {}", partition);
+            } catch (DataAccessException e) {
+                log.warn("Could not drop expired partition {}; will retry on the next run", partition, e);
+            }
+        }
+    }
+
+    private void createPartition(String table, YearMonth month, boolean hasDefault) {
+        String partition = partitionName(table, month);
+        OffsetDateTime from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        String defaultPartition = defaultPartitionName(table);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!hasDefault || !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        DEFAULT_HAS_ROWS.formatted(defaultPartition), Boolean.class, from, to))) {
+                    jdbcTemplate.execute(createPartitionSql(table, month));
+                    return;
+                }
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartition);
+                jdbcTemplate.execute(createPartitionSql(table, month));
+                int moved = jdbcTemplate.update(MOVE_FROM_DEFAULT.formatted(defaultPartition, table), from, to);
+                jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+                log.info("Moved {} rows from {} into {}", moved, defaultPartition, partition);
+            });
+            log.info("Created partition {}", partition);
+        } catch (DataAccessException e) {
+            log.warn("Could not create partition {}; will retry on the next run", partition, e);
+        }
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    static String defaultPartitionName(String table) {
+        return table + "_default";
+    }
+
+    static String createPartitionSql(String table, YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(table, month)
+                + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + from + " 00:00:00+00') TO ('" + to + " 00:00:00+00')";
+    }
+
+    /** Monthly partitions that end on or before the start of {@code oldestKept}; the default partition is never expired. */
+    static List<String> expiredPartitions(String table, List<String> partitions, YearMonth oldestKept) {
+        return partitions.stream()
+                .filter(name -> partitionMonth(table, name).filter(oldestKept::isAfter).isPresent())
+                .sorted()
+                .toList();
+    }
+
+    static Optional<YearMonth> partitionMonth(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.substring(prefix.length()), SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                    jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
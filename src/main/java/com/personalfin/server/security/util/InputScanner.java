@@ -0,0 +1,175 @@
+package com.personalfin.server.security.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Looks for SQL injection, XSS and path traversal fragments in one pass over
+ * the input, using an Aho-Corasick automaton compiled from all three rule sets.
+ * Matching is ASCII case-insensitive and treats any run of whitespace as a
+ * single space, so {@code UNION\n  SELECT} matches {@code union select}. Every
+ * pattern contains a non-alphanumeric character, which lets purely
+ * alphanumeric input skip the automaton entirely.
+ *
+ * <p>The SQL rules target statement shapes rather than bare keywords, so text
+ * such as "select a plan" or "update card" in a description is not flagged.
+ */
+public final class InputScanner {
+
+    public enum Rule {
+        SQL_INJECTION,
+        XSS,
+        PATH_TRAVERSAL
+    }
+
+    private static final List<String> SQL_INJECTION = List.of(
+            "union select", "union all select", "select * from",
+            "insert into", "delete from", "drop table", "drop database", "truncate table",
+            "alter table", "create table",
+            "; drop ", "; delete ", "; update ", "; insert ", "; select ", "; exec", ";drop ", ";delete ",
+            "' or '", "\" or \"", " or 1=1", "'--", "' --",
+            "exec(", "execute(", "xp_cmdshell", "sleep(", "pg_sleep(", "benchmark(", "waitfor delay",
+            "information_schema");
+
+    private static final List<String> XSS = List.of(
+            "<script", "</script>", "javascript:", "onerror=", "onload=", "onclick=", "<iframe", "</iframe>");
+
+    private static final List<String> PATH_TRAVERSAL = List.of(
+            "../", "..\\", "%2e%2e%2f", "%2e%2e%5c");
+
+    private static final InputScanner DEFAULT = new InputScanner();
+
+    private static final int ALPHABET = 128;
+    private static final int ROOT = 0;
+
+    // Dense DFA: next state for each (state, ASCII char); characters >= 128 never match
+    private final int[][] transitions;
+    // Bitmask of rules whose pattern ends in each state, including via failure links
+    private final int[] outputs;
+
+    private InputScanner() {
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Integer> output = new ArrayList<>();
+        gotoTable.add(emptyRow());
+        output.add(0);
+        addPatterns(Rule.SQL_INJECTION, SQL_INJECTION, gotoTable, output);
+        addPatterns(Rule.XSS, XSS, gotoTable, output);
+        addPatterns(Rule.PATH_TRAVERSAL, PATH_TRAVERSAL, gotoTable, output);
+
+        transitions = gotoTable.toArray(new int[0][]);
+        outputs = output.stream().mapToInt(Integer::intValue).toArray();
+        compile();
+    }
+
+    public static InputScanner getDefault() {
+        return DEFAULT;
+    }
+
+    /** The first rule matched while reading {@code input}, or null if none. */
+    public Rule firstMatch(String input) {
+        int mask = scan(input, -1);
+        return mask == 0 ? null : Rule.values()[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    public boolean matches(String input, Rule rule) {
+        return (scan(input, 1 << rule.ordinal()) & (1 << rule.ordinal())) != 0;
+    }
+
+    /** Reads until a rule in {@code stopMask} matches; returns the rules matched so far. */
+    private int scan(String input, int stopMask) {
+        if (input == null || isAlphanumeric(input)) {
+            return 0;
+        }
+        int state = ROOT;
+        int matched = 0;
+        boolean previousSpace = false;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (previousSpace) {
+                    continue;
+                }
+                previousSpace = true;
+                c = ' ';
+            } else {
+                previousSpace = false;
+                if (c >= 'A' && c <= 'Z') {
+                    c = (char) (c + ('a' - 'A'));
+                }
+            }
+            state = c < ALPHABET ? transitions[state][c] : ROOT;
+            matched |= outputs[state];
+            if ((matched & stopMask) != 0) {
+                return matched;
+            }
+        }
+        return matched;
+    }
+
+    private static boolean isAlphanumeric(String input) {
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addPatterns(Rule rule, List<String> patterns, List<int[]> gotoTable, List<Integer> output) {
+        for (String pattern : patterns) {
+            if (isAlphanumeric(pattern)) {
+                throw new IllegalArgumentException("Pattern must contain a non-alphanumeric character: " + pattern);
+            }
+            int state = ROOT;
+            for (char c : pattern.toCharArray()) {
+                int next = gotoTable.get(state)[c];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(emptyRow());
+                    output.add(0);
+                    gotoTable.get(state)[c] = next;
+                }
+                state = next;
+            }
+            output.set(state, output.get(state) | (1 << rule.ordinal()));
+        }
+    }
+
+    /** Fills missing transitions through failure links, turning the trie into a DFA. */
+    private void compile() {
+        int[] failure = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[ROOT][c];
+            if (next < 0) {
+                transitions[ROOT][c] = ROOT;
+            } else {
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            outputs[state] |= outputs[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] emptyRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -4,22 +4,9 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.util.UriUtils;
 
 import java.nio.charset.StandardCharsets;
-import java.util.regex.Pattern;
 
 public class SecurityUtils {
 
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
-            "(?i)(union|select|insert|update|delete|drop|create|alter|exec|execute|script|javascript|onerror|onload)"
-    );
-
-    private static final Pattern XSS_PATTERN = Pattern.compile(
-            "(?i)(<script|</script>|javascript:|onerror=|onload=|onclick=|<iframe|</iframe>)"
-    );
-
-    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile(
-            "(\\.\\./|\\.\\.\\\\|%2e%2e%2f|%2e%2e%5c)"
-    );
-
     /**
      * Sanitize user input to prevent XSS attacks
      */
@@ -40,7 +27,7 @@ public class SecurityUtils {
         if (input == null) {
             return false;
         }
-        return SQL_INJECTION_PATTERN.matcher(input).find();
+        return InputScanner.getDefault().matches(input, InputScanner.Rule.SQL_INJECTION);
     }
 
     /**
@@ -50,7 +37,7 @@ public class SecurityUtils {
         if (input == null) {
             return false;
         }
-        return XSS_PATTERN.matcher(input).find();
+        return InputScanner.getDefault().matches(input, InputScanner.Rule.XSS);
     }
 
     /**
@@ -60,7 +47,7 @@ public class SecurityUtils {
         if (input == null) {
             return false;
         }
-        return PATH_TRAVERSAL_PATTERN.matcher(input).find();
+        return InputScanner.getDefault().matches(input, InputScanner.Rule.PATH_TRAVERSAL);
     }
 
     /**
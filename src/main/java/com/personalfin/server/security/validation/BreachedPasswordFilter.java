@@ -0,0 +1,123 @@
+package com.personalfin.server.security.validation;
+
+import org.springframework.core.io.Resource;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Bloom filter of breached or common passwords. A hit means the password is
+ * probably on the list (false positives at the rate the filter was built for);
+ * a miss means it is definitely not.
+ *
+ * <p>File layout, big-endian: magic {@code PWBF}, hash count (int), bit count
+ * (long), then the bit array. Filters on the file system are memory-mapped, so
+ * a large breach corpus costs page cache rather than heap. Filters are built by
+ * {@code BreachedPasswordFilterBuilder} in the test sources; the bundled one comes
+ * from {@code src/test/resources/security/breached-passwords.txt}.
+ */
+public final class BreachedPasswordFilter {
+
+    private static final int MAGIC = 0x50574246;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BreachedPasswordFilter(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a breached-password filter");
+        }
+        this.hashCount = buffer.getInt(4);
+        this.bitCount = buffer.getLong(8);
+        if (hashCount < 1 || bitCount < 1 || (bitCount + 7) / 8 > buffer.remaining() - HEADER_BYTES) {
+            throw new IllegalArgumentException("Corrupt breached-password filter header");
+        }
+        this.bits = buffer.position(HEADER_BYTES).slice().asReadOnlyBuffer();
+    }
+
+    public static BreachedPasswordFilter load(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                return new BreachedPasswordFilter(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        // Inside a jar: no file to map, and the bundled filter is small
+        try (InputStream in = resource.getInputStream()) {
+            return new BreachedPasswordFilter(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    public boolean mightContain(CharSequence password) {
+        long h1 = hash1(password);
+        long h2 = hash2(password);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Writes a filter sized for {@code passwords} at the given false positive rate. */
+    static void write(Collection<String> passwords, double falsePositiveRate, OutputStream out)
+            throws IOException {
+        int n = Math.max(1, passwords.size());
+        long bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        if ((bitCount + 7) / 8 > Integer.MAX_VALUE - HEADER_BYTES) {
+            throw new IllegalArgumentException("Filter too large; raise the false positive rate");
+        }
+
+        byte[] bits = new byte[(int) ((bitCount + 7) / 8)];
+        for (String password : passwords) {
+            long h1 = hash1(password);
+            long h2 = hash2(password);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                bits[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(hashCount);
+        data.writeLong(bitCount);
+        data.write(bits);
+        data.flush();
+    }
+
+    // Two independent 64-bit hashes over the UTF-16 chars; probes are h1 + i * h2
+    private static long hash1(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, length = s.length(); i < length; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long hash2(CharSequence s) {
+        long h = 0x9e3779b97f4a7c15L ^ s.length();
+        for (int i = 0, length = s.length(); i < length; i++) {
+            h = Long.rotateLeft(h + s.charAt(i) * 0xc2b2ae3d27d4eb4fL, 31) * 0x9e3779b97f4a7c15L;
+        }
+        return mix(h) | 1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
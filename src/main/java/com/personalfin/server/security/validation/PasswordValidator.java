@@ -1,23 +1,70 @@
 package com.personalfin.server.security.validation;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
+/**
+ * Checks password composition in a single pass over the characters, then
+ * against an optional bloom filter of breached passwords. Called on every
+ * keystroke by the registration form, so it does not allocate on the happy path.
+ */
 @Component
 public class PasswordValidator {
 
     // Password must be at least 8 characters, contain at least one lowercase, one digit, and one special character
     // Allowed special characters: @$!%*?&#^_+-=()[]{}|\\:;"'<>,./~`
-    // Using a simpler approach: check for at least one non-alphanumeric character
-    private static final Pattern HAS_LOWERCASE = Pattern.compile(".*[a-z].*");
-    private static final Pattern HAS_DIGIT = Pattern.compile(".*\\d.*");
-    private static final Pattern HAS_SPECIAL_CHAR = Pattern.compile(".*[^A-Za-z0-9].*");
-    private static final Pattern VALID_CHARS = Pattern.compile("^[A-Za-z0-9@$!%*?&#^_+\\-=()\\[\\]{}|\\\\:;\"'<>,./~`]+$");
+    private static final String ALLOWED_SPECIAL_CHARS = "@$!%*?&#^_+-=()[]{}|\\:;\"'<>,./~`";
+    private static final boolean[] ALLOWED_SPECIAL = new boolean[128];
+
+    static {
+        for (char c : ALLOWED_SPECIAL_CHARS.toCharArray()) {
+            ALLOWED_SPECIAL[c] = true;
+        }
+    }
+
+    private static final String[] COMMON_PASSWORDS = {
+            "password", "password123", "12345678", "qwerty123", "admin123",
+            "letmein", "welcome", "monkey", "1234567890", "abc123"
+    };
 
     private static final int MIN_LENGTH = 8;
     private static final int MAX_LENGTH = 128;
 
+    private static final PasswordValidationResult VALID = new PasswordValidationResult(true, null);
+    private static final PasswordValidationResult INVALID_NO_LOWERCASE = PasswordValidationResult.invalid(
+            "Password must contain at least one lowercase letter");
+    private static final PasswordValidationResult INVALID_NO_DIGIT = PasswordValidationResult.invalid(
+            "Password must contain at least one digit");
+    private static final PasswordValidationResult INVALID_NO_SPECIAL = PasswordValidationResult.invalid(
+            "Password must contain at least one special character (e.g., @$!%*?&#^_+-=()[]{}|\\:;\"'<>,./~`)");
+    private static final PasswordValidationResult INVALID_CHARS = PasswordValidationResult.invalid(
+            "Password contains invalid characters. Only letters, numbers, and common special characters are allowed");
+    private static final PasswordValidationResult INVALID_COMMON = PasswordValidationResult.invalid(
+            "Password is too common. Please choose a stronger password");
+    private static final PasswordValidationResult INVALID_BREACHED = PasswordValidationResult.invalid(
+            "Password appears in a list of breached passwords. Please choose a different password");
+
+    private final BreachedPasswordFilter breachedPasswords;
+
+    public PasswordValidator(
+            @Value("${security.password-policy.breached-check-enabled:true}") boolean breachedCheckEnabled,
+            @Value("${security.password-policy.breached-filter:classpath:security/breached-passwords.bloom}")
+            Resource breachedFilter) {
+        if (!breachedCheckEnabled) {
+            this.breachedPasswords = null;
+            return;
+        }
+        try {
+            this.breachedPasswords = BreachedPasswordFilter.load(breachedFilter);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load breached-password filter " + breachedFilter, e);
+        }
+    }
+
     public PasswordValidationResult validate(String password) {
         if (password == null || password.isBlank()) {
             return PasswordValidationResult.invalid("Password cannot be empty");
@@ -35,49 +82,63 @@ public class PasswordValidator {
             );
         }
 
+        boolean hasLowercase = false;
+        boolean hasDigit = false;
+        boolean hasSpecial = false;
+        boolean hasInvalid = false;
+        for (int i = 0, length = password.length(); i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                hasLowercase = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c < 'A' || c > 'Z') {
+                // Anything else counts as special, but only the listed ASCII symbols are allowed
+                hasSpecial = true;
+                hasInvalid |= c >= ALLOWED_SPECIAL.length || !ALLOWED_SPECIAL[c];
+            }
+        }
+
         // Check individual requirements
-        if (!HAS_LOWERCASE.matcher(password).matches()) {
-            return PasswordValidationResult.invalid(
-                    "Password must contain at least one lowercase letter"
-            );
+        if (!hasLowercase) {
+            return INVALID_NO_LOWERCASE;
         }
 
-        if (!HAS_DIGIT.matcher(password).matches()) {
-            return PasswordValidationResult.invalid(
-                    "Password must contain at least one digit"
-            );
+        if (!hasDigit) {
+            return INVALID_NO_DIGIT;
         }
 
-        if (!HAS_SPECIAL_CHAR.matcher(password).matches()) {
-            return PasswordValidationResult.invalid(
-                    "Password must contain at least one special character (e.g., @$!%*?&#^_+-=()[]{}|\\:;\"'<>,./~`)"
-            );
+        if (!hasSpecial) {
+            return INVALID_NO_SPECIAL;
         }
 
         // Check for invalid characters (only allow alphanumeric and common special characters)
-        if (!VALID_CHARS.matcher(password).matches()) {
-            return PasswordValidationResult.invalid(
-                    "Password contains invalid characters. Only letters, numbers, and common special characters are allowed"
-            );
+        if (hasInvalid) {
+            return INVALID_CHARS;
         }
 
         // Check for common weak passwords
         if (isCommonPassword(password)) {
-            return PasswordValidationResult.invalid("Password is too common. Please choose a stronger password");
+            return INVALID_COMMON;
+        }
+
+        if (breachedPasswords != null && breachedPasswords.mightContain(password)) {
+            return INVALID_BREACHED;
         }
 
-        return PasswordValidationResult.valid();
+        return VALID;
     }
 
+    // Case-insensitive substring search without lower-casing a copy of the password
     private boolean isCommonPassword(String password) {
-        String[] commonPasswords = {
-                "password", "password123", "12345678", "qwerty123", "admin123",
-                "letmein", "welcome", "monkey", "1234567890", "abc123"
-        };
-        String lowerPassword = password.toLowerCase();
-        for (String common : commonPasswords) {
-            if (lowerPassword.contains(common)) {
-                return true;
+        for (String common : COMMON_PASSWORDS) {
+            char first = common.charAt(0);
+            for (int i = 0, last = password.length() - common.length(); i <= last; i++) {
+                char c = password.charAt(i);
+                if ((c == first || (c >= 'A' && c <= 'Z' && c + ('a' - 'A') == first))
+                        && password.regionMatches(true, i, common, 0, common.length())) {
+                    return true;
+                }
             }
         }
         return false;
@@ -93,7 +154,7 @@ public class PasswordValidator {
         }
 
         public static PasswordValidationResult valid() {
-            return new PasswordValidationResult(true, null);
+            return VALID;
         }
 
         public static PasswordValidationResult invalid(String errorMessage) {
@@ -0,0 +1,123 @@
+package com.personalfin.server.sync.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sync")
+public class SyncProperties {
+
+    private final Push push = new Push();
+    private final Compression compression = new Compression();
+    private final Notifications notifications = new Notifications();
+
+    public Push getPush() {
+        return push;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public Notifications getNotifications() {
+        return notifications;
+    }
+
+    public static class Push {
+        // Entities committed per transaction; a failed chunk is retried one entity at a time
+        private int chunkSize = 100;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Compression {
+        // Upper bound on a gzip-encoded request body after inflation
+        private long maxInflatedBytes = 50L * 1024 * 1024;
+
+        public long getMaxInflatedBytes() {
+            return maxInflatedBytes;
+        }
+
+        public void setMaxInflatedBytes(long maxInflatedBytes) {
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+    }
+
+    public static class Notifications {
+        // Listen for database change notifications and push them to connected devices
+        private boolean enabled = true;
+        // Clients reconnect when an event stream times out
+        private Duration emitterTimeout = Duration.ofMinutes(30);
+        // Oldest stream is closed when a user opens more than this
+        private int maxStreamsPerUser = 5;
+        // How long one LISTEN poll blocks before checking for shutdown
+        private Duration pollTimeout = Duration.ofSeconds(10);
+        // Threads writing events to streams; a slow client ties up one of them at most
+        private int senderThreads = 4;
+        // Writes waiting for a sender thread; a stream that cannot be queued is dropped
+        private int senderQueueCapacity = 1000;
+        // A stream whose write has not finished after this long is dropped
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getEmitterTimeout() {
+            return emitterTimeout;
+        }
+
+        public void setEmitterTimeout(Duration emitterTimeout) {
+            this.emitterTimeout = emitterTimeout;
+        }
+
+        public int getMaxStreamsPerUser() {
+            return maxStreamsPerUser;
+        }
+
+        public void setMaxStreamsPerUser(int maxStreamsPerUser) {
+            this.maxStreamsPerUser = maxStreamsPerUser;
+        }
+
+        public Duration getPollTimeout() {
+            return pollTimeout;
+        }
+
+        public void setPollTimeout(Duration pollTimeout) {
+            this.pollTimeout = pollTimeout;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getSenderQueueCapacity() {
+            return senderQueueCapacity;
+        }
+
+        public void setSenderQueueCapacity(int senderQueueCapacity) {
+            this.senderQueueCapacity = senderQueueCapacity;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+    }
+}
@@ -5,7 +5,8 @@ import java.time.OffsetDateTime;
 public record SyncStatusResponse(
         OffsetDateTime lastSyncAt,
         boolean hasUnsyncedChanges,
-        int pendingChangesCount
+        int pendingChangesCount,
+        OffsetDateTime lastChangedAt
 ) {}
 
 
@@ -0,0 +1,210 @@
+package com.personalfin.server.sync.filter;
+
+import com.personalfin.server.sync.config.SyncProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates {@code Content-Encoding: gzip} request bodies sent to the sync API, so
+ * offline clients can compress large pushes. Responses are compressed by the
+ * container (see {@code server.compression}).
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private final SyncProperties syncProperties;
+
+    public GzipRequestFilter(SyncProperties syncProperties) {
+        this.syncProperties = syncProperties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null
+                || !"gzip".equalsIgnoreCase(encoding.trim())
+                || !request.getServletPath().startsWith("/api/sync/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        filterChain.doFilter(new GzipRequestWrapper(request, syncProperties.getCompression().getMaxInflatedBytes()),
+                response);
+    }
+
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+
+        GzipRequestWrapper(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new InflatingInputStream(super.getInputStream(), maxInflatedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isStrippedHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isStrippedHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        // The inflated body no longer matches the encoded length or encoding
+        private boolean isStrippedHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Inflates the body as it is read. A blocking read pulls compressed bytes as
+     * the inflater needs them. A non-blocking reader cannot be served that way,
+     * because the inflater may need more input than the container has ready, so
+     * after {@link #setReadListener} the compressed body is buffered, up to the
+     * same limit, and the listener is called once all of it has arrived.
+     */
+    private static class InflatingInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+        private final long maxBytes;
+        private InputStream inflated;
+        private long readBytes;
+        private boolean finished;
+        private volatile boolean ready = true;
+
+        InflatingInputStream(ServletInputStream compressed, long maxBytes) {
+            this.compressed = compressed;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = inflated().read();
+            if (b == -1) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = inflated().read(buffer, offset, length);
+            if (n == -1) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private InputStream inflated() throws IOException {
+            if (inflated == null) {
+                inflated = new GZIPInputStream(compressed);
+            }
+            return inflated;
+        }
+
+        private void count(int n) throws IOException {
+            readBytes += n;
+            if (readBytes > maxBytes) {
+                throw new IOException("Inflated request body exceeds " + maxBytes + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            ready = false;
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            compressed.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] chunk = new byte[8192];
+                    int n;
+                    while (compressed.isReady() && (n = compressed.read(chunk)) != -1) {
+                        body.write(chunk, 0, n);
+                        if (body.size() > maxBytes) {
+                            throw new IOException("Compressed request body exceeds " + maxBytes + " bytes");
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    inflated = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()));
+                    ready = true;
+                    readListener.onDataAvailable();
+                    if (finished) {
+                        readListener.onAllDataRead();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflated != null) {
+                inflated.close();
+            }
+            compressed.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.personalfin.server.sync.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Per-user count of writes to expenses, budgets and bills. Rows are maintained by
+ * database triggers (see V13), so the application only reads them.
+ */
+@Entity
+@Immutable
+@Table(name = "sync_change_counters")
+public class SyncChangeCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "last_changed_at", nullable = false)
+    private OffsetDateTime lastChangedAt;
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public OffsetDateTime getLastChangedAt() {
+        return lastChangedAt;
+    }
+}
@@ -29,6 +29,9 @@ public class SyncMetadata {
     @Column(name = "device_id", length = 255)
     private String deviceId;
 
+    @Column(name = "synced_change_seq", nullable = false)
+    private long syncedChangeSeq;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
@@ -82,6 +85,14 @@ public class SyncMetadata {
         this.deviceId = deviceId;
     }
 
+    public long getSyncedChangeSeq() {
+        return syncedChangeSeq;
+    }
+
+    public void setSyncedChangeSeq(long syncedChangeSeq) {
+        this.syncedChangeSeq = syncedChangeSeq;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,26 @@
+package com.personalfin.server.sync.repository;
+
+import com.personalfin.server.sync.model.SyncChangeCounter;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncChangeCounterRepository extends JpaRepository<SyncChangeCounter, UUID> {
+
+    @Query("SELECT c.changeSeq FROM SyncChangeCounter c WHERE c.userId = :userId")
+    Optional<Long> findChangeSeqByUserId(@Param("userId") UUID userId);
+
+    /** Same as {@link #findChangeSeqByUserId} without resolving the user first. */
+    @Query("SELECT c.changeSeq FROM SyncChangeCounter c, User u WHERE u.id = c.userId AND u.username = :username")
+    Optional<Long> findChangeSeqByUsername(@Param("username") String username);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SyncChangeCounter c WHERE c.userId = :userId")
+    Optional<SyncChangeCounter> findByUserIdForUpdate(@Param("userId") UUID userId);
+}
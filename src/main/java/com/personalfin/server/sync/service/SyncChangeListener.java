@@ -0,0 +1,125 @@
+package com.personalfin.server.sync.service;
+
+import com.personalfin.server.sync.config.SyncProperties;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens on the {@code sync_changes} channel, which the change counter trigger
+ * (see V14) notifies on every committed write to expenses, budgets and bills,
+ * and forwards each notification to {@link SyncChangeNotifier}. Because the
+ * database publishes the change, writes made by other server instances reach
+ * devices connected here too.
+ *
+ * <p>LISTEN ties a session up for as long as the application runs, so it uses
+ * its own connection opened from the {@code spring.datasource} settings rather
+ * than one borrowed from the pool.
+ */
+@Component
+public class SyncChangeListener implements SmartLifecycle {
+
+    static final String CHANNEL = "sync_changes";
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncChangeListener.class);
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final DataSource dataSource;
+    private final SyncChangeNotifier notifier;
+    private final SyncProperties syncProperties;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public SyncChangeListener(DataSourceProperties dataSourceProperties, SyncChangeNotifier notifier,
+                              SyncProperties syncProperties) {
+        // Unpooled: every getConnection() opens a new physical connection
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.notifier = notifier;
+        this.syncProperties = syncProperties;
+    }
+
+    @Override
+    public void start() {
+        if (!syncProperties.getNotifications().isEnabled()) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "sync-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        int pollTimeoutMillis = (int) syncProperties.getNotifications().getPollTimeout().toMillis();
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    logger.info("Sync change notifications disabled: database does not support LISTEN/NOTIFY");
+                    running = false;
+                    return;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                execute(connection, "LISTEN " + CHANNEL);
+                // Closing the connection ends the session, and the LISTEN with it
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        dispatch(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Sync change listener lost its connection, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            try {
+                notifier.notifyChanged(UUID.fromString(notification.getParameter()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring sync change notification with payload '{}'", notification.getParameter());
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.personalfin.server.sync.service;
+
+import com.personalfin.server.sync.config.SyncProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Keeps the open server-sent event streams per user and tells them when the
+ * user's data changed. Streams are async requests, so an idle stream holds a
+ * connection but no request thread.
+ *
+ * <p>Writing to a stream blocks until the client reads, so every write runs on
+ * a small bounded sender pool, never on the caller: the LISTEN thread and the
+ * shared scheduler thread only queue work. Each stream has at most one write
+ * queued or running; changes arriving meanwhile are folded into it. A stream
+ * whose write has been stuck for longer than the send timeout, or that cannot
+ * be queued because the pool is saturated, is dropped and its client reconnects.
+ */
+@Component
+public class SyncChangeNotifier {
+
+    static final String CHANGE_EVENT = "sync-changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncChangeNotifier.class);
+
+    private final Map<UUID, Set<Stream>> streams = new ConcurrentHashMap<>();
+    private final SyncProperties syncProperties;
+    private final ThreadPoolExecutor senders;
+
+    public SyncChangeNotifier(SyncProperties syncProperties) {
+        this.syncProperties = syncProperties;
+        SyncProperties.Notifications notifications = syncProperties.getNotifications();
+        int senderThreads = Math.max(1, notifications.getSenderThreads());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(
+                senderThreads,
+                senderThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, notifications.getSenderQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sync-event-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public SseEmitter subscribe(UUID userId) {
+        SyncProperties.Notifications notifications = syncProperties.getNotifications();
+        SseEmitter emitter = createEmitter(notifications.getEmitterTimeout().toMillis());
+        Stream stream = new Stream(userId, emitter);
+        // Add inside compute so a concurrent remove() cannot drop the set underneath us
+        Set<Stream> userStreams = streams.compute(userId, (id, existing) -> {
+            Set<Stream> set = existing != null ? existing : new CopyOnWriteArraySet<>();
+            set.add(stream);
+            return set;
+        });
+
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(stream));
+
+        // CopyOnWriteArraySet keeps insertion order, so the first stream is the oldest
+        while (userStreams.size() > Math.max(1, notifications.getMaxStreamsPerUser())) {
+            Stream oldest = userStreams.iterator().next();
+            userStreams.remove(oldest);
+            close(oldest);
+        }
+        return emitter;
+    }
+
+    /**
+     * Queues a change event for every stream the user has open. Clients respond
+     * by checking {@code /api/sync/status} or pulling.
+     */
+    public void notifyChanged(UUID userId) {
+        Set<Stream> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return;
+        }
+        for (Stream stream : userStreams) {
+            stream.changed.set(true);
+            schedule(stream);
+        }
+    }
+
+    /**
+     * Queues a comment for every stream so proxies keep idle connections open and
+     * streams whose client went away are released. Streams stuck in a write for
+     * longer than the send timeout are dropped instead.
+     */
+    @Scheduled(fixedDelayString = "${sync.notifications.heartbeat-interval:PT30S}")
+    public void sendHeartbeats() {
+        long sendTimeoutNanos = syncProperties.getNotifications().getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> {
+            long since = stream.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                drop(stream, "send timed out");
+            } else {
+                schedule(stream);
+            }
+        }));
+    }
+
+    public int getOpenStreamCount() {
+        return streams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Sends may be blocked on clients that stopped reading; don't wait for them
+        senders.shutdownNow();
+    }
+
+    private void schedule(Stream stream) {
+        if (!stream.queued.compareAndSet(false, true)) {
+            // A write is already queued or running and will pick up a pending change
+            return;
+        }
+        try {
+            senders.execute(() -> send(stream));
+        } catch (RejectedExecutionException e) {
+            stream.queued.set(false);
+            drop(stream, "sender queue full");
+        }
+    }
+
+    private void send(Stream stream) {
+        stream.sendingSince = System.nanoTime();
+        try {
+            if (!stream.dropped) {
+                stream.emitter.send(stream.changed.getAndSet(false)
+                        ? SseEmitter.event().name(CHANGE_EVENT).data("changed")
+                        : SseEmitter.event().comment("ping"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            drop(stream, e.getMessage());
+        } finally {
+            stream.sendingSince = 0;
+            stream.queued.set(false);
+        }
+        if (stream.changed.get() && !stream.dropped) {
+            schedule(stream);
+        }
+    }
+
+    private void drop(Stream stream, String reason) {
+        logger.debug("Dropping sync event stream for user {}: {}", stream.userId, reason);
+        remove(stream);
+        close(stream);
+    }
+
+    // Completing takes the emitter's lock, which a stuck send holds, so it goes to the pool too
+    private void close(Stream stream) {
+        stream.dropped = true;
+        try {
+            senders.execute(stream.emitter::complete);
+        } catch (RejectedExecutionException e) {
+            // The emitter timeout ends the request instead
+        }
+    }
+
+    private void remove(Stream stream) {
+        streams.computeIfPresent(stream.userId, (id, userStreams) -> {
+            userStreams.remove(stream);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    private static final class Stream {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private final AtomicBoolean changed = new AtomicBoolean();
+        // System.nanoTime() when the running write started, 0 while idle
+        private volatile long sendingSince;
+        private volatile boolean dropped;
+
+        private Stream(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -16,27 +16,47 @@ import com.personalfin.server.reminder.dto.BillResponse;
 import com.personalfin.server.reminder.model.Bill;
 import com.personalfin.server.reminder.repository.BillRepository;
 import com.personalfin.server.reminder.service.BillService;
+import com.personalfin.server.sync.config.SyncProperties;
 import com.personalfin.server.sync.dto.SyncPullResponse;
 import com.personalfin.server.sync.dto.SyncPushRequest;
 import com.personalfin.server.sync.dto.SyncPushResponse;
 import com.personalfin.server.sync.dto.SyncStatusResponse;
+import com.personalfin.server.sync.model.SyncChangeCounter;
 import com.personalfin.server.sync.model.SyncMetadata;
+import com.personalfin.server.sync.repository.SyncChangeCounterRepository;
 import com.personalfin.server.sync.repository.SyncMetadataRepository;
 import com.personalfin.server.user.service.UserService;
 import jakarta.transaction.Transactional;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class SyncService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
     private final SyncMetadataRepository syncMetadataRepository;
+    private final SyncChangeCounterRepository syncChangeCounterRepository;
     private final ExpenseRepository expenseRepository;
     private final BudgetRepository budgetRepository;
     private final BillRepository billRepository;
@@ -44,17 +64,23 @@ public class SyncService {
     private final BudgetService budgetService;
     private final BillService billService;
     private final UserService userService;
+    private final SyncProperties syncProperties;
+    private final TransactionTemplate transactionTemplate;
 
     public SyncService(
             SyncMetadataRepository syncMetadataRepository,
+            SyncChangeCounterRepository syncChangeCounterRepository,
             ExpenseRepository expenseRepository,
             BudgetRepository budgetRepository,
             BillRepository billRepository,
             ExpenseService expenseService,
             BudgetService budgetService,
             BillService billService,
-            UserService userService) {
+            UserService userService,
+            SyncProperties syncProperties,
+            PlatformTransactionManager transactionManager) {
         this.syncMetadataRepository = syncMetadataRepository;
+        this.syncChangeCounterRepository = syncChangeCounterRepository;
         this.expenseRepository = expenseRepository;
         this.budgetRepository = budgetRepository;
         this.billRepository = billRepository;
@@ -62,9 +88,18 @@ public class SyncService {
         this.budgetService = budgetService;
         this.billService = billService;
         this.userService = userService;
+        this.syncProperties = syncProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    @Transactional
+    /**
+     * Applies a batch of offline changes. Entities are written in chunks of
+     * {@code sync.push.chunk-size}, each committed in its own transaction, so
+     * progress survives a later failure. When a chunk fails to commit it is
+     * replayed one entity per transaction: only the entities that fail again
+     * are reported as errors and need to be re-pushed by the client.
+     */
     public SyncPushResponse push(SyncPushRequest request) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
         if (userId == null) {
@@ -74,76 +109,36 @@ public class SyncService {
         OffsetDateTime serverSyncAt = OffsetDateTime.now(ZoneOffset.UTC);
         List<SyncPushResponse.SyncConflict> conflicts = new ArrayList<>();
         List<SyncPushResponse.SyncResult> results = new ArrayList<>();
-        int processedCount = 0;
+        AtomicLong ownChanges = new AtomicLong();
 
-        // Process expenses
+        // Within a chunk each entity type is bulk-loaded with one query, checked for
+        // conflicts in memory and written back in batches, so the statement count
+        // grows with the number of chunks rather than the number of entities.
         if (request.expenses() != null) {
-            for (SyncPushRequest.SyncEntity<ExpenseCreateRequest> entity : request.expenses()) {
-                try {
-                    SyncPushResponse.SyncResult result = processExpenseSync(entity, userId, conflicts);
-                    results.add(result);
-                    if (result.success()) {
-                        processedCount++;
-                    }
-                } catch (Exception e) {
-                    results.add(new SyncPushResponse.SyncResult(
-                            "expense",
-                            entity.id(),
-                            entity.operation(),
-                            false,
-                            "Error: " + e.getMessage(),
-                            null
-                    ));
-                }
-            }
+            pushInChunks("expense", request.expenses(), userId, ownChanges, conflicts, results,
+                    (chunk, chunkConflicts, chunkResults) ->
+                            pushExpenses(chunk, userId, chunkConflicts, chunkResults));
         }
-
-        // Process budgets
         if (request.budgets() != null) {
-            for (SyncPushRequest.SyncEntity<BudgetRequest> entity : request.budgets()) {
-                try {
-                    SyncPushResponse.SyncResult result = processBudgetSync(entity, userId, conflicts);
-                    results.add(result);
-                    if (result.success()) {
-                        processedCount++;
-                    }
-                } catch (Exception e) {
-                    results.add(new SyncPushResponse.SyncResult(
-                            "budget",
-                            entity.id(),
-                            entity.operation(),
-                            false,
-                            "Error: " + e.getMessage(),
-                            null
-                    ));
-                }
-            }
+            pushInChunks("budget", request.budgets(), userId, ownChanges, conflicts, results,
+                    (chunk, chunkConflicts, chunkResults) ->
+                            pushBudgets(chunk, userId, chunkConflicts, chunkResults));
         }
-
-        // Process bills
         if (request.bills() != null) {
-            for (SyncPushRequest.SyncEntity<BillRequest> entity : request.bills()) {
-                try {
-                    SyncPushResponse.SyncResult result = processBillSync(entity, userId, conflicts);
-                    results.add(result);
-                    if (result.success()) {
-                        processedCount++;
-                    }
-                } catch (Exception e) {
-                    results.add(new SyncPushResponse.SyncResult(
-                            "bill",
-                            entity.id(),
-                            entity.operation(),
-                            false,
-                            "Error: " + e.getMessage(),
-                            null
-                    ));
-                }
-            }
+            pushInChunks("bill", request.bills(), userId, ownChanges, conflicts, results,
+                    (chunk, chunkConflicts, chunkResults) ->
+                            pushBills(chunk, userId, chunkConflicts, chunkResults));
         }
 
-        // Update sync metadata
-        updateSyncMetadata(userId, request.deviceId(), serverSyncAt);
+        int processedCount = (int) results.stream()
+                .filter(SyncPushResponse.SyncResult::success)
+                .count();
+
+        // The device has already seen its own writes, so only advance its watermark
+        // by those; changes from other devices stay pending until the next pull.
+        transactionTemplate.executeWithoutResult(status ->
+                updateSyncMetadata(userId, request.deviceId(), serverSyncAt,
+                        syncedChangeSeq -> syncedChangeSeq + ownChanges.get()));
 
         return new SyncPushResponse(
                 serverSyncAt,
@@ -162,6 +157,8 @@ public class SyncService {
         }
 
         OffsetDateTime serverSyncAt = OffsetDateTime.now(ZoneOffset.UTC);
+        // Read before fetching so a concurrent write is reported again rather than lost
+        long changeSeq = currentChangeSeq(userId);
         
         // If no lastSyncAt provided, get from metadata or use epoch
         if (lastSyncAt == null) {
@@ -200,7 +197,7 @@ public class SyncService {
         int totalChanges = expenseResponses.size() + budgetResponses.size() + billResponses.size();
 
         // Update sync metadata
-        updateSyncMetadata(userId, deviceId, serverSyncAt);
+        updateSyncMetadata(userId, deviceId, serverSyncAt, syncedChangeSeq -> changeSeq);
 
         return new SyncPullResponse(
                 serverSyncAt,
@@ -215,267 +212,387 @@ public class SyncService {
         );
     }
 
-    public SyncStatusResponse getStatus() {
+    /**
+     * Reports how many writes the device has not pulled yet, from the per-user
+     * change counter and the device's watermark in {@link SyncMetadata}.
+     */
+    public SyncStatusResponse getStatus(String deviceId) {
         UUID userId = SecurityUtils.getCurrentUserId(userService);
         if (userId == null) {
             throw new IllegalStateException("User not authenticated");
         }
 
-        Optional<SyncMetadata> metadata = syncMetadataRepository.findByUserId(userId);
+        Optional<SyncMetadata> metadata = deviceId != null
+                ? syncMetadataRepository.findByUserIdAndDeviceId(userId, deviceId)
+                : syncMetadataRepository.findByUserId(userId);
         OffsetDateTime lastSyncAt = metadata.map(SyncMetadata::getLastSyncAt)
                 .orElse(null);
+        long syncedChangeSeq = metadata.map(SyncMetadata::getSyncedChangeSeq).orElse(0L);
 
-        // For simplicity, we'll assume there are always pending changes
-        // In production, you'd check if there are actual changes
-        boolean hasUnsyncedChanges = true; // Could be enhanced to check actual changes
-        int pendingChangesCount = 0; // Could be enhanced to count actual pending changes
+        Optional<SyncChangeCounter> counter = syncChangeCounterRepository.findById(userId);
+        long changeSeq = counter.map(SyncChangeCounter::getChangeSeq).orElse(0L);
+        OffsetDateTime lastChangedAt = counter.map(SyncChangeCounter::getLastChangedAt).orElse(null);
 
-        return new SyncStatusResponse(lastSyncAt, hasUnsyncedChanges, pendingChangesCount);
+        long pending = Math.max(0, changeSeq - syncedChangeSeq);
+        int pendingChangesCount = (int) Math.min(pending, Integer.MAX_VALUE);
+
+        return new SyncStatusResponse(lastSyncAt, pending > 0, pendingChangesCount, lastChangedAt);
     }
 
-    private SyncPushResponse.SyncResult processExpenseSync(
-            SyncPushRequest.SyncEntity<ExpenseCreateRequest> entity,
+    private void pushExpenses(
+            List<SyncPushRequest.SyncEntity<ExpenseCreateRequest>> entities,
             UUID userId,
-            List<SyncPushResponse.SyncConflict> conflicts) {
-        
-        UUID entityId = entity.id();
-        String operation = entity.operation();
-        OffsetDateTime clientUpdatedAt = entity.clientUpdatedAt();
-
-        Optional<Expense> existing = expenseRepository.findById(entityId);
+            List<SyncPushResponse.SyncConflict> conflicts,
+            List<SyncPushResponse.SyncResult> results) {
+
+        int firstResultIndex = results.size();
+        Map<UUID, Expense> existingById = loadExisting(entities, expenseRepository, Expense::getId);
+        List<Expense> created = new ArrayList<>();
+        List<Integer> createdResultIndexes = new ArrayList<>();
+        List<UUID> deletedIds = new ArrayList<>();
+
+        for (SyncPushRequest.SyncEntity<ExpenseCreateRequest> entity : entities) {
+            UUID entityId = entity.id();
+            String operation = entity.operation();
+            try {
+                Expense existing = entityId != null ? existingById.get(entityId) : null;
+                SyncPushResponse.SyncResult conflict = detectConflict(
+                        "expense",
+                        entity,
+                        existing != null ? existing.getUserId() : null,
+                        existing != null ? existing.getUpdatedAt() : null,
+                        userId,
+                        conflicts);
+                if (conflict != null) {
+                    results.add(conflict);
+                    continue;
+                }
 
-        // Check for conflicts
-        if (existing.isPresent()) {
-            Expense expense = existing.get();
-            // Verify ownership
-            if (!expense.getUserId().equals(userId)) {
-                throw new IllegalStateException("Expense does not belong to user");
+                switch (operation) {
+                    case "create":
+                        if (existing != null) {
+                            // Already exists, treat as update
+                            expenseService.applyUpdate(existing, toExpenseUpdateRequest(entity.data()));
+                            results.add(success("expense", entityId, "update", "Updated successfully", existing.getId()));
+                        } else {
+                            created.add(expenseService.newExpense(entity.data(), userId));
+                            createdResultIndexes.add(results.size());
+                            results.add(null); // filled in once the batch insert assigns ids
+                        }
+                        break;
+                    case "update":
+                        expenseService.applyUpdate(existing, toExpenseUpdateRequest(entity.data()));
+                        results.add(success("expense", entityId, operation, "Updated successfully", existing.getId()));
+                        break;
+                    case "delete":
+                        existingById.remove(entityId);
+                        deletedIds.add(entityId);
+                        results.add(success("expense", entityId, operation, "Deleted successfully", null));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown operation: " + operation);
+                }
+            } catch (Exception e) {
+                results.add(failure("expense", entityId, operation, e));
             }
+        }
 
-            // Conflict: server was updated after client's last sync
-            if (expense.getUpdatedAt().isAfter(clientUpdatedAt) && !"delete".equals(operation)) {
-                conflicts.add(new SyncPushResponse.SyncConflict(
-                        "expense",
-                        entityId,
-                        "server_updated_after_client",
-                        expense.getUpdatedAt(),
-                        clientUpdatedAt
-                ));
-                return new SyncPushResponse.SyncResult(
-                        "expense",
-                        entityId,
-                        operation,
-                        false,
-                        "Conflict: Server has newer version",
-                        null
-                );
-            }
-        } else if ("update".equals(operation) || "delete".equals(operation)) {
-            conflicts.add(new SyncPushResponse.SyncConflict(
-                    "expense",
-                    entityId,
-                    "entity_deleted_on_server",
-                    null,
-                    clientUpdatedAt
-            ));
-            return new SyncPushResponse.SyncResult(
-                    "expense",
-                    entityId,
-                    operation,
-                    false,
-                    "Conflict: Entity not found on server",
-                    null
-            );
+        // Updates are flushed by dirty checking at commit as batched UPDATEs
+        if (!created.isEmpty()) {
+            expenseRepository.saveAll(created);
         }
+        if (!deletedIds.isEmpty()) {
+            expenseRepository.deleteAllByIdInBatch(deletedIds);
+        }
+        fillCreatedResults("expense", entities, firstResultIndex, created, createdResultIndexes, Expense::getId, results);
+    }
 
-        // Apply operation
-        switch (operation) {
-            case "create":
-                if (existing.isPresent()) {
-                    // Already exists, treat as update
-                    return updateExpense(entityId, entity.data(), userId);
-                } else {
-                    ExpenseCreateRequest request = entity.data();
-                    ExpenseResponse created = expenseService.createExpense(request);
-                    return new SyncPushResponse.SyncResult(
-                            "expense",
-                            entityId,
-                            operation,
-                            true,
-                            "Created successfully",
-                            created.id()
-                    );
+    private void pushBudgets(
+            List<SyncPushRequest.SyncEntity<BudgetRequest>> entities,
+            UUID userId,
+            List<SyncPushResponse.SyncConflict> conflicts,
+            List<SyncPushResponse.SyncResult> results) {
+
+        int firstResultIndex = results.size();
+        Map<UUID, Budget> existingById = loadExisting(entities, budgetRepository, Budget::getId);
+        Map<LocalDate, Budget> activeByMonth = null;
+        List<Budget> created = new ArrayList<>();
+        List<Integer> createdResultIndexes = new ArrayList<>();
+        List<Budget> updated = new ArrayList<>();
+        List<UUID> deletedIds = new ArrayList<>();
+
+        for (SyncPushRequest.SyncEntity<BudgetRequest> entity : entities) {
+            UUID entityId = entity.id();
+            String operation = entity.operation();
+            try {
+                Budget existing = entityId != null ? existingById.get(entityId) : null;
+                SyncPushResponse.SyncResult conflict = detectConflict(
+                        "budget",
+                        entity,
+                        existing != null ? existing.getUserId() : null,
+                        existing != null ? existing.getUpdatedAt() : null,
+                        userId,
+                        conflicts);
+                if (conflict != null) {
+                    results.add(conflict);
+                    continue;
                 }
-            case "update":
-                return updateExpense(entityId, entity.data(), userId);
-            case "delete":
-                expenseRepository.deleteById(entityId);
-                return new SyncPushResponse.SyncResult(
-                        "expense",
-                        entityId,
-                        operation,
-                        true,
-                        "Deleted successfully",
-                        null
-                );
-            default:
-                throw new IllegalArgumentException("Unknown operation: " + operation);
+
+                switch (operation) {
+                    case "create":
+                        if (existing != null) {
+                            budgetService.applyRequest(existing, entity.data());
+                            updated.add(existing);
+                            results.add(success("budget", entityId, "update", "Updated successfully", existing.getId()));
+                        } else {
+                            if (activeByMonth == null) {
+                                activeByMonth = loadActiveBudgetsByMonth(userId);
+                            }
+                            Budget budget = new Budget();
+                            budgetService.applyRequest(budget, entity.data());
+                            budget.setUserId(userId);
+                            budget.setActive(true);
+                            // Deactivate any existing budget for the same month, as BudgetService.create does
+                            Budget previous = activeByMonth.put(budget.getMonthYear(), budget);
+                            if (previous != null) {
+                                previous.setActive(false);
+                            }
+                            created.add(budget);
+                            createdResultIndexes.add(results.size());
+                            results.add(null); // filled in once the batch insert assigns ids
+                        }
+                        break;
+                    case "update":
+                        budgetService.applyRequest(existing, mergeBudgetDelta(existing, entity.data()));
+                        updated.add(existing);
+                        results.add(success("budget", entityId, operation, "Updated successfully", existing.getId()));
+                        break;
+                    case "delete":
+                        existingById.remove(entityId);
+                        deletedIds.add(entityId);
+                        results.add(success("budget", entityId, operation, "Deleted successfully", null));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown operation: " + operation);
+                }
+            } catch (Exception e) {
+                results.add(failure("budget", entityId, operation, e));
+            }
         }
-    }
 
-    private SyncPushResponse.SyncResult updateExpense(UUID id, ExpenseCreateRequest data, UUID userId) {
-        // Convert ExpenseCreateRequest to ExpenseUpdateRequest
-        com.personalfin.server.expense.dto.ExpenseUpdateRequest updateRequest =
-                new com.personalfin.server.expense.dto.ExpenseUpdateRequest(
-                        data.description(),
-                        data.merchant(),
-                        data.amount(),
-                        data.transactionDate(),
-                        data.category(),
-                        data.paymentMethod()
-                );
-        ExpenseResponse updated = expenseService.update(id, updateRequest);
-        return new SyncPushResponse.SyncResult(
-                "expense",
-                id,
-                "update",
-                true,
-                "Updated successfully",
-                updated.id()
-        );
+        budgetService.saveAllWithDailyLimits(created, updated);
+        if (!deletedIds.isEmpty()) {
+            // Daily limits are removed by the ON DELETE CASCADE on daily_spend_limits
+            budgetRepository.deleteAllByIdInBatch(deletedIds);
+        }
+        fillCreatedResults("budget", entities, firstResultIndex, created, createdResultIndexes, Budget::getId, results);
     }
 
-    private SyncPushResponse.SyncResult processBudgetSync(
-            SyncPushRequest.SyncEntity<BudgetRequest> entity,
+    private void pushBills(
+            List<SyncPushRequest.SyncEntity<BillRequest>> entities,
             UUID userId,
-            List<SyncPushResponse.SyncConflict> conflicts) {
-        
-        UUID entityId = entity.id();
-        String operation = entity.operation();
-        OffsetDateTime clientUpdatedAt = entity.clientUpdatedAt();
+            List<SyncPushResponse.SyncConflict> conflicts,
+            List<SyncPushResponse.SyncResult> results) {
+
+        int firstResultIndex = results.size();
+        Map<UUID, Bill> existingById = loadExisting(entities, billRepository, Bill::getId);
+        List<Bill> created = new ArrayList<>();
+        List<Integer> createdResultIndexes = new ArrayList<>();
+        List<UUID> deletedIds = new ArrayList<>();
+
+        for (SyncPushRequest.SyncEntity<BillRequest> entity : entities) {
+            UUID entityId = entity.id();
+            String operation = entity.operation();
+            try {
+                Bill existing = entityId != null ? existingById.get(entityId) : null;
+                SyncPushResponse.SyncResult conflict = detectConflict(
+                        "bill",
+                        entity,
+                        existing != null ? existing.getUserId() : null,
+                        existing != null ? existing.getUpdatedAt() : null,
+                        userId,
+                        conflicts);
+                if (conflict != null) {
+                    results.add(conflict);
+                    continue;
+                }
+
+                switch (operation) {
+                    case "create":
+                        if (existing != null) {
+                            billService.mapRequestToEntity(entity.data(), existing);
+                            results.add(success("bill", entityId, "update", "Updated successfully", existing.getId()));
+                        } else {
+                            Bill bill = new Bill();
+                            billService.mapRequestToEntity(entity.data(), bill);
+                            bill.setUserId(userId);
+                            created.add(bill);
+                            createdResultIndexes.add(results.size());
+                            results.add(null); // filled in once the batch insert assigns ids
+                        }
+                        break;
+                    case "update":
+                        billService.mapRequestToEntity(mergeBillDelta(existing, entity.data()), existing);
+                        results.add(success("bill", entityId, operation, "Updated successfully", existing.getId()));
+                        break;
+                    case "delete":
+                        existingById.remove(entityId);
+                        deletedIds.add(entityId);
+                        results.add(success("bill", entityId, operation, "Deleted successfully", null));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown operation: " + operation);
+                }
+            } catch (Exception e) {
+                results.add(failure("bill", entityId, operation, e));
+            }
+        }
 
-        Optional<Budget> existing = budgetRepository.findById(entityId);
+        if (!created.isEmpty()) {
+            billRepository.saveAll(created);
+        }
+        if (!deletedIds.isEmpty()) {
+            billRepository.deleteAllByIdInBatch(deletedIds);
+        }
+        fillCreatedResults("bill", entities, firstResultIndex, created, createdResultIndexes, Bill::getId, results);
+    }
 
-        // Check for conflicts
-        if (existing.isPresent()) {
-            Budget budget = existing.get();
-            if (!budget.getUserId().equals(userId)) {
-                throw new IllegalStateException("Budget does not belong to user");
+    private <T> void pushInChunks(
+            String entityType,
+            List<SyncPushRequest.SyncEntity<T>> entities,
+            UUID userId,
+            AtomicLong ownChanges,
+            List<SyncPushResponse.SyncConflict> conflicts,
+            List<SyncPushResponse.SyncResult> results,
+            ChunkWriter<T> writer) {
+
+        int chunkSize = Math.max(1, syncProperties.getPush().getChunkSize());
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            List<SyncPushRequest.SyncEntity<T>> chunk =
+                    entities.subList(from, Math.min(from + chunkSize, entities.size()));
+            RuntimeException chunkFailure = writeChunk(chunk, userId, ownChanges, conflicts, results, writer);
+            if (chunkFailure == null) {
+                continue;
+            }
+            if (chunk.size() == 1) {
+                results.add(failure(entityType, chunk.get(0).id(), chunk.get(0).operation(), chunkFailure));
+                continue;
             }
 
-            if (budget.getUpdatedAt().isAfter(clientUpdatedAt) && !"delete".equals(operation)) {
-                conflicts.add(new SyncPushResponse.SyncConflict(
-                        "budget",
-                        entityId,
-                        "server_updated_after_client",
-                        budget.getUpdatedAt(),
-                        clientUpdatedAt
-                ));
-                return new SyncPushResponse.SyncResult(
-                        "budget",
-                        entityId,
-                        operation,
-                        false,
-                        "Conflict: Server has newer version",
-                        null
-                );
+            // Rolling back to a JDBC savepoint would leave the failed entity in the
+            // persistence context, so isolate it by replaying the chunk one entity
+            // per transaction instead.
+            for (SyncPushRequest.SyncEntity<T> entity : chunk) {
+                RuntimeException entityFailure = writeChunk(List.of(entity), userId, ownChanges, conflicts, results, writer);
+                if (entityFailure != null) {
+                    results.add(failure(entityType, entity.id(), entity.operation(), entityFailure));
+                }
             }
-        } else if ("update".equals(operation) || "delete".equals(operation)) {
-            conflicts.add(new SyncPushResponse.SyncConflict(
-                    "budget",
-                    entityId,
-                    "entity_deleted_on_server",
-                    null,
-                    clientUpdatedAt
-            ));
-            return new SyncPushResponse.SyncResult(
-                    "budget",
-                    entityId,
-                    operation,
-                    false,
-                    "Conflict: Entity not found on server",
-                    null
-            );
         }
+    }
 
-        // Apply operation
-        switch (operation) {
-            case "create":
-                if (existing.isPresent()) {
-                    BudgetResponse updated = budgetService.update(entityId, entity.data());
-                    return new SyncPushResponse.SyncResult(
-                            "budget",
-                            entityId,
-                            "update",
-                            true,
-                            "Updated successfully",
-                            updated.id()
-                    );
-                } else {
-                    BudgetResponse created = budgetService.create(entity.data());
-                    return new SyncPushResponse.SyncResult(
-                            "budget",
-                            entityId,
-                            operation,
-                            true,
-                            "Created successfully",
-                            created.id()
-                    );
-                }
-            case "update":
-                BudgetResponse updated = budgetService.update(entityId, entity.data());
-                return new SyncPushResponse.SyncResult(
-                        "budget",
-                        entityId,
-                        operation,
-                        true,
-                        "Updated successfully",
-                        updated.id()
-                );
-            case "delete":
-                budgetService.delete(entityId);
-                return new SyncPushResponse.SyncResult(
-                        "budget",
-                        entityId,
-                        operation,
-                        true,
-                        "Deleted successfully",
-                        null
-                );
-            default:
-                throw new IllegalArgumentException("Unknown operation: " + operation);
+    /**
+     * Writes one chunk in its own transaction and merges its results only if the
+     * transaction commits. Returns the failure, or {@code null} on success.
+     *
+     * <p>The user's change counter row is locked for the chunk, so the difference
+     * in {@code change_seq} across it counts exactly this chunk's writes.
+     */
+    private <T> RuntimeException writeChunk(
+            List<SyncPushRequest.SyncEntity<T>> chunk,
+            UUID userId,
+            AtomicLong ownChanges,
+            List<SyncPushResponse.SyncConflict> conflicts,
+            List<SyncPushResponse.SyncResult> results,
+            ChunkWriter<T> writer) {
+
+        List<SyncPushResponse.SyncConflict> chunkConflicts = new ArrayList<>();
+        List<SyncPushResponse.SyncResult> chunkResults = new ArrayList<>();
+        Long chunkChanges;
+        try {
+            chunkChanges = transactionTemplate.execute(status -> {
+                long before = syncChangeCounterRepository.findByUserIdForUpdate(userId)
+                        .map(SyncChangeCounter::getChangeSeq)
+                        .orElse(0L);
+                writer.write(chunk, chunkConflicts, chunkResults);
+                syncChangeCounterRepository.flush();
+                return currentChangeSeq(userId) - before;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Sync push chunk of {} entities rolled back: {}", chunk.size(), e.getMessage());
+            return e;
+        }
+        conflicts.addAll(chunkConflicts);
+        results.addAll(chunkResults);
+        if (chunkChanges != null) {
+            ownChanges.addAndGet(chunkChanges);
+        }
+        return null;
+    }
+
+    private long currentChangeSeq(UUID userId) {
+        return syncChangeCounterRepository.findChangeSeqByUserId(userId).orElse(0L);
+    }
+
+    private <T> Map<UUID, T> loadExisting(
+            List<? extends SyncPushRequest.SyncEntity<?>> entities,
+            JpaRepository<T, UUID> repository,
+            Function<T, UUID> idGetter) {
+        Set<UUID> ids = entities.stream()
+                .map(SyncPushRequest.SyncEntity::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
         }
+        Map<UUID, T> byId = new HashMap<>();
+        repository.findAllById(ids).forEach(entity -> byId.put(idGetter.apply(entity), entity));
+        return byId;
+    }
+
+    private Map<LocalDate, Budget> loadActiveBudgetsByMonth(UUID userId) {
+        Map<LocalDate, Budget> byMonth = new HashMap<>();
+        budgetRepository.findAllActiveByUserId(userId)
+                .forEach(budget -> byMonth.put(budget.getMonthYear(), budget));
+        return byMonth;
     }
 
-    private SyncPushResponse.SyncResult processBillSync(
-            SyncPushRequest.SyncEntity<BillRequest> entity,
+    /**
+     * Returns the conflict result for an entity, or {@code null} when the operation
+     * can be applied. {@code ownerId} and {@code serverUpdatedAt} are {@code null}
+     * when the entity does not exist on the server.
+     */
+    private SyncPushResponse.SyncResult detectConflict(
+            String entityType,
+            SyncPushRequest.SyncEntity<?> entity,
+            UUID ownerId,
+            OffsetDateTime serverUpdatedAt,
             UUID userId,
             List<SyncPushResponse.SyncConflict> conflicts) {
-        
-        UUID entityId = entity.id();
+
         String operation = entity.operation();
         OffsetDateTime clientUpdatedAt = entity.clientUpdatedAt();
 
-        Optional<Bill> existing = billRepository.findById(entityId);
-
-        // Check for conflicts
-        if (existing.isPresent()) {
-            Bill bill = existing.get();
-            if (!bill.getUserId().equals(userId)) {
-                throw new IllegalStateException("Bill does not belong to user");
+        if (ownerId != null) {
+            // Verify ownership
+            if (!ownerId.equals(userId)) {
+                throw new IllegalStateException(
+                        Character.toUpperCase(entityType.charAt(0)) + entityType.substring(1)
+                                + " does not belong to user");
             }
 
-            if (bill.getUpdatedAt().isAfter(clientUpdatedAt) && !"delete".equals(operation)) {
+            // Conflict: server was updated after client's last sync
+            if (serverUpdatedAt.isAfter(clientUpdatedAt) && !"delete".equals(operation)) {
                 conflicts.add(new SyncPushResponse.SyncConflict(
-                        "bill",
-                        entityId,
+                        entityType,
+                        entity.id(),
                         "server_updated_after_client",
-                        bill.getUpdatedAt(),
+                        serverUpdatedAt,
                         clientUpdatedAt
                 ));
                 return new SyncPushResponse.SyncResult(
-                        "bill",
-                        entityId,
+                        entityType,
+                        entity.id(),
                         operation,
                         false,
                         "Conflict: Server has newer version",
@@ -484,83 +601,111 @@ public class SyncService {
             }
         } else if ("update".equals(operation) || "delete".equals(operation)) {
             conflicts.add(new SyncPushResponse.SyncConflict(
-                    "bill",
-                    entityId,
+                    entityType,
+                    entity.id(),
                     "entity_deleted_on_server",
                     null,
                     clientUpdatedAt
             ));
             return new SyncPushResponse.SyncResult(
-                    "bill",
-                    entityId,
+                    entityType,
+                    entity.id(),
                     operation,
                     false,
                     "Conflict: Entity not found on server",
                     null
             );
         }
+        return null;
+    }
 
-        // Apply operation
-        switch (operation) {
-            case "create":
-                if (existing.isPresent()) {
-                    BillResponse updated = billService.update(entityId, entity.data());
-                    return new SyncPushResponse.SyncResult(
-                            "bill",
-                            entityId,
-                            "update",
-                            true,
-                            "Updated successfully",
-                            updated.id()
-                    );
-                } else {
-                    // Create bill and set userId manually
-                    Bill bill = new Bill();
-                    BillRequest request = entity.data();
-                    bill.setName(request.name());
-                    bill.setCategory(request.category());
-                    bill.setAmount(request.amount());
-                    bill.setNextDueDate(request.nextDueDate());
-                    bill.setFrequency(request.frequency());
-                    bill.setRemindDaysBefore(request.remindDaysBefore() != null ? request.remindDaysBefore() : 3);
-                    bill.setActive(true);
-                    bill.setUserId(userId);
-                    Bill saved = billRepository.save(bill);
-                    return new SyncPushResponse.SyncResult(
-                            "bill",
-                            entityId,
-                            operation,
-                            true,
-                            "Created successfully",
-                            saved.getId()
-                    );
-                }
-            case "update":
-                BillResponse updated = billService.update(entityId, entity.data());
-                return new SyncPushResponse.SyncResult(
-                        "bill",
-                        entityId,
-                        operation,
-                        true,
-                        "Updated successfully",
-                        updated.id()
-                );
-            case "delete":
-                billService.delete(entityId);
-                return new SyncPushResponse.SyncResult(
-                        "bill",
-                        entityId,
-                        operation,
-                        true,
-                        "Deleted successfully",
-                        null
-                );
-            default:
-                throw new IllegalArgumentException("Unknown operation: " + operation);
+    private <T> void fillCreatedResults(
+            String entityType,
+            List<? extends SyncPushRequest.SyncEntity<?>> entities,
+            int firstResultIndex,
+            List<T> created,
+            List<Integer> resultIndexes,
+            Function<T, UUID> idGetter,
+            List<SyncPushResponse.SyncResult> results) {
+        // Every pushed entity contributes exactly one result, in request order
+        for (int i = 0; i < created.size(); i++) {
+            int resultIndex = resultIndexes.get(i);
+            SyncPushRequest.SyncEntity<?> entity = entities.get(resultIndex - firstResultIndex);
+            results.set(resultIndex, success(
+                    entityType,
+                    entity.id(),
+                    entity.operation(),
+                    "Created successfully",
+                    idGetter.apply(created.get(i))
+            ));
         }
     }
 
-    private void updateSyncMetadata(UUID userId, String deviceId, OffsetDateTime syncAt) {
+    private SyncPushResponse.SyncResult success(
+            String entityType, UUID entityId, String operation, String message, UUID serverId) {
+        return new SyncPushResponse.SyncResult(entityType, entityId, operation, true, message, serverId);
+    }
+
+    private SyncPushResponse.SyncResult failure(
+            String entityType, UUID entityId, String operation, Exception e) {
+        return new SyncPushResponse.SyncResult(
+                entityType,
+                entityId,
+                operation,
+                false,
+                "Error: " + e.getMessage(),
+                null
+        );
+    }
+
+    /**
+     * Updates may carry only the changed fields; omitted (null) fields keep the
+     * server value. Expense updates already behave this way via ExpenseUpdateRequest.
+     */
+    private BudgetRequest mergeBudgetDelta(Budget existing, BudgetRequest delta) {
+        return new BudgetRequest(
+                delta.name() != null ? delta.name() : existing.getName(),
+                delta.amount() != null ? delta.amount() : existing.getAmount(),
+                delta.monthYear() != null ? delta.monthYear() : existing.getMonthYear()
+        );
+    }
+
+    private BillRequest mergeBillDelta(Bill existing, BillRequest delta) {
+        return new BillRequest(
+                delta.name() != null ? delta.name() : existing.getName(),
+                delta.category() != null ? delta.category() : existing.getCategory(),
+                delta.amount() != null ? delta.amount() : existing.getAmount(),
+                delta.nextDueDate() != null ? delta.nextDueDate() : existing.getNextDueDate(),
+                delta.frequency() != null ? delta.frequency() : existing.getFrequency(),
+                delta.remindDaysBefore() != null ? delta.remindDaysBefore() : existing.getRemindDaysBefore()
+        );
+    }
+
+    private com.personalfin.server.expense.dto.ExpenseUpdateRequest toExpenseUpdateRequest(
+            ExpenseCreateRequest data) {
+        return new com.personalfin.server.expense.dto.ExpenseUpdateRequest(
+                data.description(),
+                data.merchant(),
+                data.amount(),
+                data.transactionDate(),
+                data.category(),
+                data.paymentMethod()
+        );
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(
+                List<SyncPushRequest.SyncEntity<T>> chunk,
+                List<SyncPushResponse.SyncConflict> conflicts,
+                List<SyncPushResponse.SyncResult> results);
+    }
+
+    private void updateSyncMetadata(
+            UUID userId,
+            String deviceId,
+            OffsetDateTime syncAt,
+            LongUnaryOperator syncedChangeSeq) {
         Optional<SyncMetadata> existing = deviceId != null
                 ? syncMetadataRepository.findByUserIdAndDeviceId(userId, deviceId)
                 : syncMetadataRepository.findByUserId(userId);
@@ -569,6 +714,7 @@ public class SyncService {
         metadata.setUserId(userId);
         metadata.setDeviceId(deviceId);
         metadata.setLastSyncAt(syncAt);
+        metadata.setSyncedChangeSeq(syncedChangeSeq.applyAsLong(metadata.getSyncedChangeSeq()));
         syncMetadataRepository.save(metadata);
     }
 
@@ -1,14 +1,19 @@
 package com.personalfin.server.sync.web;
 
+import com.personalfin.server.auth.util.SecurityUtils;
 import com.personalfin.server.sync.dto.SyncPullResponse;
 import com.personalfin.server.sync.dto.SyncPushRequest;
 import com.personalfin.server.sync.dto.SyncPushResponse;
 import com.personalfin.server.sync.dto.SyncStatusResponse;
+import com.personalfin.server.sync.service.SyncChangeNotifier;
 import com.personalfin.server.sync.service.SyncService;
+import com.personalfin.server.user.service.UserService;
 import jakarta.validation.Valid;
 import java.time.OffsetDateTime;
+import java.util.UUID;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,20 +21,29 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/sync")
 public class SyncController {
 
     private final SyncService syncService;
+    private final SyncChangeNotifier syncChangeNotifier;
+    private final UserService userService;
 
-    public SyncController(SyncService syncService) {
+    public SyncController(SyncService syncService, SyncChangeNotifier syncChangeNotifier, UserService userService) {
         this.syncService = syncService;
+        this.syncChangeNotifier = syncChangeNotifier;
+        this.userService = userService;
     }
 
     /**
      * Push local changes to the server
      * 
+     * Accepts JSON or CBOR ({@code Content-Type: application/cbor}), optionally
+     * gzip-compressed with {@code Content-Encoding: gzip}. Update operations may
+     * send only the changed fields; omitted fields keep their server values.
+     * 
      * @param request Contains all local changes (create, update, delete operations)
      * @return Response with sync results, conflicts, and server sync timestamp
      */
@@ -42,6 +56,9 @@ public class SyncController {
     /**
      * Pull server changes since last sync
      * 
+     * Returns CBOR when requested with {@code Accept: application/cbor}; large
+     * responses are gzip-compressed for clients sending {@code Accept-Encoding: gzip}.
+     * 
      * @param lastSyncAt Optional timestamp of last sync (if not provided, uses stored metadata)
      * @param deviceId Optional device identifier for multi-device sync
      * @return Response with all changes since last sync
@@ -59,14 +76,29 @@ public class SyncController {
     /**
      * Get sync status (last sync time, pending changes count)
      * 
+     * Clients can skip the pull when {@code hasUnsyncedChanges} is false.
+     * 
+     * @param deviceId Optional device identifier for multi-device sync
      * @return Sync status information
      */
     @GetMapping("/status")
-    public ResponseEntity<SyncStatusResponse> getStatus() {
-        SyncStatusResponse response = syncService.getStatus();
+    public ResponseEntity<SyncStatusResponse> getStatus(@RequestParam(required = false) String deviceId) {
+        SyncStatusResponse response = syncService.getStatus(deviceId);
         return ResponseEntity.ok(response);
     }
-}
-
-
 
+    /**
+     * Stream of server-sent events, one {@code sync-changed} event per change to
+     * the user's data, so clients can pull on demand instead of polling.
+     * 
+     * @return Event stream; clients reconnect when it times out
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        UUID userId = SecurityUtils.getCurrentUserId(userService);
+        if (userId == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        return syncChangeNotifier.subscribe(userId);
+    }
+}
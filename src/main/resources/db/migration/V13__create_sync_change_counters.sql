@@ -0,0 +1,45 @@
+-- Per-user change counter so sync status can be answered without scanning entity tables.
+-- Maintained by triggers so every write path (including bulk deletes) is counted.
+-- No FK to users: rows cascading out of a deleted user would otherwise re-insert a counter
+-- for a user that is being removed.
+CREATE TABLE sync_change_counters (
+    user_id UUID PRIMARY KEY,
+    change_seq BIGINT NOT NULL DEFAULT 0,
+    last_changed_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Number of changes each device has already seen
+ALTER TABLE sync_metadata ADD COLUMN synced_change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION bump_sync_change_counter() RETURNS TRIGGER AS $$
+DECLARE
+    owner_id UUID;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        owner_id := OLD.user_id;
+    ELSE
+        owner_id := NEW.user_id;
+    END IF;
+
+    IF owner_id IS NOT NULL THEN
+        INSERT INTO sync_change_counters (user_id, change_seq, last_changed_at)
+        VALUES (owner_id, 1, NOW())
+        ON CONFLICT (user_id) DO UPDATE
+            SET change_seq = sync_change_counters.change_seq + 1,
+                last_changed_at = NOW();
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_expenses_sync_change
+    AFTER INSERT OR UPDATE OR DELETE ON expenses
+    FOR EACH ROW EXECUTE FUNCTION bump_sync_change_counter();
+
+CREATE TRIGGER trg_budgets_sync_change
+    AFTER INSERT OR UPDATE OR DELETE ON budgets
+    FOR EACH ROW EXECUTE FUNCTION bump_sync_change_counter();
+
+CREATE TRIGGER trg_bills_sync_change
+    AFTER INSERT OR UPDATE OR DELETE ON bills
+    FOR EACH ROW EXECUTE FUNCTION bump_sync_change_counter();
@@ -0,0 +1,24 @@
+-- Also publish each change on the sync_changes channel so connected devices can be
+-- notified. Postgres delivers NOTIFY on commit and collapses duplicate payloads
+-- within a transaction, so a bulk write sends one notification per user.
+CREATE OR REPLACE FUNCTION bump_sync_change_counter() RETURNS TRIGGER AS $$
+DECLARE
+    owner_id UUID;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        owner_id := OLD.user_id;
+    ELSE
+        owner_id := NEW.user_id;
+    END IF;
+
+    IF owner_id IS NOT NULL THEN
+        INSERT INTO sync_change_counters (user_id, change_seq, last_changed_at)
+        VALUES (owner_id, 1, NOW())
+        ON CONFLICT (user_id) DO UPDATE
+            SET change_seq = sync_change_counters.change_seq + 1,
+                last_changed_at = NOW();
+        PERFORM pg_notify('sync_changes', owner_id::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
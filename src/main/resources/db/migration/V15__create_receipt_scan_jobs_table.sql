@@ -0,0 +1,25 @@
+-- Asynchronous receipt scans. The uploaded image is kept only until the scan finishes.
+CREATE TABLE receipt_scan_jobs (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    image_hash VARCHAR(64) NOT NULL,
+    image_data BYTEA,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    ocr_text TEXT,
+    amount NUMERIC(14, 2),
+    merchant TEXT,
+    transaction_date DATE,
+    category VARCHAR(60),
+    error_message TEXT,
+    claimed_at TIMESTAMPTZ,
+    completed_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_receipt_scan_jobs_user_id ON receipt_scan_jobs (user_id);
+-- Result cache lookups by image content
+CREATE INDEX idx_receipt_scan_jobs_completed_hash ON receipt_scan_jobs (image_hash) WHERE status = 'COMPLETED';
+-- Work queue scans
+CREATE INDEX idx_receipt_scan_jobs_open ON receipt_scan_jobs (status, created_at) WHERE status IN ('PENDING', 'PROCESSING');
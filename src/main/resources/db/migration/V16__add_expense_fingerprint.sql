@@ -0,0 +1,19 @@
+-- Duplicate-detection key: first 64 bits of md5(normalized payee || '|' || amount).
+-- Must match ExpenseFingerprint, which computes it on every write from the application.
+ALTER TABLE expenses ADD COLUMN fingerprint BIGINT;
+
+-- The backfill changes no user-visible data, so keep it out of the sync change counters
+ALTER TABLE expenses DISABLE TRIGGER trg_expenses_sync_change;
+
+UPDATE expenses
+SET fingerprint = ('x' || substr(md5(
+        coalesce(
+            nullif(regexp_replace(lower(coalesce(merchant, '')), '[^a-z0-9]', '', 'g'), ''),
+            regexp_replace(lower(description), '[^a-z0-9]', '', 'g'))
+        || '|' || amount::text), 1, 16))::bit(64)::bigint;
+
+ALTER TABLE expenses ENABLE TRIGGER trg_expenses_sync_change;
+
+-- Serves both the likely-duplicates query (fingerprint plus a date window) and import dedupe
+CREATE INDEX idx_expenses_user_fingerprint
+    ON expenses (user_id, fingerprint, transaction_date);
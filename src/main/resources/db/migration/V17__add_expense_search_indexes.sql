@@ -0,0 +1,18 @@
+-- Ranked expense search: a full-text vector over merchant (weighted higher) and description,
+-- plus trigram indexes for substring and misspelled searches. 'simple' avoids English
+-- stemming, which does more harm than good on merchant names and bank narrations.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE expenses ADD COLUMN search_vector TSVECTOR
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(merchant, '')), 'A')
+        || setweight(to_tsvector('simple', description), 'B')
+    ) STORED;
+
+CREATE INDEX idx_expenses_search_vector ON expenses USING GIN (search_vector);
+CREATE INDEX idx_expenses_description_trgm ON expenses USING GIN (lower(description) gin_trgm_ops);
+CREATE INDEX idx_expenses_merchant_trgm ON expenses USING GIN (lower(merchant) gin_trgm_ops);
+
+-- The category and payment method filters compare lower(column)
+CREATE INDEX idx_expenses_user_category ON expenses (user_id, lower(category));
+CREATE INDEX idx_expenses_user_payment_method ON expenses (user_id, lower(payment_method));
@@ -0,0 +1,81 @@
+-- Range-partition audit_logs and login_attempts by month of created_at (UTC) so
+-- time-bounded queries touch only recent partitions and retention is a DROP TABLE.
+-- Partition names are <table>_pYYYYMM; SecurityLogPartitionMaintainer relies on
+-- that to create upcoming months and drop expired ones.
+
+ALTER TABLE audit_logs RENAME TO audit_logs_unpartitioned;
+ALTER TABLE audit_logs_unpartitioned RENAME CONSTRAINT audit_logs_pkey TO audit_logs_unpartitioned_pkey;
+DROP INDEX idx_audit_logs_user_id;
+DROP INDEX idx_audit_logs_event_type;
+DROP INDEX idx_audit_logs_created_at;
+
+ALTER TABLE login_attempts RENAME TO login_attempts_unpartitioned;
+ALTER TABLE login_attempts_unpartitioned RENAME CONSTRAINT login_attempts_pkey TO login_attempts_unpartitioned_pkey;
+DROP INDEX idx_login_attempts_username;
+DROP INDEX idx_login_attempts_ip_address;
+DROP INDEX idx_login_attempts_created_at;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE audit_logs (
+    id UUID NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    user_id UUID,
+    username VARCHAR(100),
+    ip_address VARCHAR(45),
+    details TEXT,
+    success BOOLEAN NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_audit_logs_user_id ON audit_logs (user_id, created_at);
+CREATE INDEX idx_audit_logs_event_type ON audit_logs (event_type, created_at);
+CREATE INDEX idx_audit_logs_created_at ON audit_logs (created_at);
+
+CREATE TABLE login_attempts (
+    id UUID NOT NULL,
+    username VARCHAR(100) NOT NULL,
+    ip_address VARCHAR(45),
+    successful BOOLEAN NOT NULL,
+    failure_reason VARCHAR(255),
+    created_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_login_attempts_username ON login_attempts (username, created_at);
+CREATE INDEX idx_login_attempts_ip_address ON login_attempts (ip_address, created_at);
+CREATE INDEX idx_login_attempts_created_at ON login_attempts (created_at);
+
+-- One partition per month from the oldest existing row through two months ahead,
+-- plus a default partition so a missed maintenance run never rejects writes
+DO $$
+DECLARE
+    parent TEXT;
+    month DATE;
+    last_month DATE := (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '2 months')::date;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY['audit_logs', 'login_attempts'] LOOP
+        EXECUTE format('SELECT date_trunc(''month'', coalesce(min(created_at), now()) AT TIME ZONE ''UTC'')::date FROM %I',
+                       parent || '_unpartitioned')
+            INTO month;
+        WHILE month <= last_month LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           parent || '_p' || to_char(month, 'YYYYMM'), parent,
+                           month::timestamp AT TIME ZONE 'UTC',
+                           (month + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            month := (month + INTERVAL '1 month')::date;
+        END LOOP;
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+    END LOOP;
+END $$;
+
+INSERT INTO audit_logs (id, event_type, user_id, username, ip_address, details, success, created_at)
+SELECT id, event_type, user_id, username, ip_address, details, success, created_at
+FROM audit_logs_unpartitioned;
+
+INSERT INTO login_attempts (id, username, ip_address, successful, failure_reason, created_at)
+SELECT id, username, ip_address, successful, failure_reason, created_at
+FROM login_attempts_unpartitioned;
+
+DROP TABLE audit_logs_unpartitioned;
+DROP TABLE login_attempts_unpartitioned;
@@ -0,0 +1,11 @@
+-- Shared Bucket4j state for rate-limit.backend=jdbc, updated by compare-and-swap on state.
+-- UNLOGGED: losing buckets in a crash only resets rate limits, and skipping WAL keeps
+-- the per-batch writes cheap.
+CREATE UNLOGGED TABLE rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    state BYTEA NOT NULL,
+    -- Epoch millis after which the bucket has refilled completely and can be deleted
+    expires_at BIGINT
+);
+
+CREATE INDEX idx_rate_limit_buckets_expires_at ON rate_limit_buckets (expires_at);
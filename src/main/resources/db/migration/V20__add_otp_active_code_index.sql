@@ -0,0 +1,8 @@
+-- Active-code lookup: latest unused code for an email. Used codes drop out of
+-- the index, and the scheduled purge keeps expired ones from accumulating.
+CREATE INDEX idx_otp_codes_active ON otp_codes (email, created_at DESC) WHERE used = FALSE;
+
+-- Throttle fallback after a restart: latest code for an email, used or not.
+-- Supersedes the single-column email index.
+CREATE INDEX idx_otp_codes_email_created_at ON otp_codes (email, created_at DESC);
+DROP INDEX IF EXISTS idx_otp_codes_email;
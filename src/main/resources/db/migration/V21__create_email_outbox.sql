@@ -0,0 +1,25 @@
+-- Outgoing mail, written in the caller's transaction and delivered by EmailOutbox.
+-- Bodies are stored AES-GCM encrypted (see EmailBodyCipher). Delivered rows are
+-- deleted; FAILED rows keep the error but not the body.
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body_encrypted BYTEA,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    claim_token UUID,
+    claimed_until TIMESTAMPTZ,
+    last_error VARCHAR(500),
+    -- Mail that is useless after a deadline (e.g. an OTP) is dropped once it passes
+    expires_at TIMESTAMPTZ,
+    -- When a message was given up on; FAILED rows are purged after a retention period
+    failed_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX idx_email_outbox_claim_token ON email_outbox (claim_token) WHERE claim_token IS NOT NULL;
+CREATE INDEX idx_email_outbox_expires_at ON email_outbox (expires_at) WHERE status = 'PENDING';
+CREATE INDEX idx_email_outbox_failed_at ON email_outbox (failed_at) WHERE status = 'FAILED';
@@ -0,0 +1,164 @@
+package com.personalfin.server.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.auth.model.OtpCode;
+import com.personalfin.server.auth.repository.OtpCodeRepository;
+import com.personalfin.server.email.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class OtpServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-10T09:00:00Z");
+
+    @Mock
+    private OtpCodeRepository otpCodeRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OtpService otpService;
+
+    @BeforeEach
+    void init() {
+        otpService = new OtpService(otpCodeRepository, emailService, jdbcTemplate,
+                Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry, 2);
+    }
+
+    @Test
+    void shouldThrottleRepeatRequestsFromMemory() {
+        when(otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc("new@example.com")).thenReturn(Optional.empty());
+
+        otpService.generateOtp("New@Example.com");
+
+        assertThatThrownBy(() -> otpService.generateOtp("new@example.com"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Please wait");
+        // Second request answered by the in-memory throttle
+        verify(otpCodeRepository, times(1)).findFirstByEmailOrderByCreatedAtDesc(anyString());
+        verify(emailService).sendOtpEmail(eq("new@example.com"), anyString(), eq(NOW.plusSeconds(600)));
+        assertThat(meterRegistry.get("auth.otp.issued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseTheThrottleSlotWhenTheTransactionRollsBack() {
+        when(otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc("new@example.com")).thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("smtp down")).doNothing()
+                .when(emailService).sendOtpEmail(anyString(), anyString(), any());
+
+        assertThatThrownBy(() -> inTransaction(() -> otpService.generateOtp("new@example.com")))
+                .isInstanceOf(IllegalStateException.class);
+        inTransaction(() -> otpService.generateOtp("new@example.com"));
+
+        assertThatThrownBy(() -> inTransaction(() -> otpService.generateOtp("new@example.com")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Please wait");
+        verify(emailService, times(2)).sendOtpEmail(eq("new@example.com"), anyString(), any());
+    }
+
+    @Test
+    void shouldFallBackToStoredCodesRightAfterStartup() {
+        OtpCode beforeRestart = new OtpCode();
+        beforeRestart.setCreatedAt(OffsetDateTime.ofInstant(NOW.minusSeconds(30), ZoneOffset.UTC));
+        when(otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc("user@example.com"))
+                .thenReturn(Optional.of(beforeRestart));
+
+        assertThatThrownBy(() -> otpService.generateOtp("user@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(otpCodeRepository, times(0)).save(any());
+    }
+
+    @Test
+    void shouldLetTheStoredCodeDecideWhenTheNextRequestIsAllowedDuringWarmUp() {
+        SettableClock clock = new SettableClock(NOW);
+        otpService = new OtpService(otpCodeRepository, emailService, jdbcTemplate, clock, meterRegistry, 2);
+        OtpCode beforeRestart = new OtpCode();
+        beforeRestart.setCreatedAt(OffsetDateTime.ofInstant(NOW.minusSeconds(30), ZoneOffset.UTC));
+        when(otpCodeRepository.findFirstByEmailOrderByCreatedAtDesc("user@example.com"))
+                .thenReturn(Optional.of(beforeRestart));
+
+        assertThatThrownBy(() -> otpService.generateOtp("user@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+        // A minute after the stored code, though not yet a minute after the throttled request
+        clock.now = NOW.plusSeconds(31);
+        otpService.generateOtp("user@example.com");
+
+        verify(emailService).sendOtpEmail(eq("user@example.com"), anyString(), any());
+    }
+
+    @Test
+    void shouldPurgeExpiredCodesInBatches() {
+        when(jdbcTemplate.update(anyString(), any(), eq(2))).thenReturn(2, 2, 1);
+
+        otpService.purgeExpiredCodes();
+
+        verify(jdbcTemplate, times(3)).update(anyString(), any(), eq(2));
+        assertThat(meterRegistry.get("auth.otp.purged").counter().count()).isEqualTo(5);
+    }
+
+    private static final class SettableClock extends Clock {
+
+        private Instant now;
+
+        SettableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Runs like a @Transactional call: commits on return, rolls back on exception
+    private static void inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        int status = TransactionSynchronization.STATUS_ROLLED_BACK;
+        try {
+            work.run();
+            status = TransactionSynchronization.STATUS_COMMITTED;
+        } finally {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(status);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.personalfin.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+class DataVersionEtagInterceptorTest {
+
+    private final AtomicLong version = new AtomicLong(7);
+    private final DataVersionEtagInterceptor interceptor = new DataVersionEtagInterceptor(
+            username -> Long.toString(version.get()),
+            Clock.fixed(Instant.parse("2025-03-15T10:00:00Z"), ZoneOffset.UTC));
+
+    @BeforeEach
+    void authenticate() {
+        User user = new User("asha", "x", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilVersionChanges() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(null), first, null)).isTrue();
+        String etag = first.getHeader("ETag");
+        assertThat(etag).startsWith("W/\"7-2025-03-15-");
+
+        MockHttpServletResponse revalidated = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(etag), revalidated, null)).isFalse();
+        assertThat(revalidated.getStatus()).isEqualTo(304);
+
+        version.incrementAndGet();
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(etag), changed, null)).isTrue();
+        assertThat(changed.getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void shouldLeaveWritesAlone() {
+        MockHttpServletRequest put = new MockHttpServletRequest("PUT", "/api/preferences");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(put, response, null)).isTrue();
+        assertThat(response.getHeader("ETag")).isNull();
+    }
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/expenses/heatmap");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,56 @@
+package com.personalfin.server.config.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.config.RateLimitingConfig;
+import com.personalfin.server.config.RateLimitingConfig.Tier;
+import com.personalfin.server.config.ratelimit.LocalRateLimitBackend;
+import com.personalfin.server.config.ratelimit.RateLimiter;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitingFilterTest {
+
+    private final RateLimitingFilter filter = new RateLimitingFilter(new RateLimiter(
+            new LocalRateLimitBackend(), config()));
+
+    @Test
+    void shouldChargeRouteCostAgainstItsOwnTier() throws ServletException, IOException {
+        // Export tier holds 12 tokens; a PDF costs 5
+        MockHttpServletResponse first = send("GET", "/api/expenses/export/pdf");
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("X-RateLimit-Limit")).isEqualTo("12");
+        assertThat(first.getHeader("X-RateLimit-Remaining")).isEqualTo("7");
+        // Ten tokens come back at once every minute, which refills the bucket
+        assertThat(first.getHeader("X-RateLimit-Reset")).isEqualTo("60");
+        assertThat(first.getHeader("Retry-After")).isNull();
+
+        assertThat(send("GET", "/api/expenses/export/pdf").getHeader("X-RateLimit-Remaining")).isEqualTo("2");
+        MockHttpServletResponse limited = send("GET", "/api/expenses/export/pdf");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(limited.getHeader("X-RateLimit-Reset")).isEqualTo("60");
+
+        // A CSV export still fits, and the API tier is untouched
+        assertThat(send("GET", "/api/expenses/export/csv").getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/api/expenses").getHeader("X-RateLimit-Remaining")).isEqualTo("109");
+    }
+
+    private MockHttpServletResponse send(String method, String path) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("10.0.0.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RateLimitingConfig config() {
+        RateLimitingConfig config = new RateLimitingConfig();
+        config.setExport(new Tier(10, 2, 0));
+        return config;
+    }
+}
@@ -0,0 +1,62 @@
+package com.personalfin.server.config.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.config.RateLimitingConfig.Tier;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class JdbcRateLimitBackendTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:rate_limit;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final Tier tier = new Tier(5, 5, 0);
+
+    @BeforeEach
+    void createTable() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS rate_limit_buckets");
+        jdbcTemplate.execute("CREATE TABLE rate_limit_buckets (bucket_key VARCHAR(255) PRIMARY KEY, "
+                + "state BYTEA NOT NULL, expires_at BIGINT)");
+    }
+
+    @Test
+    void shouldEnforceOneLimitAcrossInstancesSharingTheDatabase() {
+        JdbcRateLimitBackend first = backend();
+        JdbcRateLimitBackend second = backend();
+        BucketConfiguration auth = tier.bucketConfiguration();
+
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) {
+            JdbcRateLimitBackend node = i % 2 == 0 ? first : second;
+            if (node.resolve("auth:ip:10.0.0.1", auth, 0).tryConsume(1)) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(10);
+        assertThat(second.resolve("auth:ip:10.0.0.2", auth, 0).tryConsume(1)).isTrue();
+    }
+
+    @Test
+    void shouldRemoveOnlyBucketsThatHaveRefilled() {
+        JdbcBucketProxyManager manager = new JdbcBucketProxyManager(jdbcTemplate,
+                ClientSideConfig.getDefault().withExpirationAfterWriteStrategy(
+                        ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ZERO)));
+        manager.builder().build("api:asha", () -> tier.bucketConfiguration()).tryConsume(1);
+
+        assertThat(manager.removeExpired(System.currentTimeMillis())).isZero();
+        assertThat(manager.removeExpired(System.currentTimeMillis() + Duration.ofMinutes(5).toMillis()))
+                .isEqualTo(1);
+    }
+
+    private JdbcRateLimitBackend backend() {
+        return new JdbcRateLimitBackend(jdbcTemplate, Clock.systemUTC(), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,141 @@
+package com.personalfin.server.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.email.config.EmailOutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+class EmailOutboxTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:email_outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final LocalSmtpServer smtp = new LocalSmtpServer(Set.of("bounce@example.com"));
+    private EmailOutbox outbox;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS email_outbox");
+        jdbcTemplate.execute("""
+                CREATE TABLE email_outbox (id UUID PRIMARY KEY, recipient VARCHAR(255) NOT NULL,
+                    subject VARCHAR(255) NOT NULL, body_encrypted BYTEA,
+                    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', attempts INT NOT NULL DEFAULT 0,
+                    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL, claim_token UUID,
+                    claimed_until TIMESTAMP WITH TIME ZONE, last_error VARCHAR(500),
+                    expires_at TIMESTAMP WITH TIME ZONE, failed_at TIMESTAMP WITH TIME ZONE,
+                    created_at TIMESTAMP WITH TIME ZONE NOT NULL)
+                """);
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        EmailOutboxProperties properties = new EmailOutboxProperties();
+        properties.setEncryptionKey(Base64.getEncoder().encodeToString(new byte[32]));
+        outbox = new EmailOutbox(jdbcTemplate, mailSender, Clock.systemUTC(), new SimpleMeterRegistry(),
+                properties, "no-reply@example.com");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        outbox.stop();
+        smtp.close();
+    }
+
+    @Test
+    void shouldDeliverAClaimedBatchOverOneConnection() throws InterruptedException {
+        outbox.enqueue("a@example.com", "OTP", "123456");
+        outbox.enqueue("b@example.com", "OTP", "234567");
+        outbox.enqueue("c@example.com", "OTP", "345678");
+
+        assertThat(outbox.dispatchBatch()).isEqualTo(3);
+
+        await(() -> rows() == 0);
+        assertThat(smtp.deliveredTo()).containsExactlyInAnyOrder("a@example.com", "b@example.com", "c@example.com");
+        assertThat(smtp.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRescheduleRejectedMessagesWithBackoff() throws InterruptedException {
+        Instant before = Instant.now();
+        outbox.enqueue("a@example.com", "OTP", "123456");
+        outbox.enqueue("bounce@example.com", "OTP", "234567");
+
+        outbox.dispatchBatch();
+
+        await(() -> rows() == 1 && attempts() == 1);
+        Map<String, Object> retry = jdbcTemplate.queryForMap(
+                "SELECT recipient, status, claim_token, next_attempt_at FROM email_outbox");
+        assertThat(retry.get("RECIPIENT")).isEqualTo("bounce@example.com");
+        assertThat(retry.get("STATUS")).isEqualTo("PENDING");
+        assertThat(retry.get("CLAIM_TOKEN")).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT next_attempt_at FROM email_outbox", Timestamp.class)
+                .toInstant()).isAfter(before.plusSeconds(9));
+        assertThat(smtp.deliveredTo()).containsExactly("a@example.com");
+        // Not due yet
+        assertThat(outbox.dispatchBatch()).isZero();
+    }
+
+    @Test
+    void shouldNotStoreThePlaintextBody() {
+        outbox.enqueue("a@example.com", "OTP", "Your verification code is: 123456");
+
+        byte[] stored = jdbcTemplate.queryForObject("SELECT body_encrypted FROM email_outbox", byte[].class);
+        assertThat(new String(stored, StandardCharsets.ISO_8859_1)).doesNotContain("123456");
+    }
+
+    @Test
+    void shouldDropExpiredMailUnsentAndPurgeOldFailures() {
+        Instant now = Instant.now();
+        outbox.enqueue("late@example.com", "OTP", "123456", now.minusSeconds(1));
+        outbox.enqueue("fresh@example.com", "OTP", "234567", now.plusSeconds(600));
+        jdbcTemplate.update("INSERT INTO email_outbox (id, recipient, subject, status, attempts, next_attempt_at, "
+                + "failed_at, created_at) VALUES (?, 'old@example.com', 'OTP', 'FAILED', 6, ?, ?, ?)",
+                UUID.randomUUID(), Timestamp.from(now), Timestamp.from(now.minus(Duration.ofDays(8))),
+                Timestamp.from(now));
+
+        outbox.purge();
+
+        assertThat(jdbcTemplate.queryForList("SELECT recipient FROM email_outbox", String.class))
+                .containsExactly("fresh@example.com");
+    }
+
+    @Test
+    void shouldDoubleTheBackoffUpToTheMaximum() {
+        Duration initial = Duration.ofSeconds(10);
+        Duration max = Duration.ofMinutes(15);
+
+        assertThat(EmailOutbox.backoff(1, initial, max)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(EmailOutbox.backoff(3, initial, max)).isEqualTo(Duration.ofSeconds(40));
+        assertThat(EmailOutbox.backoff(20, initial, max)).isEqualTo(max);
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox", Integer.class);
+    }
+
+    private int attempts() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(attempts), 0) FROM email_outbox", Integer.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out waiting for delivery").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.personalfin.server.expense.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class ExpenseFingerprintTest {
+
+    @Test
+    void shouldIgnoreCasePunctuationAndAmountScale() {
+        assertThat(ExpenseFingerprint.of("UPI-SWIGGY,  Bangalore", null, new BigDecimal("1250")))
+                .isEqualTo(ExpenseFingerprint.of("upi swiggy bangalore", "Dinner", new BigDecimal("1250.00")));
+    }
+
+    @Test
+    void shouldFallBackToDescriptionWithoutMerchant() {
+        assertThat(ExpenseFingerprint.of(" - ", "Swiggy order", new BigDecimal("300.00")))
+                .isEqualTo(ExpenseFingerprint.of(null, "SWIGGY ORDER", new BigDecimal("300.00")))
+                .isNotEqualTo(ExpenseFingerprint.of(null, "SWIGGY ORDER", new BigDecimal("300.01")));
+    }
+
+    @Test
+    void shouldMatchMigrationBackfill() {
+        // ('x' || substr(md5('upiswiggybangalore|1250.00'), 1, 16))::bit(64)::bigint
+        assertThat(ExpenseFingerprint.of("UPI-SWIGGY Bangalore", null, new BigDecimal("1250.00")))
+                .isEqualTo(1059558662778672309L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.personalfin.server.expense.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.expense.dto.ExpenseFilterRequest;
+import com.personalfin.server.expense.dto.ExpenseResponse;
+import com.personalfin.server.support.PostgresTestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Tag;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+class ExpenseSearchRepositoryImplTest {
+
+    @Test
+    void shouldBuildPrefixQueryFromWordsOnly() {
+        assertThat(ExpenseSearchRepositoryImpl.prefixQuery("big  baz")).isEqualTo("big:* & baz:*");
+        assertThat(ExpenseSearchRepositoryImpl.prefixQuery("a&b|!c:*")).isEqualTo("a:* & b:* & c:*");
+        assertThat(ExpenseSearchRepositoryImpl.prefixQuery("%_")).isNull();
+    }
+
+    /** Runs the migrations (trigram and full-text indexes from V17) and the ranked search on PostgreSQL. */
+    @Test
+    @Tag(PostgresTestDatabase.TAG)
+    void shouldRankMatchesOnPostgres() {
+        try (HikariDataSource dataSource = PostgresTestDatabase.start("expense_search")) {
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            assertRankedSearch(dataSource);
+        }
+    }
+
+    private static void assertRankedSearch(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        for (UUID id : List.of(userId, otherUserId)) {
+            jdbc.update("INSERT INTO users (id, username, email, password_hash, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, 'x', ?, ?)", id, id.toString().substring(0, 8), id + "@test", now, now);
+        }
+        insert(jdbc, userId, "Weekly groceries", "Big Bazaar", "Shopping", "UPI", "2025-03-01");
+        insert(jdbc, userId, "Snacks at BIG BAZAAR counter", null, "Food", "Card", "2025-03-02");
+        insert(jdbc, userId, "Dinner", "Swiggy", "Food", "UPI", "2025-03-03");
+        insert(jdbc, otherUserId, "Groceries", "Big Bazaar", "Shopping", "UPI", "2025-03-01");
+
+        ExpenseSearchRepositoryImpl repository =
+                new ExpenseSearchRepositoryImpl(new NamedParameterJdbcTemplate(dataSource));
+        assertThat(repository.supportsRankedSearch()).isTrue();
+
+        // Merchant matches outrank description matches
+        assertThat(search(repository, userId, "big baz", null))
+                .extracting(ExpenseResponse::description)
+                .containsExactly("Weekly groceries", "Snacks at BIG BAZAAR counter");
+        // Substring and typo
+        assertThat(search(repository, userId, "azaa", null)).hasSize(2);
+        assertThat(search(repository, userId, "swigy", null))
+                .extracting(ExpenseResponse::merchant)
+                .containsExactly("Swiggy");
+        // Other filters still apply
+        assertThat(search(repository, userId, "bazaar", "FOOD"))
+                .extracting(ExpenseResponse::category)
+                .containsExactly("Food");
+    }
+
+    private static List<ExpenseResponse> search(ExpenseSearchRepositoryImpl repository, UUID userId,
+                                                String text, String category) {
+        return repository.searchRanked(userId,
+                new ExpenseFilterRequest(null, null, category, null, null, text, null));
+    }
+
+    private static void insert(JdbcTemplate jdbc, UUID userId, String description, String merchant,
+                               String category, String paymentMethod, String date) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        jdbc.update("INSERT INTO expenses (id, description, merchant, category, amount, transaction_date, "
+                        + "payment_method, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), description, merchant, category, new BigDecimal("100.00"),
+                LocalDate.parse(date), paymentMethod, userId, now, now);
+    }
+}
@@ -0,0 +1,125 @@
+package com.personalfin.server.expense.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.expense.config.ExpenseCategorizerProperties;
+import com.personalfin.server.expense.config.ExpenseImportProperties;
+import com.personalfin.server.expense.dto.ExpenseImportResponse;
+import com.personalfin.server.support.Benchmark;
+import com.personalfin.server.user.model.User;
+import com.personalfin.server.user.service.UserService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Imports a generated 50,000-row statement into H2 with the production batch
+ * size: once into an empty table, then again so every row is a duplicate. The
+ * second import is repeated while sampling the retained heap after each batch;
+ * H2 keeps its tables on the heap too, but a re-import inserts nothing, so any
+ * growth there is the import's own state.
+ */
+@Tag(Benchmark.TAG)
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExpenseImportBenchmark {
+
+    private static final int ROWS = 50_000;
+    private static final int ROWS_PER_DAY = 70;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(userService.getUserByUsername("bench")).thenReturn(user);
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername("bench").password("n/a").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        importService = new ExpenseImportService(jdbcTemplate, new RuleBasedExpenseCategorizer(new ExpenseCategorizerProperties()),
+                new ExpenseImportProperties(), userService, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM expenses");
+    }
+
+    @Test
+    void importFiftyThousandRows() throws IOException {
+        byte[] statement = statement();
+
+        long start = System.nanoTime();
+        ExpenseImportResponse first = importStatement(statement, progress -> { });
+        long firstMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        ExpenseImportResponse second = importStatement(statement, progress -> { });
+        long secondMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long baseline = Benchmark.retainedHeapBytes();
+        long[] peak = {baseline};
+        importStatement(statement, progress -> peak[0] = Math.max(peak[0], Benchmark.retainedHeapBytes()));
+
+        assertThat(first.imported()).isEqualTo(ROWS);
+        assertThat(second.duplicates()).isEqualTo(ROWS);
+        Benchmark.report("expense-import", "%d rows (%.1f MB CSV): first import %d ms, re-import %d ms",
+                ROWS, statement.length / 1e6, firstMillis, secondMillis);
+        Benchmark.report("expense-import", "retained heap growth during re-import: %.2f MB",
+                (peak[0] - baseline) / 1e6);
+    }
+
+    private ExpenseImportResponse importStatement(
+            byte[] statement, Consumer<ExpenseImportResponse> progress) throws IOException {
+        return importService.importStatement(new ByteArrayInputStream(statement), progress);
+    }
+
+    // Date-ordered like a bank export, with a distinct narration on every row
+    private static byte[] statement() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        LocalDate firstDay = LocalDate.of(2023, 1, 1);
+        StringBuilder csv = new StringBuilder(ROWS * 80)
+                .append("Date,Narration,Chq./Ref.No.,Withdrawal Amt.,Deposit Amt.,Closing Balance\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(firstDay.plusDays(i / ROWS_PER_DAY).format(format))
+                    .append(",UPI-MERCHANT ").append(i).append(" BANGALORE,")
+                    .append(4_000_000 + i).append(',')
+                    .append(10 + i % 4_990).append('.').append(String.format("%02d", i % 100))
+                    .append(",,100000.00\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
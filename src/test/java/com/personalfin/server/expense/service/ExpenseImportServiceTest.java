@@ -0,0 +1,151 @@
+package com.personalfin.server.expense.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.expense.config.ExpenseImportProperties;
+import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
+import com.personalfin.server.expense.dto.ExpenseImportResponse;
+import com.personalfin.server.user.model.User;
+import com.personalfin.server.user.service.UserService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Imports statements into a real {@code expenses} table on H2, so duplicate
+ * detection runs through the same fingerprint query and inserts as production.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+// Each import batch commits in its own transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExpenseImportServiceTest {
+
+    private static final String STATEMENT = """
+            Date,Narration,Chq./Ref.No.,Withdrawal Amt.,Deposit Amt.,Closing Balance
+            03/03/2025,"UPI-SWIGGY, BANGALORE",0000406212,"1,250.00",,48750.00
+            04/03/2025,DMART AUNDH,0000406213,845.50,,47904.50
+            05/03/2025,SALARY MARCH,0000406214,,"85,000.00",132904.50
+            06/03/2025,METRO CARD RECHARGE,0000406215,500.00,,132404.50
+            06/03/2025,METRO CARD RECHARGE,0000406216,500.00,,131904.50
+            07/03/2025,"ATM WDL ""MG ROAD""\",0000406217,2000.00,,129904.50
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final UUID userId = UUID.randomUUID();
+    private ExpenseImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        User user = new User();
+        user.setId(userId);
+        when(userService.getUserByUsername("alice")).thenReturn(user);
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername("alice").password("n/a").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        ExpenseCategorizer categorizer = mock(ExpenseCategorizer.class);
+        when(categorizer.categorizeAll(any())).thenAnswer(invocation -> {
+            List<ExpenseCategorizationResponse> responses = new ArrayList<>();
+            for (Object ignored : invocation.getArgument(0, List.class)) {
+                responses.add(new ExpenseCategorizationResponse("Other", 0.1, null, Map.of()));
+            }
+            return responses;
+        });
+        ExpenseImportProperties properties = new ExpenseImportProperties();
+        // Small batches so duplicates are found across batch boundaries too
+        properties.setBatchSize(2);
+        importService = new ExpenseImportService(
+                jdbcTemplate, categorizer, properties, userService, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM expenses");
+    }
+
+    @Test
+    void shouldInsertNothingWhenTheSameStatementIsImportedTwice() throws IOException {
+        ExpenseImportResponse first = importStatement(STATEMENT);
+        ExpenseImportResponse second = importStatement(STATEMENT);
+
+        assertThat(first.imported()).isEqualTo(5);
+        assertThat(first.duplicates()).isZero();
+        assertThat(second.rowsRead()).isEqualTo(first.rowsRead());
+        assertThat(second.imported()).isZero();
+        assertThat(second.duplicates()).isEqualTo(5);
+        assertThat(second.skipped()).isEqualTo(1);
+        assertThat(second.complete()).isTrue();
+        assertThat(expenseCount()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldMatchDuplicatesWhateverTheirFormatting() throws IOException {
+        importStatement(STATEMENT);
+
+        ExpenseImportResponse reformatted = importStatement("""
+                Date,Narration,Chq./Ref.No.,Withdrawal Amt.,Deposit Amt.,Closing Balance
+                03/03/2025,upi swiggy bangalore,1,1250,,0
+                04/03/2025,Dmart - Aundh,2,845.5,,0
+                """);
+
+        assertThat(reformatted.imported()).isZero();
+        assertThat(reformatted.duplicates()).isEqualTo(2);
+        assertThat(expenseCount()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldImportRepeatedRowsBeyondTheExistingCopies() throws IOException {
+        importStatement(STATEMENT);
+
+        // A third identical recharge on the same day is new; the first two are already there
+        ExpenseImportResponse response = importStatement("""
+                Date,Narration,Chq./Ref.No.,Withdrawal Amt.,Deposit Amt.,Closing Balance
+                06/03/2025,METRO CARD RECHARGE,1,500.00,,0
+                06/03/2025,METRO CARD RECHARGE,2,500.00,,0
+                06/03/2025,METRO CARD RECHARGE,3,500.00,,0
+                """);
+
+        assertThat(response.duplicates()).isEqualTo(2);
+        assertThat(response.imported()).isEqualTo(1);
+        assertThat(expenseCount()).isEqualTo(6);
+    }
+
+    private ExpenseImportResponse importStatement(String csv) throws IOException {
+        return importService.importStatement(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), progress -> { });
+    }
+
+    private long expenseCount() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COUNT(*) FROM expenses WHERE user_id = ?", Long.class, userId);
+    }
+}
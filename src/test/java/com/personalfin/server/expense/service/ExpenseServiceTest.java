@@ -1,16 +1,23 @@
 package com.personalfin.server.expense.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import com.personalfin.server.budget.service.DailySpendCoachService;
 import com.personalfin.server.expense.config.ExpenseAnalyticsProperties;
+import com.personalfin.server.expense.config.ExpenseDuplicateProperties;
+import com.personalfin.server.expense.dto.CategorySpendingSummary;
 import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
 import com.personalfin.server.expense.dto.ExpenseCreateRequest;
 import com.personalfin.server.expense.dto.ExpenseHeatmapPoint;
+import com.personalfin.server.expense.dto.ExpenseListResponse;
 import com.personalfin.server.expense.dto.ExpenseResponse;
 import com.personalfin.server.expense.model.Expense;
 import com.personalfin.server.expense.repository.ExpenseRepository;
+import com.personalfin.server.user.service.UserService;
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.LocalDate;
@@ -32,6 +39,12 @@ class ExpenseServiceTest {
     @Mock
     private ExpenseCategorizer expenseCategorizer;
 
+    @Mock
+    private DailySpendCoachService coachService;
+
+    @Mock
+    private UserService userService;
+
     private ExpenseService expenseService;
 
     private Clock clock;
@@ -43,6 +56,9 @@ class ExpenseServiceTest {
                 expenseRepository,
                 expenseCategorizer,
                 new ExpenseAnalyticsProperties(),
+                new ExpenseDuplicateProperties(),
+                coachService,
+                userService,
                 clock);
     }
 
@@ -78,7 +94,7 @@ class ExpenseServiceTest {
         ExpenseRepository.DailySpendProjection medium = new ProjectionStub(start.plusDays(2), new BigDecimal("1600"));
         ExpenseRepository.DailySpendProjection high = new ProjectionStub(start.plusDays(3), new BigDecimal("7000"));
 
-        when(expenseRepository.findDailySums(start, end))
+        when(expenseRepository.findDailySums(any(), eq(start), eq(end)))
                 .thenReturn(List.of(low, medium, high));
 
         List<ExpenseHeatmapPoint> result = expenseService.heatmap(start, end);
@@ -89,6 +105,30 @@ class ExpenseServiceTest {
         assertThat(result.get(2).level()).isEqualTo(5);
     }
 
+    @Test
+    void shouldSummarizeListingByCategory() {
+        List<ExpenseResponse> expenses = List.of(
+                listed("Food", "300.00"),
+                listed("Travel", "400.00"),
+                listed("Food", "200.00"),
+                listed(null, "0.50"));
+
+        ExpenseListResponse response = expenseService.withSummary(expenses);
+
+        assertThat(response.expenses()).isSameAs(expenses);
+        assertThat(response.summary().count()).isEqualTo(4);
+        assertThat(response.summary().totalAmount()).isEqualByComparingTo("900.50");
+        assertThat(response.summary().categories())
+                .extracting(CategorySpendingSummary::category, CategorySpendingSummary::transactionCount)
+                .containsExactly(tuple("Food", 2L), tuple("Travel", 1L), tuple("Uncategorized", 1L));
+        assertThat(response.summary().categories().get(0).totalAmount()).isEqualByComparingTo("500.00");
+    }
+
+    private static ExpenseResponse listed(String category, String amount) {
+        return new ExpenseResponse(UUID.randomUUID(), "Expense", null, category, new BigDecimal(amount),
+                LocalDate.of(2025, 1, 10), null, null, null);
+    }
+
     private static class ProjectionStub implements ExpenseRepository.DailySpendProjection {
         private final LocalDate date;
         private final BigDecimal total;
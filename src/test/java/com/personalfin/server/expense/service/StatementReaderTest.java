@@ -0,0 +1,119 @@
+package com.personalfin.server.expense.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.personalfin.server.expense.service.StatementReader.RowType;
+import com.personalfin.server.expense.service.StatementReader.StatementRow;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StatementReaderTest {
+
+    @Test
+    void shouldReadBankCsvWithPreambleAndDebitCreditColumns() throws IOException {
+        String csv = """
+                Account Statement for 50100012345678
+                Period,01/03/2025 - 31/03/2025
+
+                Date,Narration,Chq./Ref.No.,Withdrawal Amt.,Deposit Amt.,Closing Balance
+                03/03/2025,"UPI-SWIGGY, BANGALORE",0000406212,"1,250.00",,48750.00
+                05/03/2025,SALARY MARCH,0000406213,,"85,000.00",133750.00
+                07/03/2025,"ATM WDL ""MG ROAD""\",0000406214,2000.00,,131750.00
+                not a date,BROKEN ROW,0000406215,10.00,,131740.00
+                ,Closing balance,,,,131740.00
+                """;
+
+        List<StatementRow> rows = readAll(csv);
+
+        assertThat(rows).extracting(StatementRow::type).containsExactly(
+                RowType.DEBIT, RowType.SKIPPED, RowType.DEBIT, RowType.INVALID, RowType.SKIPPED);
+        assertThat(rows.get(0).date()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(rows.get(0).description()).isEqualTo("UPI-SWIGGY, BANGALORE");
+        assertThat(rows.get(0).amount()).isEqualByComparingTo("1250.00");
+        assertThat(rows.get(2).description()).isEqualTo("ATM WDL \"MG ROAD\"");
+        assertThat(rows.get(3).line()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldReadOwnCsvExport() throws IOException {
+        String csv = "\uFEFFDate,Description,Merchant,Category,Amount,Payment Method\n"
+                + "2025-03-03,Dinner,Zomato,Food,450.00,UPI\n"
+                + "2025-03-04,Refund,Zomato,Food,-450.00,UPI\n"
+                + ",,,Total,0.00,\n";
+
+        List<StatementRow> rows = readAll(csv);
+
+        assertThat(rows).extracting(StatementRow::type)
+                .containsExactly(RowType.DEBIT, RowType.SKIPPED, RowType.SKIPPED);
+        StatementRow dinner = rows.get(0);
+        assertThat(dinner.merchant()).isEqualTo("Zomato");
+        assertThat(dinner.category()).isEqualTo("Food");
+        assertThat(dinner.paymentMethod()).isEqualTo("UPI");
+        assertThat(dinner.amount()).isEqualByComparingTo(new BigDecimal("450.00"));
+    }
+
+    @Test
+    void shouldReadSgmlOfx() throws IOException {
+        String ofx = """
+                OFXHEADER:100
+                DATA:OFXSGML
+                VERSION:102
+
+                <OFX>
+                <BANKMSGSRSV1><STMTTRNRS><STMTRS>
+                <BANKTRANLIST>
+                <STMTTRN>
+                <TRNTYPE>POS
+                <DTPOSTED>20250303120000[+5:30:IST]
+                <TRNAMT>-1250.00
+                <FITID>1001
+                <NAME>SWIGGY
+                <MEMO>Food order &amp; delivery
+                </STMTTRN>
+                <STMTTRN>
+                <TRNTYPE>CREDIT
+                <DTPOSTED>20250305
+                <TRNAMT>85000.00
+                <FITID>1002
+                <NAME>ACME PAYROLL
+                </STMTTRN>
+                </BANKTRANLIST>
+                </STMTRS></STMTTRNRS></BANKMSGSRSV1>
+                </OFX>
+                """;
+
+        List<StatementRow> rows = readAll(ofx);
+
+        assertThat(rows).extracting(StatementRow::type).containsExactly(RowType.DEBIT, RowType.SKIPPED);
+        StatementRow swiggy = rows.get(0);
+        assertThat(swiggy.date()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(swiggy.amount()).isEqualByComparingTo("1250.00");
+        assertThat(swiggy.merchant()).isEqualTo("SWIGGY");
+        assertThat(swiggy.description()).isEqualTo("Food order & delivery");
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRecognisableHeader() {
+        assertThatThrownBy(() -> readAll("foo,bar\n1,2\n"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<StatementRow> readAll(String content) throws IOException {
+        List<StatementRow> rows = new ArrayList<>();
+        try (StatementReader reader = StatementReader.open(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,128 @@
+package com.personalfin.server.receipt.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex-based extraction ReceiptParserService used before
+ * {@link ReceiptTextScanner}, kept verbatim apart from taking "today" as an
+ * argument, as the reference the scanner is checked against.
+ */
+final class BaselineReceiptParser {
+
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile(
+            "(?:total|amount|amt|rs\\.?|inr|₹)\\s*:?\\s*([0-9,]+(?:\\.[0-9]{2})?)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    private static final Pattern DATE_PATTERN = Pattern.compile(
+            "\\b(\\d{1,2}[/-]\\d{1,2}[/-]\\d{2,4})\\b"
+    );
+
+    private static final Pattern MERCHANT_PATTERN = Pattern.compile(
+            "^([A-Z][A-Z\\s&]+(?:PVT|LTD|INC|LLC)?)",
+            Pattern.MULTILINE
+    );
+
+    private BaselineReceiptParser() {
+    }
+
+    static BigDecimal extractAmount(String text) {
+        Matcher matcher = AMOUNT_PATTERN.matcher(text);
+        BigDecimal maxAmount = BigDecimal.ZERO;
+
+        while (matcher.find()) {
+            String amountStr = matcher.group(1).replace(",", "");
+            try {
+                BigDecimal amount = new BigDecimal(amountStr);
+                if (amount.compareTo(maxAmount) > 0) {
+                    maxAmount = amount;
+                }
+            } catch (NumberFormatException e) {
+                // Continue searching
+            }
+        }
+
+        if (maxAmount.compareTo(BigDecimal.ZERO) == 0) {
+            Pattern numberPattern = Pattern.compile("\\b([0-9]{3,}(?:\\.[0-9]{2})?)\\b");
+            Matcher numberMatcher = numberPattern.matcher(text);
+            while (numberMatcher.find()) {
+                try {
+                    BigDecimal amount = new BigDecimal(numberMatcher.group(1));
+                    if (amount.compareTo(BigDecimal.valueOf(10)) >= 0
+                            && amount.compareTo(BigDecimal.valueOf(1000000)) <= 0) {
+                        if (amount.compareTo(maxAmount) > 0) {
+                            maxAmount = amount;
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    // Continue
+                }
+            }
+        }
+
+        return maxAmount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static String extractMerchant(String text) {
+        Matcher matcher = MERCHANT_PATTERN.matcher(text);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+
+        String[] lines = text.split("\n");
+        for (String line : lines) {
+            line = line.trim();
+            if (line.length() > 3 && line.length() < 50 && !line.matches(".*\\d{4,}.*")) {
+                return line;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Whether the merchant pattern only matched by running over a line break:
+     * the trimmed match spans lines, or its first line is a lone capital.
+     */
+    static boolean merchantMatchSpansLines(String text) {
+        Matcher matcher = MERCHANT_PATTERN.matcher(text);
+        if (!matcher.find()) {
+            return false;
+        }
+        String match = matcher.group(1);
+        return match.trim().indexOf('\n') >= 0 || match.indexOf('\n') == 1;
+    }
+
+    static LocalDate extractDate(String text, LocalDate today) {
+        Matcher matcher = DATE_PATTERN.matcher(text);
+        if (matcher.find()) {
+            String dateStr = matcher.group(1);
+            String[] formats = {
+                    "dd/MM/yyyy", "dd-MM-yyyy", "dd/MM/yy", "dd-MM-yy",
+                    "MM/dd/yyyy", "MM-dd-yyyy", "yyyy-MM-dd"
+            };
+
+            for (String format : formats) {
+                try {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+                    LocalDate date = LocalDate.parse(dateStr, formatter);
+                    LocalDate fiveYearsAgo = today.minusYears(5);
+                    LocalDate tomorrow = today.plusDays(1);
+                    if (date.isAfter(fiveYearsAgo) && date.isBefore(tomorrow)) {
+                        return date;
+                    }
+                } catch (DateTimeParseException e) {
+                    // Try next format
+                }
+            }
+        }
+
+        return today;
+    }
+}
@@ -0,0 +1,74 @@
+package com.personalfin.server.receipt.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import com.personalfin.server.receipt.service.ReceiptImagePreprocessor.PreprocessedImage;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+class ReceiptImagePreprocessorTest {
+
+    private final ReceiptImagePreprocessor preprocessor = new ReceiptImagePreprocessor(new ReceiptProperties());
+
+    @Test
+    void shouldDownscaleBinarizeAndCropToPaper() {
+        // 12MP-style photo: dark table, receipt paper in the middle with text lines
+        BufferedImage photo = receiptPhoto(BufferedImage.TYPE_3BYTE_BGR);
+
+        PreprocessedImage prepared = preprocessor.preprocess(photo);
+
+        assertThat(prepared.width()).isEqualTo(1200);
+        assertThat(prepared.height()).isEqualTo(1600);
+        assertThat((double) prepared.region().x).isCloseTo(240, within(4.0));
+        assertThat((double) prepared.region().y).isCloseTo(160, within(4.0));
+        assertThat((double) prepared.region().width).isCloseTo(720, within(4.0));
+        assertThat((double) prepared.region().height).isCloseTo(1280, within(4.0));
+        for (int i = 0; i < prepared.width() * prepared.height(); i++) {
+            int value = prepared.pixels().get(i) & 0xFF;
+            assertThat(value == 0 || value == 255).isTrue();
+        }
+    }
+
+    @Test
+    void shouldReadImagesWithoutByteRasterTheSameWay() {
+        PreprocessedImage fromBytes = preprocessor.preprocess(receiptPhoto(BufferedImage.TYPE_3BYTE_BGR));
+        int byteRegionX = fromBytes.region().x;
+        int byteRegionWidth = fromBytes.region().width;
+
+        PreprocessedImage fromInts = preprocessor.preprocess(receiptPhoto(BufferedImage.TYPE_INT_RGB));
+
+        assertThat(fromInts.region().x).isEqualTo(byteRegionX);
+        assertThat(fromInts.region().width).isEqualTo(byteRegionWidth);
+    }
+
+    @Test
+    void shouldKeepSmallImagesAtTheirSizeAndUseWholeImageWithoutPaper() {
+        BufferedImage dark = new BufferedImage(300, 200, BufferedImage.TYPE_BYTE_GRAY);
+
+        PreprocessedImage prepared = preprocessor.preprocess(dark);
+
+        assertThat(prepared.width()).isEqualTo(300);
+        assertThat(prepared.height()).isEqualTo(200);
+        assertThat(prepared.region().width).isEqualTo(300);
+        assertThat(prepared.region().height).isEqualTo(200);
+    }
+
+    private static BufferedImage receiptPhoto(int type) {
+        BufferedImage photo = new BufferedImage(3000, 4000, type);
+        Graphics2D g = photo.createGraphics();
+        g.setColor(new Color(40, 45, 50));
+        g.fillRect(0, 0, 3000, 4000);
+        g.setColor(new Color(235, 232, 225));
+        g.fillRect(600, 400, 1800, 3200);
+        g.setColor(Color.BLACK);
+        for (int y = 600; y < 3400; y += 120) {
+            g.fillRect(700, y, 1200, 30);
+        }
+        g.dispose();
+        return photo;
+    }
+}
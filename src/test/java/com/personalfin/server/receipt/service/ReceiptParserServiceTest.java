@@ -0,0 +1,77 @@
+package com.personalfin.server.receipt.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.expense.dto.ExpenseCategorizationResponse;
+import com.personalfin.server.expense.service.ExpenseCategorizer;
+import com.personalfin.server.receipt.service.ReceiptParserService.ReceiptParsedData;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Golden tests: every {@code receipts/ocr/*.txt} is real-looking Tesseract output
+ * and the {@code .expected} file next to it holds the fields it must parse to.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReceiptParserServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private ExpenseCategorizer expenseCategorizer;
+
+    private ReceiptParserService parserService;
+
+    @BeforeEach
+    void setUp() {
+        when(expenseCategorizer.categorize(any()))
+                .thenReturn(new ExpenseCategorizationResponse("Groceries", 0.9, "bazaar", Map.of()));
+        parserService = new ReceiptParserService(expenseCategorizer, CLOCK);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("goldenReceipts")
+    void shouldParseGoldenReceipt(Path receipt) throws IOException {
+        String ocrText = Files.readString(receipt);
+        Properties expected = new Properties();
+        try (Reader reader = Files.newBufferedReader(
+                receipt.resolveSibling(receipt.getFileName().toString().replace(".txt", ".expected")))) {
+            expected.load(reader);
+        }
+
+        ReceiptParsedData parsed = parserService.parse(ocrText);
+
+        assertThat(parsed.getAmount()).isEqualTo(new BigDecimal(expected.getProperty("amount")));
+        String merchant = expected.getProperty("merchant");
+        assertThat(parsed.getMerchant()).isEqualTo(merchant.isEmpty() ? null : merchant);
+        assertThat(parsed.getDate()).isEqualTo(LocalDate.parse(expected.getProperty("date")));
+        assertThat(parsed.getCategory()).isEqualTo("Groceries");
+        assertThat(parsed.getRawText()).isEqualTo(ocrText);
+    }
+
+    static Stream<Path> goldenReceipts() throws IOException, URISyntaxException {
+        Path directory = Path.of(ReceiptParserServiceTest.class.getResource("/receipts/ocr").toURI());
+        return Files.list(directory)
+                .filter(path -> path.toString().endsWith(".txt"))
+                .sorted();
+    }
+}
@@ -0,0 +1,119 @@
+package com.personalfin.server.receipt.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import com.personalfin.server.receipt.dto.ReceiptScanJobResponse;
+import com.personalfin.server.receipt.exception.OcrUnavailableException;
+import com.personalfin.server.receipt.model.ReceiptScanJob;
+import com.personalfin.server.receipt.model.ReceiptScanJobStatus;
+import com.personalfin.server.receipt.repository.ReceiptScanJobRepository;
+import com.personalfin.server.user.model.User;
+import com.personalfin.server.user.service.UserService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class ReceiptScanJobServiceTest {
+
+    @Mock
+    private ReceiptScanJobRepository jobRepository;
+
+    @Mock
+    private ReceiptScannerService scannerService;
+
+    @Mock
+    private ReceiptParserService parserService;
+
+    @Mock
+    private ReceiptScanMetrics scanMetrics;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReceiptScanJobService jobService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jobService = new ReceiptScanJobService(jobRepository, scannerService, parserService, scanMetrics,
+                new ReceiptProperties(), userService, transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldReuseCompletedResultForIdenticalImage() {
+        User user = new User();
+        user.setId(userId);
+        when(userService.getUserByUsername("alice")).thenReturn(user);
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername("alice").password("n/a").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        ReceiptScanJob previous = new ReceiptScanJob();
+        previous.complete("BIG BAZAAR\nTOTAL 450.00", new BigDecimal("450.00"), "BIG BAZAAR",
+                LocalDate.of(2025, 1, 15), "Groceries");
+        when(jobRepository.findFirstByImageHashAndStatus(anyString(), eq(ReceiptScanJobStatus.COMPLETED)))
+                .thenReturn(Optional.of(previous));
+        when(jobRepository.save(any(ReceiptScanJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReceiptScanJobResponse response = jobService.submit(new byte[] {1, 2, 3});
+
+        assertThat(response.status()).isEqualTo("COMPLETED");
+        assertThat(response.amount()).isEqualByComparingTo("450.00");
+        assertThat(response.merchant()).isEqualTo("BIG BAZAAR");
+        verify(scannerService, never()).submit(any());
+    }
+
+    @Test
+    void shouldReturnJobToQueueWhenOcrPoolIsFull() {
+        UUID jobId = UUID.randomUUID();
+        ReceiptScanJob job = new ReceiptScanJob();
+        job.setId(jobId);
+        job.setImageHash("hash");
+        job.setImageData(new byte[] {1, 2, 3});
+        job.setStatus(ReceiptScanJobStatus.PROCESSING);
+        when(jobRepository.claim(eq(jobId), eq(ReceiptScanJobStatus.PENDING), eq(ReceiptScanJobStatus.PROCESSING), any()))
+                .thenReturn(1);
+        when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(jobRepository.findFirstByImageHashAndStatus("hash", ReceiptScanJobStatus.COMPLETED))
+                .thenReturn(Optional.empty());
+        when(scannerService.submit(any())).thenThrow(new OcrUnavailableException("busy", 30));
+
+        boolean dispatched = jobService.dispatch(jobId);
+
+        assertThat(dispatched).isFalse();
+        verify(jobRepository).release(eq(jobId), eq(ReceiptScanJobStatus.PROCESSING),
+                eq(ReceiptScanJobStatus.PENDING), any());
+    }
+}
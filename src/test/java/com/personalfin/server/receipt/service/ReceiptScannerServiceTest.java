@@ -0,0 +1,132 @@
+package com.personalfin.server.receipt.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.personalfin.server.receipt.config.ReceiptProperties;
+import com.personalfin.server.receipt.exception.OcrUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReceiptScannerServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReceiptProperties properties = new ReceiptProperties();
+    private ReceiptScannerService scannerService;
+
+    @BeforeEach
+    void setUp() {
+        properties.getOcr().setPoolSize(1);
+        properties.getOcr().setQueueCapacity(1);
+        properties.getOcr().setTimeout(Duration.ofSeconds(10));
+        scannerService = new ReceiptScannerService(properties, new ReceiptImagePreprocessor(properties),
+                new ReceiptScanMetrics(meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scannerService.shutdown();
+    }
+
+    @Test
+    void shouldRejectStreamedUploadBeforeReadingItWhenPoolIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingStream running = new BlockingStream(release);
+        Thread first = scanInBackground(running);
+        assertThat(running.reading.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread second = scanInBackground(new BlockingStream(release));
+        while (meterRegistry.get("receipt.ocr.queue").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        BlockingStream rejected = new BlockingStream(release);
+        assertThatThrownBy(() -> scannerService.extractText(rejected))
+                .isInstanceOf(OcrUnavailableException.class);
+        assertThat(rejected.reads.get()).isZero();
+
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+    }
+
+    @Test
+    void shouldRecordHeapAllocatedWhileDecodingEachUpload() throws IOException {
+        assumeTrue(new ReceiptScanMetrics(meterRegistry).allocatedBytes() >= 0);
+        int width = 1200;
+        int height = 1600;
+        byte[] png = receiptPng(width, height);
+
+        for (int i = 0; i < 3; i++) {
+            // No OCR engine in unit tests; only the decode stage matters here
+            catchThrowable(() -> scannerService.extractText(new ByteArrayInputStream(png)));
+        }
+
+        DistributionSummary allocated = meterRegistry.get("receipt.scan.allocated").tag("stage", "decode").summary();
+        long raster = (long) width * height * 3;
+        assertThat(allocated.count()).isEqualTo(3);
+        // The PNG reader fills one raster and converts it into the image's; the upload is never buffered whole
+        assertThat(allocated.max()).isBetween((double) raster, 2.5 * raster);
+    }
+
+    private Thread scanInBackground(InputStream upload) {
+        Thread thread = new Thread(() -> catchThrowable(() -> scannerService.extractText(upload)));
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static byte[] receiptPng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        for (int y = 100; y < height - 100; y += 60) {
+            graphics.fillRect(100, y, width / 2 + (y % 7) * 40, 20);
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static class BlockingStream extends InputStream {
+
+        private final CountDownLatch release;
+        private final CountDownLatch reading = new CountDownLatch(1);
+        private final AtomicInteger reads = new AtomicInteger();
+
+        BlockingStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            reads.incrementAndGet();
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.personalfin.server.receipt.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.receipt.service.ReceiptTextScanner.ScannedReceipt;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The scanner must extract what the regex parser it replaced did. The one
+ * intended difference: the old merchant pattern let {@code \s} run across line
+ * breaks ("BIG BAZAAR\nF"), while the scanner stops the header at the line end.
+ */
+class ReceiptTextScannerEquivalenceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    private static final String[] TOKENS = {
+            "TOTAL", "Total", "total:", "Amount", "AMT", "amt:", "Rs", "Rs.", "rs.", "INR", "₹", "$", "€",
+            "12", "99", "100", "250.00", "1,234.50", "12,345", "0.99", "1000000", "2000001", "45.5", "007",
+            "31/04/2024", "02/28/2025", "15-03-2025", "1/2/25", "13/13/2024", "29/02/2024", "29/02/2023",
+            "2025-03-01", "12/03/2019", "01/01/2030", "3/7/2025", "5-5-25", "10/10/2024/1",
+            "BIG", "BAZAAR", "APOLLO", "Pharmacy", "PVT", "LTD", "&", "A", "AB", "Shell", "chai", "point",
+            "GST", "Qty", "x", ":", "-", "/", ".", ",", "#", "(", ")", "\t", " ", "  "
+    };
+
+    @Test
+    void shouldMatchTheRegexParserOnTheGoldenCorpus() throws IOException, URISyntaxException {
+        Path directory = Path.of(getClass().getResource("/receipts/ocr").toURI());
+        try (var receipts = Files.list(directory)) {
+            for (Path receipt : receipts.filter(path -> path.toString().endsWith(".txt")).toList()) {
+                assertEquivalent(Files.readString(receipt));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchTheRegexParserOnGeneratedText() {
+        Random random = new Random(35);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int lines = 1 + random.nextInt(8);
+            for (int line = 0; line < lines; line++) {
+                int tokens = random.nextInt(7);
+                for (int t = 0; t < tokens; t++) {
+                    text.append(TOKENS[random.nextInt(TOKENS.length)]);
+                    if (random.nextInt(3) > 0) {
+                        text.append(' ');
+                    }
+                }
+                text.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+            }
+            assertEquivalent(text.toString());
+        }
+    }
+
+    private static void assertEquivalent(String text) {
+        ScannedReceipt scanned = ReceiptTextScanner.scan(text, TODAY);
+
+        assertThat(scanned.amount()).as("amount of %s", text).isEqualTo(BaselineReceiptParser.extractAmount(text));
+        assertThat(scanned.date()).as("date of %s", text).isEqualTo(BaselineReceiptParser.extractDate(text, TODAY));
+        if (!BaselineReceiptParser.merchantMatchSpansLines(text)) {
+            assertThat(scanned.merchant()).as("merchant of %s", text)
+                    .isEqualTo(BaselineReceiptParser.extractMerchant(text));
+        }
+    }
+
+    @Test
+    void shouldStopTheHeaderAtTheLineEnd() {
+        String text = "BIG BAZAAR\nFuture Retail\nTotal 250.00\n";
+
+        assertThat(BaselineReceiptParser.extractMerchant(text)).isEqualTo("BIG BAZAAR\nF");
+        assertThat(ReceiptTextScanner.scan(text, TODAY).merchant()).isEqualTo("BIG BAZAAR");
+    }
+}
@@ -0,0 +1,79 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.security.config.BatchWriterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class BatchLogWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+
+    @Test
+    void shouldWriteEveryAcceptedRowWhenProducersRaceStop() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            rowsWritten.addAndGet(invocation.getArgument(1, BatchPreparedStatementSetter.class).getBatchSize());
+            return new int[0];
+        });
+        BatchWriterProperties properties = new BatchWriterProperties();
+        properties.setBufferCapacity(1 << 16);
+        properties.setBatchSize(64);
+        BatchLogWriter<Integer> writer = new BatchLogWriter<>("test_logs", "test-log-writer", "test.logs",
+                jdbcTemplate, "INSERT", (statement, row) -> { }, properties, meterRegistry);
+        writer.start();
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicInteger enqueued = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(3);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 3; p++) {
+            Thread producer = new Thread(() -> {
+                started.countDown();
+                // Keep producing through stop(), so some rows arrive after the final drain
+                for (int i = 0; producing.get(); i++) {
+                    writer.enqueue(i);
+                    enqueued.incrementAndGet();
+                    if (i % 256 == 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        started.await();
+        Thread.sleep(50);
+
+        writer.stop();
+        Thread.sleep(20);
+        producing.set(false);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(meterRegistry.get("test.logs.dropped").counter().count()).isZero();
+        assertThat(rowsWritten.get()).isEqualTo(enqueued.get());
+        assertThat(meterRegistry.get("test.logs.written").counter().count()).isEqualTo(enqueued.get());
+    }
+
+    @Test
+    void shouldTruncateOnlyOverlongValues() {
+        assertThat(BatchLogWriter.truncate("abcdef", 3)).isEqualTo("abc");
+        assertThat(BatchLogWriter.truncate("ab", 3)).isEqualTo("ab");
+        assertThat(BatchLogWriter.truncate(null, 3)).isNull();
+    }
+}
@@ -0,0 +1,46 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.security.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(properties(5), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldHashAndVerifyOnHashingThreads() {
+        String hash = encoder.encode("Correct-horse-9");
+
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(encoder.matches("Correct-horse-9", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("security.password_hashing.duration")
+                .tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAskForRehashWhenCostDiffersFromConfiguredStrength() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+    }
+
+    private static PasswordHashingProperties properties(int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setStrength(strength);
+        properties.setPoolSize(1);
+        return properties;
+    }
+}
@@ -0,0 +1,83 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BoundedRingBufferTest {
+
+    @Test
+    void shouldRejectOffersWhenFullAndKeepFifoOrder() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(3);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void shouldDeliverEveryElementOnceWithConcurrentProducers() throws InterruptedException {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drainTo(batch, 32);
+            for (Integer value : batch) {
+                assertThat(seen.add(value)).isTrue();
+            }
+            batch.clear();
+        }
+        executor.shutdownNow();
+
+        assertThat(seen).hasSize(producers * perProducer);
+    }
+
+    @Test
+    void shouldRejectOffersAfterCloseAndDrainWhatWasAccepted() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+        buffer.offer(1);
+        buffer.offer(2);
+
+        buffer.close();
+
+        assertThat(buffer.isClosed()).isTrue();
+        assertThat(buffer.offer(3)).isFalse();
+        assertThat(buffer.size()).isEqualTo(2);
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainClosed(drained, 10)).isEqualTo(2);
+        assertThat(drained).containsExactly(1, 2);
+        assertThat(buffer.drainClosed(drained, 10)).isZero();
+    }
+}
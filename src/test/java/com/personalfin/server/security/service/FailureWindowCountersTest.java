@@ -0,0 +1,37 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class FailureWindowCountersTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final FailureWindowCounters counters = new FailureWindowCounters(3, Duration.ofMinutes(15), 1000);
+
+    @Test
+    void shouldLockOnlyWhileFailuresAreInsideWindow() {
+        counters.record("asha", 0);
+        counters.record("asha", 5 * MINUTE);
+        counters.record("asha", 10 * MINUTE);
+
+        assertThat(counters.isOverLimit("asha", 10 * MINUTE)).isTrue();
+        assertThat(counters.isOverLimit("ravi", 10 * MINUTE)).isFalse();
+        // The first failure has left the window
+        assertThat(counters.isOverLimit("asha", 16 * MINUTE)).isFalse();
+        assertThat(counters.count("asha", 16 * MINUTE)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepNewestFailuresWhenOlderOnesArriveLate() {
+        counters.record("10.0.0.1", 20 * MINUTE);
+        counters.record("10.0.0.1", 21 * MINUTE);
+        counters.record("10.0.0.1", 22 * MINUTE);
+        // Warm-up replaying an older failure must not displace a live one
+        counters.record("10.0.0.1", MINUTE);
+
+        assertThat(counters.count("10.0.0.1", 22 * MINUTE)).isEqualTo(3);
+    }
+}
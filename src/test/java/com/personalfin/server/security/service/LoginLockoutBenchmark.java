@@ -0,0 +1,221 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.security.config.LoginAttemptLogProperties;
+import com.personalfin.server.security.model.LoginAttempt;
+import com.personalfin.server.security.repository.LoginAttemptRepository;
+import com.personalfin.server.support.Benchmark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Login throughput during a simulated credential-stuffing attack: {@value #THREADS}
+ * threads send failed logins for random usernames from a botnet-sized pool of
+ * IPs, making the same lockout calls as {@code AuthController.login}, against
+ * a {@code login_attempts} table on H2 that already holds
+ * {@value #EXISTING_ROWS} rows and has the V18 indexes. The password check
+ * is left out, since bcrypt would dominate both paths equally. The database-backed path that
+ * AccountLockoutService used before its in-memory counters is reproduced
+ * here on LoginAttemptRepository.
+ */
+@Tag(Benchmark.TAG)
+// Logging every statement would slow the database path down further
+@DataJpaTest(showSql = false, properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoginLockoutBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int EXISTING_ROWS = 200_000;
+    private static final int USERNAMES = 20_000;
+    private static final int IPS = 50_000;
+    private static final long RUN_MILLIS = 5_000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM login_attempts");
+    }
+
+    @Test
+    void loginThroughputUnderAttack() throws Exception {
+        indexLikeProduction();
+        seed();
+
+        long databaseAttempts = attack(new RepositoryLockout(loginAttemptRepository));
+
+        jdbcTemplate.update("DELETE FROM login_attempts");
+        seed();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LoginAttemptWriter writer = new LoginAttemptWriter(jdbcTemplate, registry, new LoginAttemptLogProperties());
+        writer.start();
+        AccountLockoutService service = new AccountLockoutService(
+                writer, jdbcTemplate, Clock.systemUTC(), MAX_ATTEMPTS, 30, 15, 100_000);
+        long counterAttempts = attack(new Lockout() {
+            @Override
+            public boolean isAccountLocked(String username) {
+                return service.isAccountLocked(username);
+            }
+
+            @Override
+            public boolean isIpBlocked(String ipAddress) {
+                return service.isIpBlocked(ipAddress);
+            }
+
+            @Override
+            public void recordFailedAttempt(String username, String ipAddress, String failureReason) {
+                service.recordFailedAttempt(username, ipAddress, failureReason);
+            }
+
+            @Override
+            public long getRemainingAttempts(String username) {
+                return service.getRemainingAttempts(username);
+            }
+        });
+        writer.stop();
+
+        double written = registry.counter("security.login_attempts.written").count();
+        double dropped = registry.counter("security.login_attempts.dropped").count();
+        assertThat(databaseAttempts).isPositive();
+        assertThat(counterAttempts).isPositive();
+        Benchmark.report("login-lockout", "%d threads, %,d existing rows: database counts %,.0f attempts/s, "
+                        + "in-memory counters %,.0f attempts/s",
+                THREADS, EXISTING_ROWS, databaseAttempts * 1000.0 / RUN_MILLIS, counterAttempts * 1000.0 / RUN_MILLIS);
+        Benchmark.report("login-lockout", "audit writer: %,.0f rows written, %,.0f dropped", written, dropped);
+    }
+
+    // The indexes V18 creates, in place of the single-column ones from the entity
+    private void indexLikeProduction() {
+        jdbcTemplate.execute("DROP INDEX idx_login_attempts_username");
+        jdbcTemplate.execute("DROP INDEX idx_login_attempts_ip_address");
+        jdbcTemplate.execute("CREATE INDEX idx_login_attempts_username ON login_attempts (username, created_at)");
+        jdbcTemplate.execute("CREATE INDEX idx_login_attempts_ip_address ON login_attempts (ip_address, created_at)");
+    }
+
+    // Old rows are outside the window but still in the table the COUNT queries scan
+    private void seed() {
+        OffsetDateTime old = OffsetDateTime.now(ZoneOffset.UTC).minusDays(3);
+        List<Object[]> rows = new ArrayList<>(EXISTING_ROWS);
+        for (int i = 0; i < EXISTING_ROWS; i++) {
+            rows.add(new Object[] {UUID.randomUUID(), "user" + (i % USERNAMES), "10.1." + (i % 250) + "." + (i % 200),
+                    old.minusSeconds(i)});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO login_attempts (id, username, ip_address, successful, failure_reason, created_at)
+                VALUES (?, ?, ?, false, 'Invalid credentials', ?)
+                """, rows);
+    }
+
+    /** Runs the attack for {@value #RUN_MILLIS} ms and returns the number of login attempts handled. */
+    private static long attack(Lockout lockout) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(threads.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long attempts = 0;
+                while (System.nanoTime() < deadline) {
+                    login(lockout, "user" + random.nextInt(USERNAMES), "203.0.113." + random.nextInt(IPS));
+                    attempts++;
+                }
+                return attempts;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        threads.shutdown();
+        return total;
+    }
+
+    // The lockout calls AuthController.login makes for a wrong password
+    private static void login(Lockout lockout, String username, String ipAddress) {
+        if (lockout.isAccountLocked(username)) {
+            lockout.getRemainingAttempts(username);
+            lockout.recordFailedAttempt(username, ipAddress, "Account locked");
+            return;
+        }
+        if (lockout.isIpBlocked(ipAddress)) {
+            return;
+        }
+        lockout.recordFailedAttempt(username, ipAddress, "Invalid credentials");
+        lockout.getRemainingAttempts(username);
+    }
+
+    private interface Lockout {
+        boolean isAccountLocked(String username);
+
+        boolean isIpBlocked(String ipAddress);
+
+        void recordFailedAttempt(String username, String ipAddress, String failureReason);
+
+        long getRemainingAttempts(String username);
+    }
+
+    /** AccountLockoutService as it was before the in-memory counters: COUNT queries and an insert per login. */
+    private static final class RepositoryLockout implements Lockout {
+
+        private final LoginAttemptRepository repository;
+
+        RepositoryLockout(LoginAttemptRepository repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public boolean isAccountLocked(String username) {
+            return repository.countFailedAttemptsSince(username, windowStart()) >= MAX_ATTEMPTS;
+        }
+
+        @Override
+        public boolean isIpBlocked(String ipAddress) {
+            return repository.countFailedAttemptsByIpSince(ipAddress, windowStart()) >= MAX_ATTEMPTS * 2;
+        }
+
+        @Override
+        public void recordFailedAttempt(String username, String ipAddress, String failureReason) {
+            LoginAttempt attempt = new LoginAttempt();
+            attempt.setUsername(username);
+            attempt.setIpAddress(ipAddress);
+            attempt.setSuccessful(false);
+            attempt.setFailureReason(failureReason);
+            repository.save(attempt);
+        }
+
+        @Override
+        public long getRemainingAttempts(String username) {
+            return Math.max(0, MAX_ATTEMPTS - repository.countFailedAttemptsSince(username, windowStart()));
+        }
+
+        private static OffsetDateTime windowStart() {
+            return OffsetDateTime.now().minusMinutes(15);
+        }
+    }
+}
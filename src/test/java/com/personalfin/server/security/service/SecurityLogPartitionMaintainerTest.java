@@ -0,0 +1,109 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.security.config.SecurityLogRetentionProperties;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class SecurityLogPartitionMaintainerTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2025, 3);
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private SecurityLogPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        SecurityLogRetentionProperties properties = new SecurityLogRetentionProperties();
+        properties.setMonthsAhead(1);
+        maintainer = new SecurityLogPartitionMaintainer(
+                jdbcTemplate, properties, transactionManager, Clock.systemUTC());
+    }
+
+    @Test
+    void shouldMoveRowsOutOfDefaultPartitionBeforeCreatingTheirMonth() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("audit_logs")))
+                .thenReturn(List.of("audit_logs_p202503", "audit_logs_default"));
+        OffsetDateTime from = OffsetDateTime.of(2025, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime to = OffsetDateTime.of(2025, 5, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), eq(from), eq(to)))
+                .thenReturn(true);
+
+        maintainer.maintain("audit_logs", CURRENT, 12);
+
+        InOrder order = inOrder(jdbcTemplate, transactionManager);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_default");
+        order.verify(jdbcTemplate).execute(
+                SecurityLogPartitionMaintainer.createPartitionSql("audit_logs", YearMonth.of(2025, 4)));
+        order.verify(jdbcTemplate).update(startsWith("WITH moved AS (DELETE FROM audit_logs_default"),
+                eq(from), eq(to));
+        order.verify(jdbcTemplate).execute("ALTER TABLE audit_logs ATTACH PARTITION audit_logs_default DEFAULT");
+        order.verify(transactionManager).commit(any());
+        verify(jdbcTemplate, never()).execute(
+                SecurityLogPartitionMaintainer.createPartitionSql("audit_logs", CURRENT));
+    }
+
+    @Test
+    void shouldKeepGoingWhenOneStatementFails() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("login_attempts")))
+                .thenReturn(List.of("login_attempts_p202410", "login_attempts_p202411", "login_attempts_default"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any()))
+                .thenReturn(false);
+        String currentMonth = SecurityLogPartitionMaintainer.createPartitionSql("login_attempts", CURRENT);
+        doThrow(new DataIntegrityViolationException("lock timeout")).when(jdbcTemplate).execute(currentMonth);
+        doThrow(new DataIntegrityViolationException("in use"))
+                .when(jdbcTemplate).execute("DROP TABLE IF EXISTS login_attempts_p202410");
+
+        maintainer.maintain("login_attempts", CURRENT, 3);
+
+        verify(transactionManager).rollback(any());
+        verify(jdbcTemplate).execute(
+                SecurityLogPartitionMaintainer.createPartitionSql("login_attempts", YearMonth.of(2025, 4)));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS login_attempts_p202411");
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    void shouldCreateMonthlyPartitionBoundedInUtc() {
+        assertThat(SecurityLogPartitionMaintainer.createPartitionSql("audit_logs", YearMonth.of(2025, 12)))
+                .isEqualTo("CREATE TABLE IF NOT EXISTS audit_logs_p202512 PARTITION OF audit_logs "
+                        + "FOR VALUES FROM ('2025-12-01 00:00:00+00') TO ('2026-01-01 00:00:00+00')");
+    }
+
+    @Test
+    void shouldExpireOnlyMonthlyPartitionsOfTheTableBeforeRetention() {
+        List<String> partitions = List.of(
+                "login_attempts_p202501", "login_attempts_p202412", "login_attempts_p202502",
+                "login_attempts_default", "audit_logs_p202401", "login_attempts_pnotamonth");
+
+        assertThat(SecurityLogPartitionMaintainer.expiredPartitions(
+                "login_attempts", partitions, YearMonth.of(2025, 2)))
+                .containsExactly("login_attempts_p202412", "login_attempts_p202501");
+    }
+}
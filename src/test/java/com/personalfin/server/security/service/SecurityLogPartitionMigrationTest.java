@@ -0,0 +1,108 @@
+package com.personalfin.server.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.security.config.SecurityLogRetentionProperties;
+import com.personalfin.server.support.PostgresTestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/** Applies V18 to populated V10 tables on PostgreSQL, then runs partition maintenance over the result. */
+@Tag(PostgresTestDatabase.TAG)
+class SecurityLogPartitionMigrationTest {
+
+    private static final YearMonth CURRENT = YearMonth.now(ZoneOffset.UTC);
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = PostgresTestDatabase.start("security_log_partitions");
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldKeepEveryRowWhenPartitioningAndLetMaintenanceAddTheNextMonth() {
+        migrate("10");
+        // Past months, the current one, and a month beyond the partitions V18 creates
+        List<YearMonth> months = List.of(CURRENT.minusMonths(2), CURRENT.minusMonths(1), CURRENT, CURRENT.plusMonths(3));
+        for (YearMonth month : months) {
+            for (int i = 0; i < 25; i++) {
+                OffsetDateTime createdAt = month.atDay(1 + i).atTime(i % 24, 30).atOffset(ZoneOffset.UTC);
+                jdbc.update("INSERT INTO audit_logs (id, event_type, user_id, username, ip_address, details, "
+                                + "success, created_at) VALUES (?, 'LOGIN', ?, 'alice', '10.0.0.1', 'seeded', ?, ?)",
+                        UUID.randomUUID(), UUID.randomUUID(), i % 2 == 0, createdAt);
+                jdbc.update("INSERT INTO login_attempts (id, username, ip_address, successful, failure_reason, "
+                                + "created_at) VALUES (?, 'alice', '10.0.0.1', ?, 'bad password', ?)",
+                        UUID.randomUUID(), i % 3 == 0, createdAt);
+            }
+        }
+        long auditRows = count("audit_logs");
+        long loginRows = count("login_attempts");
+
+        migrate("18");
+
+        for (String table : List.of("audit_logs", "login_attempts")) {
+            assertThat(count(table)).isEqualTo(table.equals("audit_logs") ? auditRows : loginRows);
+            assertThat(partitions(table)).contains(
+                    SecurityLogPartitionMaintainer.partitionName(table, CURRENT.minusMonths(2)),
+                    SecurityLogPartitionMaintainer.partitionName(table, CURRENT.plusMonths(2)),
+                    SecurityLogPartitionMaintainer.defaultPartitionName(table));
+            assertThat(count(SecurityLogPartitionMaintainer.defaultPartitionName(table))).isEqualTo(25);
+            assertThat(count(SecurityLogPartitionMaintainer.partitionName(table, CURRENT))).isEqualTo(25);
+        }
+
+        SecurityLogRetentionProperties properties = new SecurityLogRetentionProperties();
+        properties.setMonthsAhead(3);
+        new SecurityLogPartitionMaintainer(jdbc, properties, new DataSourceTransactionManager(dataSource),
+                Clock.systemUTC()).maintain();
+
+        for (String table : List.of("audit_logs", "login_attempts")) {
+            String nextMonth = SecurityLogPartitionMaintainer.partitionName(table, CURRENT.plusMonths(3));
+            assertThat(partitions(table)).contains(nextMonth, SecurityLogPartitionMaintainer.defaultPartitionName(table));
+            assertThat(count(nextMonth)).isEqualTo(25);
+            assertThat(count(SecurityLogPartitionMaintainer.defaultPartitionName(table))).isZero();
+            assertThat(count(table)).isEqualTo(table.equals("audit_logs") ? auditRows : loginRows);
+        }
+        // New rows for the added month are routed to its partition
+        jdbc.update("INSERT INTO login_attempts (id, username, successful, created_at) VALUES (?, 'bob', false, ?)",
+                UUID.randomUUID(), CURRENT.plusMonths(3).atDay(2).atStartOfDay().atOffset(ZoneOffset.UTC));
+        assertThat(count(SecurityLogPartitionMaintainer.partitionName("login_attempts", CURRENT.plusMonths(3))))
+                .isEqualTo(26);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure().dataSource(dataSource).target(target).load().migrate();
+    }
+
+    private long count(String table) {
+        return jdbc.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private List<String> partitions(String table) {
+        return jdbc.queryForList("""
+                SELECT child.relname FROM pg_inherits i
+                JOIN pg_class parent ON parent.oid = i.inhparent
+                JOIN pg_class child ON child.oid = i.inhrelid
+                WHERE parent.relname = ?
+                """, String.class, table);
+    }
+}
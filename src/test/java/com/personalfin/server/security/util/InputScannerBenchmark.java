@@ -0,0 +1,91 @@
+package com.personalfin.server.security.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.support.Benchmark;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Time per string of {@link InputScanner} against the three regexes the
+ * filter ran before it, over typical query parameter values plus a few
+ * attacks. JMH is not available to this build, so this is a plain timed loop:
+ * {@value #ROUNDS} rounds over the corpus after warm-up, reporting the median
+ * round. Treat the figures as a comparison on one machine, not absolutes.
+ */
+@Tag(Benchmark.TAG)
+class InputScannerBenchmark {
+
+    // The patterns SecurityUtils used before InputScanner, verbatim
+    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
+            "(?i)(union|select|insert|update|delete|drop|create|alter|exec|execute|script|javascript|onerror|onload)"
+    );
+    private static final Pattern XSS_PATTERN = Pattern.compile(
+            "(?i)(<script|</script>|javascript:|onerror=|onload=|onclick=|<iframe|</iframe>)"
+    );
+    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile(
+            "(\\.\\./|\\.\\.\\\\|%2e%2e%2f|%2e%2e%5c)"
+    );
+
+    private static final List<String> CORPUS = List.of(
+            "1250.00", "2025-03-01", "2025-03-31", "Food", "Groceries", "UPI", "CREDIT_CARD",
+            "swiggy", "Swiggy order 4471", "DMart Aundh", "Uber trip to airport", "Apollo Pharmacy",
+            "UPI/406212118842/SWIGGY/paytm-55312@ptys", "Monthly rent - March", "Update phone plan",
+            "Create savings goal", "O'Brien's wedding gift", "Café au lait — ₹250", "amount", "desc",
+            "merchant", "category", "3fa85f64-5717-4562-b3fc-2c963f66afa6", "en-IN", "Asia/Kolkata",
+            "Electricity bill (MSEDCL) for Feb 2025, consumer no. 170011234567",
+            "1 UNION SELECT password FROM users", "x'; DROP TABLE users; --", "<script>alert(1)</script>",
+            "img onerror=steal()", "../../etc/passwd", "..%2e%2e%2fetc"
+    );
+
+    private static final int WARMUP = 20_000;
+    private static final int ROUNDS = 51;
+    private static final int ITERATIONS = 2_000;
+
+    @Test
+    void compareWithTheThreeRegexes() {
+        InputScanner scanner = InputScanner.getDefault();
+        Predicate<String> threeRegexes = value -> SQL_INJECTION_PATTERN.matcher(value).find()
+                || XSS_PATTERN.matcher(value).find()
+                || PATH_TRAVERSAL_PATTERN.matcher(value).find();
+        Predicate<String> singlePass = value -> scanner.firstMatch(value) != null;
+
+        double regexNanos = nanosPerString(threeRegexes);
+        double scannerNanos = nanosPerString(singlePass);
+
+        long regexHits = CORPUS.stream().filter(threeRegexes).count();
+        long scannerHits = CORPUS.stream().filter(singlePass).count();
+        assertThat(scannerHits).isEqualTo(6);
+
+        Benchmark.report("input-scanner", "%d strings: three regexes %.0f ns/string (%d rejected), "
+                        + "scanner %.0f ns/string (%d rejected)",
+                CORPUS.size(), regexNanos, regexHits, scannerNanos, scannerHits);
+    }
+
+    private static double nanosPerString(Predicate<String> check) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            for (String value : CORPUS) {
+                sink += check.test(value) ? 1 : 0;
+            }
+        }
+        double[] rounds = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (String value : CORPUS) {
+                    sink += check.test(value) ? 1 : 0;
+                }
+            }
+            rounds[round] = (double) (System.nanoTime() - start) / ITERATIONS / CORPUS.size();
+        }
+        // Keeps the JIT from discarding the checks
+        assertThat(sink).isPositive();
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+}
@@ -0,0 +1,33 @@
+package com.personalfin.server.security.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.personalfin.server.security.util.InputScanner.Rule;
+import org.junit.jupiter.api.Test;
+
+class InputScannerTest {
+
+    private final InputScanner scanner = InputScanner.getDefault();
+
+    @Test
+    void shouldDetectEachRuleAcrossCaseAndWhitespace() {
+        assertThat(scanner.firstMatch("1 UNION\n   Select password")).isEqualTo(Rule.SQL_INJECTION);
+        assertThat(scanner.firstMatch("x'; DROP TABLE users")).isEqualTo(Rule.SQL_INJECTION);
+        assertThat(scanner.firstMatch("<ScRiPt>alert(1)")).isEqualTo(Rule.XSS);
+        assertThat(scanner.firstMatch("img onerror=steal()")).isEqualTo(Rule.XSS);
+        assertThat(scanner.firstMatch("..%2E%2E%2Fetc")).isEqualTo(Rule.PATH_TRAVERSAL);
+        assertThat(scanner.firstMatch("reports/../../etc/passwd")).isEqualTo(Rule.PATH_TRAVERSAL);
+
+        assertThat(scanner.matches("<iframe src=x> union select 1", Rule.SQL_INJECTION)).isTrue();
+        assertThat(scanner.matches("<iframe src=x> union select 1", Rule.PATH_TRAVERSAL)).isFalse();
+    }
+
+    @Test
+    void shouldAcceptEverydayTextThatMentionsSqlKeywords() {
+        assertThat(scanner.firstMatch("Update phone plan, select premium")).isNull();
+        assertThat(scanner.firstMatch("Create savings goal: O'Brien's wedding")).isNull();
+        assertThat(scanner.firstMatch("Café au lait — ₹250")).isNull();
+        assertThat(scanner.firstMatch("Groceries2025")).isNull();
+        assertThat(scanner.firstMatch(null)).isNull();
+    }
+}
@@ -0,0 +1,50 @@
+package com.personalfin.server.security.validation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Builds a {@link BreachedPasswordFilter} from a word list, one password per
+ * line. The bundled filter is regenerated after {@code mvn test-compile} with
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.personalfin.server.security.validation.BreachedPasswordFilterBuilder \
+ *     src/test/resources/security/breached-passwords.txt \
+ *     src/main/resources/security/breached-passwords.bloom
+ * </pre>
+ * and {@code BreachedPasswordFilterTest} fails until it is.
+ */
+final class BreachedPasswordFilterBuilder {
+
+    static final double BUNDLED_FALSE_POSITIVE_RATE = 0.0001;
+
+    private BreachedPasswordFilterBuilder() {
+    }
+
+    static List<String> readPasswords(Path wordList) throws IOException {
+        return Files.readAllLines(wordList, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    static void build(Path wordList, double falsePositiveRate, OutputStream out) throws IOException {
+        BreachedPasswordFilter.write(readPasswords(wordList), falsePositiveRate, out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "usage: BreachedPasswordFilterBuilder <passwords.txt> <out.bloom> [false-positive-rate]");
+        }
+        double falsePositiveRate = args.length > 2 ? Double.parseDouble(args[2]) : BUNDLED_FALSE_POSITIVE_RATE;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])))) {
+            build(Path.of(args[0]), falsePositiveRate, out);
+        }
+    }
+}
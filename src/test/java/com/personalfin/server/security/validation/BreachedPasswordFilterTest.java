@@ -0,0 +1,40 @@
+package com.personalfin.server.security.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+class BreachedPasswordFilterTest {
+
+    private static final Path WORD_LIST = Path.of("src/test/resources/security/breached-passwords.txt");
+
+    @Test
+    void bundledFilterShouldBeBuiltFromTheCommittedWordList() throws IOException {
+        ByteArrayOutputStream rebuilt = new ByteArrayOutputStream();
+        BreachedPasswordFilterBuilder.build(
+                WORD_LIST, BreachedPasswordFilterBuilder.BUNDLED_FALSE_POSITIVE_RATE, rebuilt);
+
+        byte[] bundled;
+        try (InputStream in = new ClassPathResource("security/breached-passwords.bloom").getInputStream()) {
+            bundled = in.readAllBytes();
+        }
+        assertThat(bundled)
+                .as("breached-passwords.bloom is stale; regenerate it with BreachedPasswordFilterBuilder")
+                .isEqualTo(rebuilt.toByteArray());
+    }
+
+    @Test
+    void shouldContainEveryListedPassword() throws IOException {
+        List<String> passwords = BreachedPasswordFilterBuilder.readPasswords(WORD_LIST);
+        BreachedPasswordFilter bundled = BreachedPasswordFilter.load(
+                new ClassPathResource("security/breached-passwords.bloom"));
+
+        assertThat(passwords).isNotEmpty().allMatch(bundled::mightContain);
+    }
+}
@@ -0,0 +1,45 @@
+package com.personalfin.server.security.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+class PasswordValidatorTest {
+
+    @Test
+    void shouldReportTheFirstMissingRequirement() {
+        PasswordValidator validator = new PasswordValidator(false, null);
+
+        assertThat(validator.validate("Gh7#kq9Lm!pz").isValid()).isTrue();
+        assertThat(validator.validate("GH7#KQ9LM!PZ").getErrorMessage()).contains("lowercase");
+        assertThat(validator.validate("ghx#kqyLm!pz").getErrorMessage()).contains("digit");
+        assertThat(validator.validate("gh7kq9Lmxpz").getErrorMessage()).contains("special character");
+        assertThat(validator.validate("gh7 kq9Lm!pz").getErrorMessage()).contains("invalid characters");
+        assertThat(validator.validate("gh7€kq9Lmxpz").getErrorMessage()).contains("invalid characters");
+        assertThat(validator.validate("my-MONKEY-99").getErrorMessage()).contains("too common");
+    }
+
+    @Test
+    void shouldRejectPasswordsInTheBreachedFilter() throws IOException {
+        ByteArrayOutputStream filter = new ByteArrayOutputStream();
+        BreachedPasswordFilter.write(List.of("Gh7#kq9Lm!pz"), 0.0001, filter);
+        PasswordValidator validator = new PasswordValidator(true, new ByteArrayResource(filter.toByteArray()));
+
+        assertThat(validator.validate("Gh7#kq9Lm!pz").getErrorMessage()).contains("breached");
+        assertThat(validator.validate("Gh7#kq9Lm!pZ").isValid()).isTrue();
+    }
+
+    @Test
+    void shouldLoadTheBundledFilter() throws IOException {
+        BreachedPasswordFilter bundled = BreachedPasswordFilter.load(
+                new ClassPathResource("security/breached-passwords.bloom"));
+
+        assertThat(bundled.mightContain("P@ssw0rd")).isTrue();
+        assertThat(bundled.mightContain("Welcome@123")).isTrue();
+    }
+}
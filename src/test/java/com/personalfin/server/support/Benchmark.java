@@ -0,0 +1,30 @@
+package com.personalfin.server.support;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Helpers for tests tagged {@value #TAG}. They are left out of the default
+ * build and run with {@code mvn -Pbenchmark test}; each prints its
+ * measurements with {@link #report}. Numbers are from one JVM on whatever
+ * machine runs them, so compare runs on the same machine only.
+ */
+public final class Benchmark {
+
+    public static final String TAG = "benchmark";
+
+    private Benchmark() {
+    }
+
+    /** Heap still in use after a full collection. */
+    public static long retainedHeapBytes() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void report(String benchmark, String format, Object... args) {
+        System.out.printf(Locale.ROOT, "[benchmark] %s: %s%n", benchmark, String.format(Locale.ROOT, format, args));
+    }
+}
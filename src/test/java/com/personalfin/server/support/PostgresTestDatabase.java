@@ -0,0 +1,28 @@
+package com.personalfin.server.support;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Throwaway PostgreSQL for tests tagged {@value #TAG}. The Testcontainers JDBC
+ * URL starts a container on the first connection and stops it once the pool is
+ * closed, so each caller gets a fresh, empty database. The driver is only on
+ * the test classpath under {@code mvn -Ppostgres test}, which needs Docker.
+ */
+public final class PostgresTestDatabase {
+
+    public static final String TAG = "postgres";
+
+    private static final String URL_PREFIX = "jdbc:tc:postgresql:16-alpine:///";
+
+    private PostgresTestDatabase() {
+    }
+
+    public static HikariDataSource start(String databaseName) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.testcontainers.jdbc.ContainerDatabaseDriver");
+        config.setJdbcUrl(URL_PREFIX + databaseName);
+        config.setMaximumPoolSize(4);
+        return new HikariDataSource(config);
+    }
+}
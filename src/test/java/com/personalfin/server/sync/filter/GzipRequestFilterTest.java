@@ -0,0 +1,177 @@
+package com.personalfin.server.sync.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.personalfin.server.sync.config.SyncProperties;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class GzipRequestFilterTest {
+
+    private static final String BODY = "{\"lastSyncAt\":\"2025-03-01T00:00:00Z\",\"expenses\":[]}";
+
+    @Test
+    void shouldInflateSyncRequestsBehindAContextPath() throws ServletException, IOException {
+        MockHttpServletRequest request = gzipRequest("/app", "/api/sync/push", gzip(BODY));
+
+        ServletRequest filtered = filter(request, 1024);
+
+        assertThat(filtered).isNotSameAs(request);
+        assertThat(((HttpServletRequest) filtered).getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(new String(filtered.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void shouldLeaveOtherPathsEncoded() throws ServletException, IOException {
+        MockHttpServletRequest request = gzipRequest("/api", "/expenses/sync/", gzip(BODY));
+
+        assertThat(filter(request, 1024)).isSameAs(request);
+    }
+
+    @Test
+    void shouldRejectBodiesThatInflatePastTheLimit() throws ServletException, IOException {
+        ServletRequest filtered = filter(gzipRequest("", "/api/sync/push", gzip("x".repeat(4096))), 1024);
+
+        assertThatThrownBy(() -> filtered.getInputStream().readAllBytes())
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("1024");
+    }
+
+    @Test
+    void shouldCallAReadListenerOnceTheCompressedBodyHasArrived() throws ServletException, IOException {
+        ChunkedInputStream compressed = new ChunkedInputStream(gzip(BODY));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/sync/push") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return compressed;
+            }
+        };
+        request.setServletPath("/api/sync/push");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        ServletInputStream inflated = filter(request, 1024).getInputStream();
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        boolean[] allDataRead = {false};
+        inflated.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                int n;
+                while (inflated.isReady() && (n = inflated.read(buffer)) != -1) {
+                    received.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+        assertThat(inflated.isReady()).isFalse();
+
+        compressed.deliver();
+
+        assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(allDataRead[0]).isTrue();
+        assertThat(inflated.isFinished()).isTrue();
+    }
+
+    private static ServletRequest filter(MockHttpServletRequest request, long maxInflatedBytes)
+            throws ServletException, IOException {
+        SyncProperties properties = new SyncProperties();
+        properties.getCompression().setMaxInflatedBytes(maxInflatedBytes);
+        MockFilterChain chain = new MockFilterChain();
+        new GzipRequestFilter(properties).doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.getRequest();
+    }
+
+    private static MockHttpServletRequest gzipRequest(String contextPath, String servletPath, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", contextPath + servletPath);
+        request.setContextPath(contextPath);
+        request.setServletPath(servletPath);
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Hands the body to its listener a few bytes at a time, as a container would for a slow client. */
+    private static final class ChunkedInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream body;
+        private ReadListener listener;
+        private int available;
+
+        ChunkedInputStream(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        void deliver() throws IOException {
+            while (body.available() > 0) {
+                available = Math.min(7, body.available());
+                listener.onDataAvailable();
+            }
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public int read() {
+            if (available == 0) {
+                throw new IllegalStateException("Read while not ready");
+            }
+            available--;
+            return body.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (available == 0) {
+                throw new IllegalStateException("Read while not ready");
+            }
+            int n = body.read(buffer, offset, Math.min(length, available));
+            available -= n;
+            return n;
+        }
+
+        @Override
+        public boolean isReady() {
+            return available > 0;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return body.available() == 0;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            listener = readListener;
+        }
+    }
+}
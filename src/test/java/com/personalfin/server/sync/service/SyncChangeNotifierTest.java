@@ -0,0 +1,107 @@
+package com.personalfin.server.sync.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import com.personalfin.server.sync.config.SyncProperties;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SyncChangeNotifierTest {
+
+    private SyncProperties syncProperties;
+    private SyncChangeNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        syncProperties = new SyncProperties();
+        notifier = new SyncChangeNotifier(syncProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.stop();
+    }
+
+    @Test
+    void shouldCloseOldestStreamWhenUserExceedsLimit() {
+        syncProperties.getNotifications().setMaxStreamsPerUser(2);
+        UUID userId = UUID.randomUUID();
+
+        notifier.subscribe(userId);
+        notifier.subscribe(userId);
+        notifier.subscribe(userId);
+        notifier.subscribe(UUID.randomUUID());
+
+        assertThat(notifier.getOpenStreamCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldIgnoreChangesForUsersWithoutStreams() {
+        notifier.subscribe(UUID.randomUUID());
+
+        assertThatCode(() -> notifier.notifyChanged(UUID.randomUUID())).doesNotThrowAnyException();
+        assertThat(notifier.getOpenStreamCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLetAStalledClientBlockCallersOrOtherStreams() throws Exception {
+        syncProperties.getNotifications().setSendTimeout(Duration.ofMillis(50));
+        CountDownLatch stalledSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseStalledSend = new CountDownLatch(1);
+        CountDownLatch otherStreamNotified = new CountDownLatch(1);
+        UUID stalledUser = UUID.randomUUID();
+        UUID otherUser = UUID.randomUUID();
+        notifier = new SyncChangeNotifier(syncProperties) {
+            private int created;
+
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                boolean stalled = created++ == 0;
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        if (stalled) {
+                            // A client that stopped reading: the socket write does not return
+                            stalledSendStarted.countDown();
+                            awaitQuietly(releaseStalledSend);
+                        } else {
+                            otherStreamNotified.countDown();
+                        }
+                    }
+                };
+            }
+        };
+        notifier.subscribe(stalledUser);
+        notifier.subscribe(otherUser);
+
+        long start = System.nanoTime();
+        notifier.notifyChanged(stalledUser);
+        assertThat(stalledSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        notifier.notifyChanged(stalledUser);
+        notifier.notifyChanged(otherUser);
+        assertThat(otherStreamNotified.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread.sleep(100);
+        notifier.sendHeartbeats();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(notifier.getOpenStreamCount()).isEqualTo(1);
+
+        releaseStalledSend.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.personalfin.server.sync.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.budget.dto.BudgetRequest;
+import com.personalfin.server.budget.repository.BudgetRepository;
+import com.personalfin.server.budget.repository.DailySpendLimitRepository;
+import com.personalfin.server.budget.service.BudgetService;
+import com.personalfin.server.budget.service.DailySpendCoachService;
+import com.personalfin.server.expense.config.ExpenseAnalyticsProperties;
+import com.personalfin.server.expense.config.ExpenseDuplicateProperties;
+import com.personalfin.server.expense.dto.ExpenseCreateRequest;
+import com.personalfin.server.expense.repository.ExpenseRepository;
+import com.personalfin.server.expense.service.ExpenseCategorizer;
+import com.personalfin.server.expense.service.ExpenseService;
+import com.personalfin.server.reminder.config.ReminderProperties;
+import com.personalfin.server.reminder.dto.BillRequest;
+import com.personalfin.server.reminder.model.ReminderFrequency;
+import com.personalfin.server.reminder.repository.BillRepository;
+import com.personalfin.server.reminder.service.BillService;
+import com.personalfin.server.sync.config.SyncProperties;
+import com.personalfin.server.sync.dto.SyncPushRequest;
+import com.personalfin.server.sync.dto.SyncPushRequest.SyncEntity;
+import com.personalfin.server.sync.dto.SyncPushResponse;
+import com.personalfin.server.sync.repository.SyncChangeCounterRepository;
+import com.personalfin.server.sync.repository.SyncMetadataRepository;
+import com.personalfin.server.user.model.User;
+import com.personalfin.server.user.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Pushes through the real repositories on H2 and counts the JDBC statements
+ * Hibernate prepares, so dirty-check UPDATEs, per-row INSERTs and lazy loads
+ * would all show up. Batching, ordering and chunk size are the values from
+ * application-prod.yml, so a chunk spans two JDBC batches.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@ActiveProfiles("test")
+// Let SyncService commit its own chunk transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyncPushStatementCountTest {
+
+    private static final int CHUNK_SIZE = 100;
+
+    // Locking and re-reading the change counter, bulk-loading the chunk's rows (and,
+    // for budgets, the active months), and one batched statement per kind of write
+    private static final int MAX_STATEMENTS_PER_CHUNK = 7;
+
+    private static final OffsetDateTime CLIENT_UPDATED_AT = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1);
+
+    @Autowired
+    private SyncMetadataRepository syncMetadataRepository;
+
+    @Autowired
+    private SyncChangeCounterRepository syncChangeCounterRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private DailySpendLimitRepository dailySpendLimitRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UUID userId = UUID.randomUUID();
+    private SyncService syncService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        User user = new User();
+        user.setId(userId);
+        when(userService.getUserByUsername("alice")).thenReturn(user);
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername("alice").password("n/a").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        Clock clock = Clock.systemUTC();
+        SyncProperties syncProperties = new SyncProperties();
+        syncProperties.getPush().setChunkSize(CHUNK_SIZE);
+        ExpenseService expenseService = new ExpenseService(
+                expenseRepository, mock(ExpenseCategorizer.class), new ExpenseAnalyticsProperties(),
+                new ExpenseDuplicateProperties(), mock(DailySpendCoachService.class), userService, clock);
+        BudgetService budgetService = new BudgetService(
+                budgetRepository, dailySpendLimitRepository, expenseRepository, userService, clock);
+        BillService billService = new BillService(billRepository, new ReminderProperties());
+        syncService = new SyncService(
+                syncMetadataRepository, syncChangeCounterRepository, expenseRepository, budgetRepository,
+                billRepository, expenseService, budgetService, billService, userService,
+                syncProperties, transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldPrepareStatementsPerChunkRatherThanPerEntity() {
+        long small = statementsForMixedPush(200);
+        long large = statementsForMixedPush(1000);
+
+        // 3,000 entities in 30 chunks; per-entity statements would number in the thousands
+        assertThat(large - small).isLessThanOrEqualTo((long) MAX_STATEMENTS_PER_CHUNK * (chunks(1000) - chunks(200)));
+        assertThat(large).isLessThanOrEqualTo((long) MAX_STATEMENTS_PER_CHUNK * chunks(1000));
+    }
+
+    // Each entity type is pushed in its own chunks
+    private static int chunks(int sizePerType) {
+        return 3 * ((sizePerType + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    /**
+     * Seeds {@code size} rows per entity type, then pushes {@code size / 2} creates,
+     * {@code size / 4} updates and {@code size / 4} deletes of each type and returns
+     * the statements prepared by that push alone.
+     */
+    private long statementsForMixedPush(int size) {
+        SyncPushResponse seeded = push(
+                entities(size, i -> null, i -> "create", this::expenseRequest),
+                entities(size, i -> null, i -> "create", this::budgetRequest),
+                entities(size, i -> null, i -> "create", this::billRequest));
+        List<UUID> expenseIds = serverIds(seeded, "expense");
+        List<UUID> budgetIds = serverIds(seeded, "budget");
+        List<UUID> billIds = serverIds(seeded, "bill");
+        assertThat(expenseIds).hasSize(size);
+
+        statistics.clear();
+        int creates = size / 2;
+        int updates = size / 4;
+        SyncPushResponse response = push(
+                entities(size, i -> i < creates ? null : expenseIds.get(i), i -> operation(i, creates, updates),
+                        this::expenseRequest),
+                entities(size, i -> i < creates ? null : budgetIds.get(i), i -> operation(i, creates, updates),
+                        this::budgetRequest),
+                entities(size, i -> i < creates ? null : billIds.get(i), i -> operation(i, creates, updates),
+                        this::billRequest));
+        long prepared = statistics.getPrepareStatementCount();
+
+        assertThat(response.processedCount()).isEqualTo(3 * size);
+        assertThat(response.conflictCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        return prepared;
+    }
+
+    private SyncPushResponse push(
+            List<SyncEntity<ExpenseCreateRequest>> expenses,
+            List<SyncEntity<BudgetRequest>> budgets,
+            List<SyncEntity<BillRequest>> bills) {
+        return syncService.push(new SyncPushRequest(CLIENT_UPDATED_AT, "device-1", expenses, budgets, bills));
+    }
+
+    private static <T> List<SyncEntity<T>> entities(
+            int size, IntFunction<UUID> id, IntFunction<String> operation, IntFunction<T> data) {
+        List<SyncEntity<T>> entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String op = operation.apply(i);
+            entities.add(new SyncEntity<>(id.apply(i), op, CLIENT_UPDATED_AT,
+                    "delete".equals(op) ? null : data.apply(i)));
+        }
+        return entities;
+    }
+
+    private static String operation(int index, int creates, int updates) {
+        if (index < creates) {
+            return "create";
+        }
+        return index < creates + updates ? "update" : "delete";
+    }
+
+    private static List<UUID> serverIds(SyncPushResponse response, String entityType) {
+        return response.results().stream()
+                .filter(result -> entityType.equals(result.entityType()))
+                .map(SyncPushResponse.SyncResult::serverId)
+                .toList();
+    }
+
+    private ExpenseCreateRequest expenseRequest(int index) {
+        return new ExpenseCreateRequest("Expense " + index, "Store", BigDecimal.valueOf(100 + index),
+                LocalDate.of(2025, 1, 15), "Food", "Card");
+    }
+
+    private BudgetRequest budgetRequest(int index) {
+        return new BudgetRequest("Budget " + index, BigDecimal.valueOf(30000), LocalDate.of(2025, 1 + index % 12, 1));
+    }
+
+    private BillRequest billRequest(int index) {
+        return new BillRequest("Bill " + index, "Utilities", BigDecimal.valueOf(999),
+                LocalDate.now().plusDays(5), ReminderFrequency.MONTHLY, 3);
+    }
+}
@@ -0,0 +1,408 @@
+package com.personalfin.server.sync.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.personalfin.server.budget.dto.BudgetRequest;
+import com.personalfin.server.budget.model.Budget;
+import com.personalfin.server.budget.repository.BudgetRepository;
+import com.personalfin.server.budget.repository.DailySpendLimitRepository;
+import com.personalfin.server.budget.service.BudgetService;
+import com.personalfin.server.budget.service.DailySpendCoachService;
+import com.personalfin.server.expense.config.ExpenseAnalyticsProperties;
+import com.personalfin.server.expense.config.ExpenseDuplicateProperties;
+import com.personalfin.server.expense.dto.ExpenseCreateRequest;
+import com.personalfin.server.expense.model.Expense;
+import com.personalfin.server.expense.repository.ExpenseRepository;
+import com.personalfin.server.expense.service.ExpenseCategorizer;
+import com.personalfin.server.expense.service.ExpenseService;
+import com.personalfin.server.reminder.config.ReminderProperties;
+import com.personalfin.server.reminder.dto.BillRequest;
+import com.personalfin.server.reminder.model.Bill;
+import com.personalfin.server.reminder.model.ReminderFrequency;
+import com.personalfin.server.reminder.repository.BillRepository;
+import com.personalfin.server.reminder.service.BillService;
+import com.personalfin.server.sync.config.SyncProperties;
+import com.personalfin.server.sync.dto.SyncPushRequest;
+import com.personalfin.server.sync.dto.SyncPushRequest.SyncEntity;
+import com.personalfin.server.sync.dto.SyncPushResponse;
+import com.personalfin.server.sync.dto.SyncStatusResponse;
+import com.personalfin.server.sync.model.SyncChangeCounter;
+import com.personalfin.server.sync.model.SyncMetadata;
+import com.personalfin.server.sync.repository.SyncChangeCounterRepository;
+import com.personalfin.server.sync.repository.SyncMetadataRepository;
+import com.personalfin.server.user.model.User;
+import com.personalfin.server.user.service.UserService;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    private static final OffsetDateTime SERVER_UPDATED_AT = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime CLIENT_UPDATED_AT = SERVER_UPDATED_AT.plusDays(1);
+
+    @Mock
+    private SyncMetadataRepository syncMetadataRepository;
+
+    @Mock
+    private SyncChangeCounterRepository syncChangeCounterRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private DailySpendLimitRepository dailySpendLimitRepository;
+
+    @Mock
+    private BillRepository billRepository;
+
+    @Mock
+    private ExpenseCategorizer expenseCategorizer;
+
+    @Mock
+    private DailySpendCoachService coachService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SyncProperties syncProperties = new SyncProperties();
+
+    private SyncService syncService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.systemUTC();
+        ExpenseService expenseService = new ExpenseService(
+                expenseRepository, expenseCategorizer, new ExpenseAnalyticsProperties(),
+                new ExpenseDuplicateProperties(),
+                coachService, userService, clock);
+        BudgetService budgetService = new BudgetService(
+                budgetRepository, dailySpendLimitRepository, expenseRepository, userService, clock);
+        BillService billService = new BillService(billRepository, new ReminderProperties());
+        syncService = new SyncService(
+                syncMetadataRepository, syncChangeCounterRepository, expenseRepository, budgetRepository, billRepository,
+                expenseService, budgetService, billService, userService,
+                syncProperties, transactionManager);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        User user = new User();
+        user.setId(userId);
+        when(userService.getUserByUsername("alice")).thenReturn(user);
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername("alice").password("n/a").authorities(List.of()).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldPushThousandEntitiesWithBulkRepositoryCalls() {
+        syncProperties.getPush().setChunkSize(1000);
+        List<SyncEntity<ExpenseCreateRequest>> expenses = new ArrayList<>();
+        List<SyncEntity<BudgetRequest>> budgets = new ArrayList<>();
+        List<SyncEntity<BillRequest>> bills = new ArrayList<>();
+        Set<UUID> existingIds = new HashSet<>();
+
+        for (int i = 0; i < 400; i++) {
+            expenses.add(new SyncEntity<>(entityId(i, 200, existingIds), operation(i, 200, 350),
+                    CLIENT_UPDATED_AT, expenseRequest(i)));
+        }
+        for (int i = 0; i < 300; i++) {
+            budgets.add(new SyncEntity<>(entityId(i, 100, existingIds), operation(i, 100, 250),
+                    CLIENT_UPDATED_AT, new BudgetRequest("Budget " + i, BigDecimal.valueOf(30000),
+                            LocalDate.of(2025, 1 + i % 12, 1))));
+        }
+        for (int i = 0; i < 300; i++) {
+            bills.add(new SyncEntity<>(entityId(i, 100, existingIds), operation(i, 100, 250),
+                    CLIENT_UPDATED_AT, new BillRequest("Bill " + i, "Utilities", BigDecimal.valueOf(999),
+                            LocalDate.now().plusDays(5), ReminderFrequency.MONTHLY, 3)));
+        }
+
+        when(expenseRepository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> existing(invocation.getArgument(0), existingIds, this::expense));
+        when(budgetRepository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> existing(invocation.getArgument(0), existingIds, this::budget));
+        when(billRepository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> existing(invocation.getArgument(0), existingIds, this::bill));
+        when(budgetRepository.findAllActiveByUserId(userId)).thenReturn(List.of());
+        when(expenseRepository.saveAll(anyIterable())).thenAnswer(invocation -> assignIds(
+                invocation.getArgument(0), (Expense e) -> e.setId(UUID.randomUUID())));
+        when(budgetRepository.saveAll(anyIterable())).thenAnswer(invocation -> assignIds(
+                invocation.getArgument(0), (Budget b) -> b.setId(UUID.randomUUID())));
+        when(billRepository.saveAll(anyIterable())).thenAnswer(invocation -> assignIds(
+                invocation.getArgument(0), (Bill b) -> b.setId(UUID.randomUUID())));
+        when(syncMetadataRepository.findByUserIdAndDeviceId(userId, "device-1")).thenReturn(Optional.empty());
+
+        SyncPushResponse response = syncService.push(
+                new SyncPushRequest(CLIENT_UPDATED_AT, "device-1", expenses, budgets, bills));
+
+        assertThat(response.results()).hasSize(1000);
+        assertThat(response.processedCount()).isEqualTo(1000);
+        assertThat(response.conflictCount()).isZero();
+        assertThat(response.results())
+                .filteredOn(result -> "create".equals(result.operation()))
+                .hasSize(400)
+                .allSatisfy(result -> assertThat(result.serverId()).isNotNull());
+
+        // One bulk read plus one bulk write per entity type; SyncPushStatementCountTest counts the SQL
+        assertThat(repositoryCallCount(expenseRepository)).isEqualTo(3);
+        assertThat(repositoryCallCount(budgetRepository)).isEqualTo(4);
+        assertThat(repositoryCallCount(dailySpendLimitRepository)).isEqualTo(2);
+        assertThat(repositoryCallCount(billRepository)).isEqualTo(3);
+        assertThat(repositoryCallCount(syncMetadataRepository)).isEqualTo(2);
+        verify(expenseRepository, never()).findById(any());
+        verify(userService).getUserByUsername("alice");
+    }
+
+    @Test
+    void shouldReportConflictsDetectedInMemory() {
+        UUID stale = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        Expense serverCopy = expense(stale);
+        serverCopy.setAmount(BigDecimal.TEN);
+
+        when(expenseRepository.findAllById(anyIterable())).thenReturn(List.of(serverCopy));
+        when(syncMetadataRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        SyncPushResponse response = syncService.push(new SyncPushRequest(
+                CLIENT_UPDATED_AT,
+                null,
+                List.of(
+                        new SyncEntity<>(stale, "update", SERVER_UPDATED_AT.minusDays(1), expenseRequest(1)),
+                        new SyncEntity<>(missing, "delete", CLIENT_UPDATED_AT, null)),
+                null,
+                null));
+
+        assertThat(response.conflictCount()).isEqualTo(2);
+        assertThat(response.conflicts())
+                .extracting(SyncPushResponse.SyncConflict::reason)
+                .containsExactly("server_updated_after_client", "entity_deleted_on_server");
+        assertThat(response.processedCount()).isZero();
+        assertThat(serverCopy.getAmount()).isEqualTo(BigDecimal.TEN);
+        verify(expenseRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void shouldIsolateFailingEntityAndCommitTheRestOfItsChunk() {
+        List<SyncEntity<ExpenseCreateRequest>> expenses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expenses.add(new SyncEntity<>(UUID.randomUUID(), "create", CLIENT_UPDATED_AT, expenseRequest(i)));
+        }
+
+        when(expenseRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(expenseRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Expense> batch = invocation.getArgument(0);
+            for (Expense expense : batch) {
+                if ("Expense 2".equals(expense.getDescription())) {
+                    throw new IllegalStateException("constraint violation");
+                }
+            }
+            return assignIds(batch, (Expense e) -> e.setId(UUID.randomUUID()));
+        });
+        when(syncMetadataRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        SyncPushResponse response = syncService.push(
+                new SyncPushRequest(CLIENT_UPDATED_AT, null, expenses, null, null));
+
+        assertThat(response.processedCount()).isEqualTo(4);
+        assertThat(response.results())
+                .extracting(SyncPushResponse.SyncResult::entityId)
+                .containsExactlyElementsOf(expenses.stream().map(SyncEntity::id).toList());
+        assertThat(response.results().get(2).success()).isFalse();
+        assertThat(response.results().get(2).message()).isEqualTo("Error: constraint violation");
+        // Whole chunk and the poisoned entity roll back; four single-entity chunks plus metadata commit
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(5)).commit(any());
+    }
+
+    @Test
+    void shouldAdvanceDeviceWatermarkOnlyByItsOwnWrites() {
+        when(expenseRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(expenseRepository.saveAll(anyIterable())).thenAnswer(invocation ->
+                assignIds(invocation.<Iterable<Expense>>getArgument(0), (Expense e) -> e.setId(UUID.randomUUID())));
+        SyncMetadata metadata = new SyncMetadata();
+        metadata.setSyncedChangeSeq(7);
+        when(syncMetadataRepository.findByUserIdAndDeviceId(userId, "phone")).thenReturn(Optional.of(metadata));
+        // Another device wrote three changes (7 -> 10) before this push added two
+        SyncChangeCounter counter = counter(10);
+        when(syncChangeCounterRepository.findByUserIdForUpdate(userId)).thenReturn(Optional.of(counter));
+        when(syncChangeCounterRepository.findChangeSeqByUserId(userId)).thenReturn(Optional.of(12L));
+
+        syncService.push(new SyncPushRequest(
+                CLIENT_UPDATED_AT,
+                "phone",
+                List.of(
+                        new SyncEntity<>(UUID.randomUUID(), "create", CLIENT_UPDATED_AT, expenseRequest(1)),
+                        new SyncEntity<>(UUID.randomUUID(), "create", CLIENT_UPDATED_AT, expenseRequest(2))),
+                null,
+                null));
+
+        ArgumentCaptor<SyncMetadata> saved = ArgumentCaptor.forClass(SyncMetadata.class);
+        verify(syncMetadataRepository).save(saved.capture());
+        assertThat(saved.getValue().getSyncedChangeSeq()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldReportPendingChangesFromCounterAndWatermark() {
+        SyncMetadata metadata = new SyncMetadata();
+        metadata.setLastSyncAt(SERVER_UPDATED_AT);
+        metadata.setSyncedChangeSeq(9);
+        when(syncMetadataRepository.findByUserIdAndDeviceId(userId, "phone")).thenReturn(Optional.of(metadata));
+        SyncChangeCounter counter = counter(12);
+        when(counter.getLastChangedAt()).thenReturn(CLIENT_UPDATED_AT);
+        when(syncChangeCounterRepository.findById(userId)).thenReturn(Optional.of(counter));
+
+        SyncStatusResponse status = syncService.getStatus("phone");
+
+        assertThat(status.hasUnsyncedChanges()).isTrue();
+        assertThat(status.pendingChangesCount()).isEqualTo(3);
+        assertThat(status.lastSyncAt()).isEqualTo(SERVER_UPDATED_AT);
+        assertThat(status.lastChangedAt()).isEqualTo(CLIENT_UPDATED_AT);
+    }
+
+    @Test
+    void shouldReportNoPendingChangesWhenDeviceIsCaughtUp() {
+        SyncMetadata metadata = new SyncMetadata();
+        metadata.setSyncedChangeSeq(12);
+        when(syncMetadataRepository.findByUserId(userId)).thenReturn(Optional.of(metadata));
+        SyncChangeCounter counter = counter(12);
+        when(syncChangeCounterRepository.findById(userId)).thenReturn(Optional.of(counter));
+
+        SyncStatusResponse status = syncService.getStatus(null);
+
+        assertThat(status.hasUnsyncedChanges()).isFalse();
+        assertThat(status.pendingChangesCount()).isZero();
+    }
+
+    private SyncChangeCounter counter(long changeSeq) {
+        SyncChangeCounter counter = mock(SyncChangeCounter.class);
+        when(counter.getChangeSeq()).thenReturn(changeSeq);
+        return counter;
+    }
+
+    private UUID entityId(int index, int createCount, Set<UUID> existingIds) {
+        UUID id = UUID.randomUUID();
+        if (index >= createCount) {
+            existingIds.add(id);
+        }
+        return id;
+    }
+
+    private String operation(int index, int createCount, int updateCount) {
+        if (index < createCount) {
+            return "create";
+        }
+        return index < updateCount ? "update" : "delete";
+    }
+
+    private ExpenseCreateRequest expenseRequest(int index) {
+        return new ExpenseCreateRequest("Expense " + index, "Store", BigDecimal.valueOf(100 + index),
+                LocalDate.of(2025, 1, 15), "Food", "Card");
+    }
+
+    private Expense expense(UUID id) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setUserId(userId);
+        expense.setDescription("Existing");
+        expense.setAmount(BigDecimal.ONE);
+        setUpdatedAt(expense, Expense.class);
+        return expense;
+    }
+
+    private Budget budget(UUID id) {
+        Budget budget = new Budget();
+        budget.setId(id);
+        budget.setUserId(userId);
+        budget.setName("Existing");
+        budget.setAmount(BigDecimal.ONE);
+        budget.setMonthYear(LocalDate.of(2025, 1, 1));
+        setUpdatedAt(budget, Budget.class);
+        return budget;
+    }
+
+    private Bill bill(UUID id) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setUserId(userId);
+        bill.setName("Existing");
+        setUpdatedAt(bill, Bill.class);
+        return bill;
+    }
+
+    private static <T> void setUpdatedAt(T entity, Class<T> type) {
+        try {
+            var field = type.getDeclaredField("updatedAt");
+            field.setAccessible(true);
+            field.set(entity, SERVER_UPDATED_AT);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> List<T> existing(Iterable<UUID> ids, Set<UUID> existingIds, Function<UUID, T> factory) {
+        List<T> found = new ArrayList<>();
+        for (UUID id : ids) {
+            if (existingIds.contains(id)) {
+                found.add(factory.apply(id));
+            }
+        }
+        return found;
+    }
+
+    private static <T> List<T> assignIds(Iterable<T> entities, java.util.function.Consumer<T> idAssigner) {
+        List<T> saved = new ArrayList<>();
+        entities.forEach(entity -> {
+            idAssigner.accept(entity);
+            saved.add(entity);
+        });
+        return saved;
+    }
+
+    private static int repositoryCallCount(Object repository) {
+        return mockingDetails(repository).getInvocations().size();
+    }
+}
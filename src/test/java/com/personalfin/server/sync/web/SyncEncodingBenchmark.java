@@ -0,0 +1,141 @@
+package com.personalfin.server.sync.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personalfin.server.expense.dto.ExpenseCreateRequest;
+import com.personalfin.server.expense.dto.ExpenseResponse;
+import com.personalfin.server.support.Benchmark;
+import com.personalfin.server.sync.dto.SyncPullResponse;
+import com.personalfin.server.sync.dto.SyncPushRequest;
+import com.personalfin.server.sync.dto.SyncPushRequest.SyncEntity;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Size and server CPU of a 5,000-entity sync in each encoding the sync API
+ * negotiates: writing a pull response and reading a push request, with and
+ * without gzip. CPU is this thread's CPU time per operation, averaged over
+ * {@value #RUNS} runs after {@value #WARMUP} warm-up runs.
+ */
+@Tag(Benchmark.TAG)
+class SyncEncodingBenchmark {
+
+    private static final int ENTITIES = 5_000;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 100;
+
+    private static final String[] MERCHANTS = {
+            "Swiggy", "DMart", "Uber", "Apollo Pharmacy", "BigBasket", "Shell", "Zomato", "IRCTC"
+    };
+    private static final String[] CATEGORIES = {"Food", "Groceries", "Transport", "Health", "Shopping", "Travel"};
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    void compareEncodings() throws IOException {
+        SyncPullResponse pull = pullResponse();
+        SyncPushRequest push = pushRequest();
+
+        for (ObjectMapper mapper : List.of(json, cbor)) {
+            for (boolean gzip : new boolean[] {false, true}) {
+                String format = mapper.getFactory().getFormatName().toLowerCase(Locale.ROOT);
+                String encoding = gzip ? format + "+gzip" : format;
+
+                byte[] pulled = write(mapper, pull, gzip);
+                double writeMillis = cpuMillis(() -> write(mapper, pull, gzip));
+
+                byte[] pushed = write(mapper, push, gzip);
+                assertThat(read(mapper, pushed, gzip).expenses()).hasSize(ENTITIES);
+                double readMillis = cpuMillis(() -> read(mapper, pushed, gzip));
+
+                Benchmark.report("sync-encoding", "%-9s pull %,10d B, write %5.1f ms | push %,10d B, read %5.1f ms",
+                        encoding, pulled.length, writeMillis, pushed.length, readMillis);
+            }
+        }
+    }
+
+    private static byte[] write(ObjectMapper mapper, Object value, boolean gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            mapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SyncPushRequest read(ObjectMapper mapper, byte[] body, boolean gzip) throws IOException {
+        InputStream bytes = new ByteArrayInputStream(body);
+        try (InputStream in = gzip ? new GZIPInputStream(bytes) : bytes) {
+            return mapper.readValue(in, SyncPushRequest.class);
+        }
+    }
+
+    private static double cpuMillis(Operation operation) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < RUNS; i++) {
+            operation.run();
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1e6 / RUNS;
+    }
+
+    private static SyncPullResponse pullResponse() {
+        Random random = new Random(28);
+        OffsetDateTime now = OffsetDateTime.of(2025, 3, 15, 10, 0, 0, 0, ZoneOffset.UTC);
+        List<ExpenseResponse> expenses = new ArrayList<>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            expenses.add(new ExpenseResponse(UUID.randomUUID(), merchant + " order " + i, merchant,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], amount(random),
+                    LocalDate.of(2025, 1, 1).plusDays(random.nextInt(70)), "UPI",
+                    now.minusMinutes(random.nextInt(100_000)), now));
+        }
+        return new SyncPullResponse(now, now.minusDays(1), ENTITIES, expenses, List.of(), List.of(),
+                List.of(), List.of(), List.of());
+    }
+
+    private static SyncPushRequest pushRequest() {
+        Random random = new Random(28);
+        OffsetDateTime now = OffsetDateTime.of(2025, 3, 15, 10, 0, 0, 0, ZoneOffset.UTC);
+        List<SyncEntity<ExpenseCreateRequest>> expenses = new ArrayList<>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            expenses.add(new SyncEntity<>(UUID.randomUUID(), "create", now.minusMinutes(random.nextInt(100_000)),
+                    new ExpenseCreateRequest(merchant + " order " + i, merchant, amount(random),
+                            LocalDate.of(2025, 1, 1).plusDays(random.nextInt(70)),
+                            CATEGORIES[random.nextInt(CATEGORIES.length)], "UPI")));
+        }
+        return new SyncPushRequest(now.minusDays(1), "pixel-7", expenses, List.of(), List.of());
+    }
+
+    private static BigDecimal amount(Random random) {
+        return BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+}